@@ -4,10 +4,13 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Locale;
 
+import com.monead.games.android.sequence.log.GameLog;
+import com.monead.games.android.sequence.log.LogRingBuffer;
 import com.monead.games.android.sequence.model.SequenceHuntGameModel;
 import com.monead.games.android.sequence.reporting.GameStatistics;
 import com.monead.games.android.sequence.reporting.GameStatisticsEngine;
 import com.monead.games.android.sequence.ui.SequenceGameBoard;
+import com.monead.games.android.sequence.util.AndroidLogSink;
 import com.monead.games.android.sequence.util.Formatter;
 import com.monead.games.android.sequence.util.KeyCodeConverter;
 import com.monead.games.android.sequence.sound.SoundManager;
@@ -24,7 +27,6 @@ import android.media.AudioManager;
 import android.os.Bundle;
 import android.os.Handler;
 import android.text.ClipboardManager;
-import android.util.Log;
 import android.view.KeyEvent;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -36,9 +38,11 @@ import android.view.View.OnTouchListener;
 import android.webkit.WebView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.RadioButton;
 import android.widget.Spinner;
 import android.widget.TextView;
+import android.widget.Toast;
 
 /**
  * Copyright 2011, David S. Read
@@ -82,6 +86,11 @@ public class Sequence extends Activity implements OnTouchListener {
    */
   private static final boolean KOREAN_VERSION = false;
 
+  /**
+   * Number of recent log messages kept for the runtime information dialog.
+   */
+  private static final int LOG_HISTORY_SIZE = 50;
+
   /**
    * Simple Dialog used to show the splash screen.
    */
@@ -124,6 +133,11 @@ public class Sequence extends Activity implements OnTouchListener {
    */
   private static final String PREF_SEQUENCE_LENGTH = "SequenceLength";
 
+  /**
+   * Key for persisting the no repeated colors choice.
+   */
+  private static final String PREF_UNIQUE_COLORS = "UniqueColors";
+
   /**
    * Key for persisting whether a current game state has been written to a local
    * file.
@@ -240,6 +254,7 @@ public class Sequence extends Activity implements OnTouchListener {
 
     super.onCreate(savedInstanceState);
 
+    setupLogging();
     loadGameStatistics();
     gameBoard = new SequenceGameBoard(this, gameStatistics,
                 getSharedPreferences(PREFERENCES_FILE_NAME, MODE_PRIVATE)
@@ -251,7 +266,7 @@ public class Sequence extends Activity implements OnTouchListener {
     setVolumeControlStream(AudioManager.STREAM_MUSIC);
 
     if (firstUse()) {
-      Log.d(className, "Need to display first use screen");
+      GameLog.d(className, "Need to display first use screen");
       setupForFirstUse();
     } else {
       displayGameboard();
@@ -322,7 +337,7 @@ public class Sequence extends Activity implements OnTouchListener {
       Thread.sleep(SPLASH_SCREEN_DELAY_MILLISECONDS);
     }
     catch (Throwable throwable) {
-      Log.w("Sequence", "Error during splash screen delay sleep",
+      GameLog.w("Sequence", "Error during splash screen delay sleep",
                     throwable);
     }
 
@@ -331,7 +346,7 @@ public class Sequence extends Activity implements OnTouchListener {
         Thread.sleep(SPLASH_SCREEN_FALLBACK_DELAY_MILLISECONDS);
       }
       catch (Throwable throwable) {
-        Log.w("Sequence", "Error during splash screen delay sleep",
+        GameLog.w("Sequence", "Error during splash screen delay sleep",
                         throwable);
       }
     }
@@ -354,13 +369,25 @@ public class Sequence extends Activity implements OnTouchListener {
     gameBoardIsDisplayed = false;
   }
 
+  /**
+   * Send the game's log messages to the Android log and keep the most recent
+   * ones for the runtime information dialog. The process may outlive the
+   * activity, so the recent messages are kept if already being recorded.
+   */
+  private void setupLogging() {
+    GameLog.setSink(new AndroidLogSink());
+    if (GameLog.getRingBuffer() == null) {
+      GameLog.setRingBuffer(new LogRingBuffer(LOG_HISTORY_SIZE));
+    }
+  }
+
   /**
    * Display the first use screen.
    */
   private void setupForFirstUse() {
-    Log.d(className, "Displaying first use screen");
+    GameLog.d(className, "Displaying first use screen");
     setContentView(R.layout.first_use);
-    Log.d(className, "First use screen set as view");
+    GameLog.d(className, "First use screen set as view");
 
     setGameBoardNotVisible();
     // gameBoardIsDisplayed = false;
@@ -413,7 +440,7 @@ public class Sequence extends Activity implements OnTouchListener {
       programVersion = pi.versionName;
     }
     catch (Throwable throwable) {
-      Log.e(className,
+      GameLog.e(className,
                     getResources().getString(
                             R.string.errormessage_program_or_version_name),
                     throwable);
@@ -422,14 +449,18 @@ public class Sequence extends Activity implements OnTouchListener {
                     R.string.message_undefined);
     }
 
-    Log.d(className,
-                getResources().getString(
-                        R.string.message_report_program_and_version_names)
-                        + ": " + programName + ", " + programVersion);
+    if (GameLog.DEBUG) {
+      GameLog.d(className, getResources().getString(
+                    R.string.message_report_program_and_version_names)
+                    + ": {}", programName + ", " + programVersion);
+    }
 
     gameBoard.setDifficultyToHard(settings
                 .getBoolean(PREF_MODE_HARD, false));
 
+    gameBoard.setUniqueColors(settings
+                .getBoolean(PREF_UNIQUE_COLORS, false));
+
     SoundManager.getInstance().setSoundEnabled(
                 settings.getBoolean(PREF_SOUND_ENABLED, true));
 
@@ -499,6 +530,22 @@ public class Sequence extends Activity implements OnTouchListener {
     gameBoard.setSequenceLength(sequenceLength);
   }
 
+  /**
+   * Set whether colors may be repeated in the sequence.
+   * 
+   * @param uniqueColors
+   *          True if a color may appear only once
+   */
+  private void setUniqueColors(final boolean uniqueColors) {
+    SharedPreferences settings = getSharedPreferences(
+                PREFERENCES_FILE_NAME, MODE_PRIVATE);
+    SharedPreferences.Editor editor = settings.edit();
+    editor.putBoolean(PREF_UNIQUE_COLORS, uniqueColors);
+    editor.commit();
+
+    gameBoard.setUniqueColors(uniqueColors);
+  }
+
   /**
    * Life cycle method - called when activity loses focus
    * 
@@ -554,7 +601,7 @@ public class Sequence extends Activity implements OnTouchListener {
   private void setCurrentMediaVolume(final int volume) {
     AudioManager audio = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
     audio.setStreamVolume(AudioManager.STREAM_MUSIC, volume, 0);
-    Log.d(className, "Set media volume to " + volume);
+    GameLog.d(className, "Set media volume to {}", volume);
   }
   
   /**
@@ -567,7 +614,10 @@ public class Sequence extends Activity implements OnTouchListener {
     SharedPreferences.Editor editor = settings.edit();
     editor.putInt(PREF_GAME_VOLUME, getCurrentMediaVolume());
     editor.commit();
-    Log.d(className, "Saved game media volume: " + getCurrentMediaVolume());
+    if (GameLog.DEBUG) {
+      GameLog.d(className, "Saved game media volume: {}",
+          getCurrentMediaVolume());
+    }
   }
   
   /**
@@ -579,11 +629,11 @@ public class Sequence extends Activity implements OnTouchListener {
     
     if (gameVolume != -1) {
       setCurrentMediaVolume(gameVolume);
-      Log.d(className, "Restored game media volume to " + gameVolume);
-    } else {
-      Log.d(className, 
-          "No prior game media volume set, leave as current value of " 
-          + getCurrentMediaVolume());
+      GameLog.d(className, "Restored game media volume to {}", gameVolume);
+    } else if (GameLog.DEBUG) {
+      GameLog.d(className, 
+          "No prior game media volume set, leave as current value of {}",
+          getCurrentMediaVolume());
     }
   }
 
@@ -642,6 +692,9 @@ public class Sequence extends Activity implements OnTouchListener {
     }
 
     spinnerSequenceLength.setSelection(selectedLengthPosition);
+
+    ((CheckBox) findViewById(R.id.check_unique_colors))
+                .setChecked(gameBoard.isUniqueColors());
   }
 
   /**
@@ -696,7 +749,7 @@ public class Sequence extends Activity implements OnTouchListener {
       files = am.list(directoryName);
     }
     catch (Throwable throwable) {
-      Log.w(className,
+      GameLog.w(className,
                     "Cannot get asset file list for: " + directoryName,
                     throwable);
       files = new String[0];
@@ -742,7 +795,7 @@ public class Sequence extends Activity implements OnTouchListener {
       editor.commit();
     }
     catch (Throwable throwable) {
-      Log.e(className,
+      GameLog.e(className,
                     getResources().getString(
                             R.string.errormessage_model_write_failed),
                     throwable);
@@ -753,7 +806,7 @@ public class Sequence extends Activity implements OnTouchListener {
           out.close();
         }
         catch (Throwable throwable) {
-          Log.e(
+          GameLog.e(
               className, getResources()
                   .getString(
                       R.string.errormessage_model_output_file_close_failed),
@@ -784,7 +837,7 @@ public class Sequence extends Activity implements OnTouchListener {
         }
       }
       catch (Throwable throwable) {
-        Log.w(className,
+        GameLog.w(className,
                         getResources().getString(
                                 R.string.errormessage_model_read_failed),
                         throwable);
@@ -795,7 +848,7 @@ public class Sequence extends Activity implements OnTouchListener {
             in.close();
           }
           catch (Throwable throwable) {
-            Log.e(className,
+            GameLog.e(className,
                 getResources()
                     .getString(
                         R.string.errormessage_model_input_file_close_failed),
@@ -818,7 +871,7 @@ public class Sequence extends Activity implements OnTouchListener {
       out.writeObject(gameStatistics);
     }
     catch (Throwable throwable) {
-      Log.e(className,
+      GameLog.e(className,
                     getResources().getString(
                             R.string.errormessage_stats_write_failed),
                     throwable);
@@ -829,7 +882,7 @@ public class Sequence extends Activity implements OnTouchListener {
           out.close();
         }
         catch (Throwable throwable) {
-          Log.e(
+          GameLog.e(
               className, getResources()
                   .getString(
                       R.string.errormessage_stats_output_file_close_failed),
@@ -851,7 +904,7 @@ public class Sequence extends Activity implements OnTouchListener {
       gameStatistics = (GameStatisticsEngine) in.readObject();
     }
     catch (Throwable throwable) {
-      Log.w(className,
+      GameLog.w(className,
             getResources().getString(
                   R.string.errormessage_stats_read_failed), throwable);
       gameStatistics = new GameStatisticsEngine();
@@ -862,7 +915,7 @@ public class Sequence extends Activity implements OnTouchListener {
           in.close();
         }
         catch (Throwable throwable) {
-          Log.e(className, getResources()
+          GameLog.e(className, getResources()
                 .getString(
                     R.string.errormessage_stats_input_file_close_failed),
                     throwable);
@@ -907,6 +960,9 @@ public class Sequence extends Activity implements OnTouchListener {
       case R.id.new_game:
         startNewGame();
         return true;
+      case R.id.hint:
+        showHint();
+        return true;
       case R.id.quit:
         quit();
         return true;
@@ -987,6 +1043,17 @@ public class Sequence extends Activity implements OnTouchListener {
                 + gameStatistics.reportHistoryCSV());
   }
 
+  /**
+   * Show the solver's suggested guess on the game board, or explain that no
+   * hint is available.
+   */
+  private void showHint() {
+    if (!gameBoard.showHint()) {
+      Toast.makeText(this, R.string.message_hint_unavailable,
+          Toast.LENGTH_SHORT).show();
+    }
+  }
+
   /**
    * Show low-level operational data.
    */
@@ -1219,6 +1286,10 @@ public class Sequence extends Activity implements OnTouchListener {
           info.append(detail);
           info.append('\n');
         }
+        if (GameLog.getRingBuffer() != null) {
+          info.append('\n');
+          info.append(GameLog.getRingBuffer().dump());
+        }
         ((AlertDialog) dialog).setMessage(getResources().getString(
                         R.string.label_runtime_information)
                         + "\n\n" + info.toString());
@@ -1381,17 +1452,17 @@ public class Sequence extends Activity implements OnTouchListener {
        * event.getRawX() + "," + (int) event.getRawY() + ")");
        */
       // showDialog(DIALOG_ALERT, args);
-      Log.d(className, "Screen touch detected, process");
+      GameLog.d(className, "Screen touch detected, process");
       processed = ((OnTouchListener) v).onTouch(v, event);
 
       if (processed) {
         if (gameBoard.getModel().isWinner()) {
-          Log.d(className, "Screen touch processed, winner detected");
+          GameLog.d(className, "Screen touch processed, winner detected");
           gameStatistics.addGame(gameBoard.getModel(),
                             gameBoard.isDifficultySetToHard());
           showDialog(DIALOG_WIN);
         } else if (gameBoard.getModel().isLoser()) {
-          Log.d(className, "Screen touch processed, loser detected");
+          GameLog.d(className, "Screen touch processed, loser detected");
           gameStatistics.addGame(gameBoard.getModel(),
                             gameBoard.isDifficultySetToHard());
           showDialog(DIALOG_LOSE);
@@ -1485,10 +1556,12 @@ public class Sequence extends Activity implements OnTouchListener {
                         .getSelectedItem().toString()));
       }
       catch (Throwable throwable) {
-        Log.e(className, "Unable to set new sequence length: "
+        GameLog.e(className, "Unable to set new sequence length: "
                         + spinnerSequenceLength.getSelectedItem().toString(),
                         throwable);
       }
+      setUniqueColors(((CheckBox) findViewById(R.id.check_unique_colors))
+                      .isChecked());
       setDifficultyToHard(hard.isChecked());
       setSound(rbSoundOn.isChecked());
 
@@ -0,0 +1,320 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The sequences of a code space that are still possible answers, held as
+ * one bit per code space index.
+ * 
+ * A new set holds every sequence. Each submitted try is applied with
+ * filter(), which clears, in place, the sequences that would not have
+ * produced the try's clues. Survivors are visited without allocating by
+ * looping on nextIndex():
+ * 
+ * <pre>
+ * for (int index = set.nextIndex(0); index >= 0;
+ *         index = set.nextIndex(index + 1)) {
+ *     ...
+ * }
+ * </pre>
+ * 
+ * Sets are not thread safe. A set that is shared (e.g. through a
+ * GameSnapshot) must be a read only copy (see readOnlyCopy()).
+ * 
+ * @author David Read
+ * 
+ */
+public final class CandidateSet {
+    /**
+     * The largest code space a set can be created for, which needs a 2MB
+     * bitset. This covers every sequence length of the standard six colors
+     * for the hint solvers, which filter off the UI thread. The game itself
+     * keeps a set only for much smaller rules (see
+     * SequenceHuntGame.getNumCandidates()).
+     */
+    public static final int MAX_CODES = 1 << 24;
+
+    /**
+     * Bits in a word of the set.
+     */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * Shift converting an index to its word in the set.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * The code space the sequences are drawn from.
+     */
+    private final CodeSpace space;
+
+    /**
+     * Membership of each code space index, one bit per index.
+     */
+    private final long[] bits;
+
+    /**
+     * The number of sequences in the set.
+     */
+    private int size;
+
+    /**
+     * Whether the set may no longer be filtered, e.g. because it has been
+     * published with a snapshot.
+     */
+    private final boolean readOnly;
+
+    /**
+     * Create a set holding every sequence of a code space.
+     * 
+     * @param pSpace  The code space
+     * 
+     * @throws IllegalArgumentException  If the space has more than
+     *             MAX_CODES sequences
+     */
+    public CandidateSet(final CodeSpace pSpace) {
+        int lastBits;
+
+        if (pSpace.size() > MAX_CODES) {
+            throw new IllegalArgumentException(
+                    "Too many sequences for a candidate set: " + pSpace);
+        }
+
+        space = pSpace;
+        readOnly = false;
+        size = pSpace.size();
+        bits = new long[(size + BITS_PER_WORD - 1) >>> WORD_SHIFT];
+
+        for (int wordNum = 0; wordNum < bits.length; ++wordNum) {
+            bits[wordNum] = -1L;
+        }
+
+        lastBits = size & (BITS_PER_WORD - 1);
+        if (lastBits != 0) {
+            bits[bits.length - 1] = (1L << lastBits) - 1;
+        }
+    }
+
+    /**
+     * Create a copy of a set.
+     * 
+     * @param other  The set to copy
+     * @param pReadOnly  Whether the copy may no longer be filtered
+     */
+    private CandidateSet(final CandidateSet other, final boolean pReadOnly) {
+        space = other.space;
+        bits = other.bits.clone();
+        size = other.size;
+        readOnly = pReadOnly;
+    }
+
+    /**
+     * Copy the set, e.g. to share it with another thread.
+     * 
+     * @return A new set with the same members
+     */
+    public CandidateSet copy() {
+        return new CandidateSet(this, false);
+    }
+
+    /**
+     * Copy the set into one that cannot be filtered, so that it can be
+     * shared with any number of readers.
+     * 
+     * @return A new, read only set with the same members
+     */
+    public CandidateSet readOnlyCopy() {
+        return new CandidateSet(this, true);
+    }
+
+    /**
+     * Get the code space the sequences are drawn from.
+     * 
+     * @return The code space
+     */
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Get the number of sequences in the set.
+     * 
+     * @return The number of sequences
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determine whether a sequence is in the set.
+     * 
+     * @param index  The code space index of the sequence
+     * 
+     * @return True if the sequence is a member
+     */
+    public boolean contains(final int index) {
+        return (bits[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * Find the first member at or after an index.
+     * 
+     * @param fromIndex  The code space index to start at, 0 or more
+     * 
+     * @return The code space index of the member, -1 if there is none
+     */
+    public int nextIndex(final int fromIndex) {
+        int wordNum = fromIndex >>> WORD_SHIFT;
+        long word;
+
+        if (wordNum >= bits.length) {
+            return -1;
+        }
+
+        word = bits[wordNum] & (-1L << fromIndex);
+        while (word == 0) {
+            if (++wordNum == bits.length) {
+                return -1;
+            }
+            word = bits[wordNum];
+        }
+
+        return (wordNum << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Remove the sequences that would not have produced a try's feedback.
+     * 
+     * @param tryCode  The packed try (see SequenceCode)
+     * @param feedback  The feedback value the try received (see
+     *            SequenceCode.getExact() and SequenceCode.getColorOnly())
+     * @param table  The feedback table for the set's code space, null to
+     *            score without one
+     * 
+     * @return The number of sequences left in the set
+     * 
+     * @throws UnsupportedOperationException  If the set is read only
+     */
+    public int filter(final long tryCode, final int feedback,
+            final FeedbackTable table) {
+        int sequenceLength = space.getSequenceLength();
+        int tryIndex = -1;
+        int index;
+        long word;
+        long remaining;
+        long bit;
+        int score;
+
+        checkWritable();
+
+        if (table != null && table.getSpace().equals(space)
+                && space.contains(tryCode)) {
+            tryIndex = space.indexOf(tryCode);
+        }
+
+        for (int wordNum = 0; wordNum < bits.length; ++wordNum) {
+            word = bits[wordNum];
+            remaining = word;
+            while (remaining != 0) {
+                bit = remaining & -remaining;
+                remaining ^= bit;
+                index = (wordNum << WORD_SHIFT)
+                        + Long.numberOfTrailingZeros(bit);
+                if (tryIndex >= 0) {
+                    score = table.score(tryIndex, index);
+                } else {
+                    score = SwarScorer.score(tryCode, space.codeAt(index),
+                            sequenceLength);
+                }
+
+                if (score != feedback) {
+                    word ^= bit;
+                    --size;
+                }
+            }
+            bits[wordNum] = word;
+        }
+
+        return size;
+    }
+
+    /**
+     * Remove the sequences that would not have produced a try's color
+     * feedback, i.e. its clues as shown in easy mode.
+     * 
+     * @param tryCode  The packed try (see SequenceCode)
+     * @param colorFeedback  The color feedback the try received (see
+     *            ColorFeedback)
+     * 
+     * @return The number of sequences left in the set
+     * 
+     * @throws UnsupportedOperationException  If the set is read only
+     */
+    public int filterColors(final long tryCode, final long colorFeedback) {
+        int sequenceLength = space.getSequenceLength();
+        long word;
+        long remaining;
+        long bit;
+
+        checkWritable();
+
+        for (int wordNum = 0; wordNum < bits.length; ++wordNum) {
+            word = bits[wordNum];
+            remaining = word;
+            while (remaining != 0) {
+                bit = remaining & -remaining;
+                remaining ^= bit;
+                if (ColorFeedback.score(tryCode, space.codeAt((wordNum
+                        << WORD_SHIFT) + Long.numberOfTrailingZeros(bit)),
+                        sequenceLength) != colorFeedback) {
+                    word ^= bit;
+                    --size;
+                }
+            }
+            bits[wordNum] = word;
+        }
+
+        return size;
+    }
+
+    /**
+     * Describe the set.
+     * 
+     * @return A description of the set
+     */
+    /**
+     * Check that the set may be filtered.
+     * 
+     * @throws UnsupportedOperationException  If the set is read only
+     */
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(
+                    "Candidate set is read only");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateSet [size=" + size + ", space=" + space + "]";
+    }
+}
@@ -0,0 +1,203 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Operations on the clues for a try packed into a single long (a clue
+ * word).
+ *
+ * The lowest 8 bits hold the try's feedback value (see SequenceCode.score()),
+ * i.e. the number of exact and color-only matches. Above them the colors
+ * shown by the clue slots are held as a packed sequence (see SequenceCode),
+ * slot 0 lowest. The exact match clues come first, then the color-only
+ * clues; any remaining slots show no match and hold no color. So the
+ * meaning of a slot follows from the counts and never needs storing.
+ *
+ * A clue word of 0 reports no matches, which is also how the clues of a
+ * try that has not been submitted read. None of the methods allocate
+ * memory.
+ *
+ * @author David Read
+ *
+ */
+public final class ClueWord {
+    /**
+     * Shift applied to the clue colors in a clue word.
+     */
+    private static final int COLORS_SHIFT = 2 * SequenceCode.FEEDBACK_SHIFT;
+
+    /**
+     * Mask for the feedback value in a clue word.
+     */
+    private static final long FEEDBACK_BITS = (1L << COLORS_SHIFT) - 1;
+
+    /**
+     * No instances - static methods only.
+     */
+    private ClueWord() {
+    }
+
+    /**
+     * Create a clue word for a feedback value, with no clue colors set.
+     *
+     * @param feedback
+     *            The feedback value (see SequenceCode.score())
+     *
+     * @return The clue word
+     */
+    public static long create(final int feedback) {
+        return feedback & FEEDBACK_BITS;
+    }
+
+    /**
+     * Get the feedback value held in a clue word.
+     *
+     * @param word
+     *            The clue word
+     *
+     * @return The feedback value (see SequenceCode.getExact() and
+     *         SequenceCode.getColorOnly())
+     */
+    public static int getFeedback(final long word) {
+        return (int) (word & FEEDBACK_BITS);
+    }
+
+    /**
+     * Get the number of exact match (correct color and position) clues.
+     *
+     * @param word
+     *            The clue word
+     *
+     * @return The number of exact matches
+     */
+    public static int getExact(final long word) {
+        return SequenceCode.getExact(getFeedback(word));
+    }
+
+    /**
+     * Get the number of color-only match (correct color, incorrect
+     * position) clues.
+     *
+     * @param word
+     *            The clue word
+     *
+     * @return The number of color-only matches
+     */
+    public static int getColorOnly(final long word) {
+        return SequenceCode.getColorOnly(getFeedback(word));
+    }
+
+    /**
+     * Get the meaning of a clue slot.
+     *
+     * @param word
+     *            The clue word
+     * @param slot
+     *            The clue slot
+     *
+     * @return The clue type (CLUE_* constants of SequenceHuntGame)
+     */
+    public static int getClueType(final long word, final int slot) {
+        int exact = getExact(word);
+
+        if (slot < exact) {
+            return SequenceHuntGame.CLUE_POSIT_CORRECT;
+        }
+
+        if (slot < exact + getColorOnly(word)) {
+            return SequenceHuntGame.CLUE_POSIT_INCORRECT;
+        }
+
+        return SequenceHuntGame.CLUE_COMPLETELY_INCORRECT;
+    }
+
+    /**
+     * Get the color shown by a clue slot.
+     *
+     * @param word
+     *            The clue word
+     * @param slot
+     *            The clue slot
+     *
+     * @return The color (COLOR_* constants of SequenceHuntGame) or
+     *         UNSELECTED if the slot shows no match
+     */
+    public static int getClueColor(final long word, final int slot) {
+        if (getClueType(word, slot) 
+                == SequenceHuntGame.CLUE_COMPLETELY_INCORRECT) {
+            return SequenceHuntGame.UNSELECTED;
+        }
+
+        return getColorIndex(word, slot) + SequenceHuntGame.FIRST_COLOR;
+    }
+
+    /**
+     * Get the color index (0 based) held for a clue slot.
+     *
+     * @param word
+     *            The clue word
+     * @param slot
+     *            The clue slot
+     *
+     * @return The color index
+     */
+    public static int getColorIndex(final long word, final int slot) {
+        return SequenceCode.getColorIndex(word >>> COLORS_SHIFT, slot);
+    }
+
+    /**
+     * Set the color index (0 based) held for a clue slot.
+     *
+     * @param word
+     *            The clue word
+     * @param slot
+     *            The clue slot
+     * @param colorIndex
+     *            The color index
+     *
+     * @return The updated clue word
+     */
+    public static long setColorIndex(final long word, final int slot,
+            final int colorIndex) {
+        return (SequenceCode.setColorIndex(word >>> COLORS_SHIFT, slot,
+                colorIndex) << COLORS_SHIFT) | (word & FEEDBACK_BITS);
+    }
+
+    /**
+     * Exchange the colors held for two clue slots.
+     *
+     * @param word
+     *            The clue word
+     * @param slot
+     *            One clue slot
+     * @param otherSlot
+     *            The other clue slot
+     *
+     * @return The updated clue word
+     */
+    public static long swapColors(final long word, final int slot,
+            final int otherSlot) {
+        int color = getColorIndex(word, slot);
+
+        return setColorIndex(setColorIndex(word, slot,
+                getColorIndex(word, otherSlot)), otherSlot, color);
+    }
+}
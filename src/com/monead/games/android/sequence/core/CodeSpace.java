@@ -0,0 +1,205 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The set of sequences a game's rules allow, with each sequence given a
+ * dense index from 0 to size() - 1.
+ * 
+ * The index lets per-sequence data (feedback tables, candidate lists) be
+ * held in plain arrays. Sequences are converted to and from their packed
+ * form (see SequenceCode) with indexOf() and codeAt().
+ * 
+ * Code spaces are immutable and may be shared between threads.
+ * 
+ * @author David Read
+ *
+ */
+public abstract class CodeSpace {
+    /**
+     * The length of the sequences.
+     */
+    private final int sequenceLength;
+
+    /**
+     * The number of colors the sequences are drawn from.
+     */
+    private final int numColors;
+
+    /**
+     * Create a code space.
+     * 
+     * @param pSequenceLength  The length of the sequences
+     * @param pNumColors  The number of colors the sequences are drawn from
+     */
+    protected CodeSpace(final int pSequenceLength, final int pNumColors) {
+        sequenceLength = pSequenceLength;
+        numColors = pNumColors;
+    }
+
+    /**
+     * Get the code space for a set of rules.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return The space of sequences the rules allow
+     * 
+     * @throws IllegalArgumentException  If the rules allow too many
+     *             sequences to index with an int
+     */
+    public static CodeSpace forRules(final GameRules rules) {
+        if (rules.isUniqueColors()) {
+            return new PermutationCodeSpace(rules.getSequenceLength(),
+                    rules.getNumColors());
+        }
+
+        return new FullCodeSpace(rules.getSequenceLength(),
+                rules.getNumColors());
+    }
+
+    /**
+     * Determine whether the sequences a set of rules allow can be indexed.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if forRules() can be used for the rules
+     */
+    public static boolean isIndexable(final GameRules rules) {
+        return rules.getNumSequences() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of sequences a set of rules allow, checking that they
+     * can be indexed.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return The number of sequences
+     * 
+     * @throws IllegalArgumentException  If there are too many sequences to
+     *             index with an int
+     */
+    protected static int indexableSize(final GameRules rules) {
+        if (!isIndexable(rules)) {
+            throw new IllegalArgumentException(
+                    "Too many sequences to index: " + rules);
+        }
+
+        return (int) rules.getNumSequences();
+    }
+
+    /**
+     * Get the length of the sequences.
+     * 
+     * @return The sequence length
+     */
+    public final int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    /**
+     * Get the number of colors the sequences are drawn from.
+     * 
+     * @return The number of colors
+     */
+    public final int getNumColors() {
+        return numColors;
+    }
+
+    /**
+     * Get the number of sequences in the space.
+     * 
+     * @return The number of sequences
+     */
+    public abstract int size();
+
+    /**
+     * Get the index of a sequence. The result is undefined for sequences
+     * not in the space (see contains()).
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return The index, from 0 to size() - 1
+     */
+    public abstract int indexOf(long code);
+
+    /**
+     * Get the sequence at an index.
+     * 
+     * @param index  The index, from 0 to size() - 1
+     * 
+     * @return The packed sequence (see SequenceCode)
+     */
+    public abstract long codeAt(int index);
+
+    /**
+     * Determine whether a sequence is in the space.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return True if the sequence is allowed
+     */
+    public abstract boolean contains(long code);
+
+    /**
+     * Compare to another code space.
+     * 
+     * @param other  The object to compare to
+     * 
+     * @return True if the other object is the same kind of space for the
+     *         same sequence length and colors
+     */
+    @Override
+    public final boolean equals(final Object other) {
+        CodeSpace space;
+
+        if (other == null || other.getClass() != getClass()) {
+            return false;
+        }
+
+        space = (CodeSpace) other;
+        return sequenceLength == space.sequenceLength
+                && numColors == space.numColors;
+    }
+
+    /**
+     * Get a hash code consistent with equals().
+     * 
+     * @return The hash code
+     */
+    @Override
+    public final int hashCode() {
+        return (getClass().hashCode() * 31 + sequenceLength)
+                * GameRules.MAX_NUM_COLORS + numColors;
+    }
+
+    /**
+     * Describe the code space.
+     * 
+     * @return A description of the code space
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [sequenceLength="
+                + sequenceLength + ", numColors=" + numColors + ", size="
+                + size() + "]";
+    }
+}
@@ -0,0 +1,238 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Helpers for color feedback: the clues of a try as easy mode shows them,
+ * i.e. the color of every exact and color-only match as well as their
+ * counts.
+ *
+ * Color feedback is held as a clue word (see ClueWord) in canonical form:
+ * the colors of the exact match clues in ascending color order, then the
+ * colors of the color-only clues in ascending order. Two tries give the
+ * same color feedback exactly when their canonical clue words are equal,
+ * whatever order the game shuffled the clues into. None of the methods
+ * allocate memory.
+ *
+ * @author David Read
+ *
+ */
+public final class ColorFeedback {
+    /**
+     * Number of bits for each color counter in a histogram (see
+     * SequenceCode.histogram()).
+     */
+    private static final int COUNTER_BITS = 4;
+
+    /**
+     * Mask for one color counter in a histogram.
+     */
+    private static final long COUNTER_MASK = 0xFL;
+
+    /**
+     * Adds every counter of a histogram into the top counter.
+     */
+    private static final long COUNTER_SUM_MULTIPLIER = 0x1111111111111111L;
+
+    /**
+     * Shift bringing the top counter of a histogram down to the low bits.
+     */
+    private static final int TOP_COUNTER_SHIFT = 60;
+
+    /**
+     * Shift converting a lane bit of SwarScorer.exactLanes() to its
+     * position.
+     */
+    private static final int LANE_TO_POSIT_SHIFT = 2;
+
+    /**
+     * No instances - static methods only.
+     */
+    private ColorFeedback() {
+    }
+
+    /**
+     * Score a guess against an answer, with the colors of the matches.
+     *
+     * @param guess
+     *            The packed guess (see SequenceCode)
+     * @param answer
+     *            The packed answer
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return The color feedback, a canonical clue word
+     */
+    public static long score(final long guess, final long answer,
+            final int length) {
+        long exact = exactHistogram(guess, answer, length);
+
+        // Exact matches never exceed a color's count, so nothing borrows
+        return fromHistograms(exact, minimums(
+                SequenceCode.histogram(guess, length) - exact,
+                SequenceCode.histogram(answer, length) - exact));
+    }
+
+    /**
+     * Count, by color, the positions where two sequences match exactly.
+     *
+     * @param guess
+     *            The packed guess (see SequenceCode)
+     * @param answer
+     *            The packed answer
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return The color histogram of the exact matches (see
+     *         SequenceCode.histogram())
+     */
+    public static long exactHistogram(final long guess, final long answer,
+            final int length) {
+        long lanes = SwarScorer.exactLanes(guess, answer, length);
+        long histogram = 0;
+        int posit;
+
+        while (lanes != 0) {
+            posit = Long.numberOfTrailingZeros(lanes) >>> LANE_TO_POSIT_SHIFT;
+            histogram += 1L << (SequenceCode.getColorIndex(guess, posit)
+                    * COUNTER_BITS);
+            lanes &= lanes - 1;
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Put the clue colors of a clue word, e.g. one given by the game, into
+     * canonical order.
+     *
+     * @param word
+     *            The clue word
+     *
+     * @return The color feedback, a canonical clue word
+     */
+    public static long canonical(final long word) {
+        int exact = ClueWord.getExact(word);
+        int matches = exact + ClueWord.getColorOnly(word);
+        long exactHistogram = 0;
+        long colorOnlyHistogram = 0;
+
+        for (int slot = 0; slot < matches; ++slot) {
+            if (slot < exact) {
+                exactHistogram += 1L << (ClueWord.getColorIndex(word, slot)
+                        * COUNTER_BITS);
+            } else {
+                colorOnlyHistogram += 1L << (ClueWord.getColorIndex(word,
+                        slot) * COUNTER_BITS);
+            }
+        }
+
+        return fromHistograms(exactHistogram, colorOnlyHistogram);
+    }
+
+    /**
+     * Build the canonical clue word for the colors of the matches.
+     *
+     * @param exactHistogram
+     *            The color histogram of the exact matches
+     * @param colorOnlyHistogram
+     *            The color histogram of the color-only matches
+     *
+     * @return The color feedback, a canonical clue word
+     */
+    private static long fromHistograms(final long exactHistogram,
+            final long colorOnlyHistogram) {
+        int exact = total(exactHistogram);
+        long word = ClueWord.create(SequenceCode.feedback(exact,
+                total(colorOnlyHistogram)));
+
+        word = addColors(word, 0, exactHistogram);
+        return addColors(word, exact, colorOnlyHistogram);
+    }
+
+    /**
+     * Set clue slots to the colors of a histogram, in ascending color order.
+     *
+     * @param word
+     *            The clue word
+     * @param firstSlot
+     *            The first slot to set
+     * @param histogram
+     *            The color histogram
+     *
+     * @return The updated clue word
+     */
+    private static long addColors(final long word, final int firstSlot,
+            final long histogram) {
+        long updated = word;
+        long remaining = histogram;
+        int slot = firstSlot;
+
+        for (int colorIndex = 0; remaining != 0; ++colorIndex) {
+            for (int count = (int) (remaining & COUNTER_MASK); count > 0;
+                    --count) {
+                updated = ClueWord.setColorIndex(updated, slot++, colorIndex);
+            }
+            remaining >>>= COUNTER_BITS;
+        }
+
+        return updated;
+    }
+
+    /**
+     * Take the smaller of each pair of color counters.
+     *
+     * @param first
+     *            One color histogram
+     * @param second
+     *            The other color histogram
+     *
+     * @return The histogram of the minimums
+     */
+    private static long minimums(final long first, final long second) {
+        long minimums = 0;
+        long firstCounter;
+        long secondCounter;
+
+        for (int shift = 0; shift < Long.SIZE && (first >>> shift) != 0
+                && (second >>> shift) != 0; shift += COUNTER_BITS) {
+            firstCounter = (first >>> shift) & COUNTER_MASK;
+            secondCounter = (second >>> shift) & COUNTER_MASK;
+            minimums |= Math.min(firstCounter, secondCounter) << shift;
+        }
+
+        return minimums;
+    }
+
+    /**
+     * Add up the counters of a histogram. The total must be less than 16,
+     * which holds for every sequence length.
+     *
+     * @param histogram
+     *            The color histogram
+     *
+     * @return The total of the counters
+     */
+    private static int total(final long histogram) {
+        return (int) ((histogram * COUNTER_SUM_MULTIPLIER)
+                >>> TOP_COUNTER_SHIFT);
+    }
+}
@@ -0,0 +1,211 @@
+package com.monead.games.android.sequence.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A precomputed table of the feedback for every guess and answer pair in a
+ * small code space, such as the default game (4 positions, 6 colors, 1296
+ * sequences) or its no-repeated-colors variant (360 sequences).
+ *
+ * Sequences are identified by their index in the code space. The table
+ * holds one byte per pair, the same value SequenceCode.score() returns.
+ * Each table is built the first time it is asked for and then shared.
+ *
+ * @author David Read
+ *
+ */
+public final class FeedbackTable {
+    /**
+     * The largest code space a table is built for. The default game's
+     * table, at this size, takes 1.6 MB.
+     */
+    public static final int MAX_CODES = 1296;
+
+    /**
+     * Mask to convert a table byte back to an unsigned feedback value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The tables built so far, by code space.
+     */
+    private static final Map<CodeSpace, FeedbackTable> TABLES =
+            new HashMap<CodeSpace, FeedbackTable>();
+
+    /**
+     * The code space covered.
+     */
+    private final CodeSpace space;
+
+    /**
+     * The number of sequences in the code space.
+     */
+    private final int numCodes;
+
+    /**
+     * Feedback for each guess (row) and answer (column).
+     */
+    private final byte[] table;
+
+    /**
+     * Build the table for a code space.
+     *
+     * @param pSpace
+     *            The code space
+     */
+    private FeedbackTable(final CodeSpace pSpace) {
+        space = pSpace;
+        numCodes = pSpace.size();
+        table = buildTable();
+    }
+
+    /**
+     * Determine whether a table can be built for a set of game rules.
+     *
+     * @param rules
+     *            The game rules
+     *
+     * @return True if a table can be used to score games with the rules
+     */
+    public static boolean supports(final GameRules rules) {
+        return rules.getNumSequences() <= MAX_CODES;
+    }
+
+    /**
+     * Get the table for a set of game rules.
+     *
+     * @param rules
+     *            The game rules, see supports()
+     *
+     * @return The table
+     */
+    public static FeedbackTable forRules(final GameRules rules) {
+        if (!supports(rules)) {
+            throw new IllegalArgumentException("Too many sequences for a "
+                    + "feedback table: " + rules);
+        }
+
+        return forSpace(CodeSpace.forRules(rules));
+    }
+
+    /**
+     * Get the table for a code space, building it if this is the first
+     * request.
+     *
+     * @param pSpace
+     *            The code space, no larger than MAX_CODES
+     *
+     * @return The table
+     */
+    public static FeedbackTable forSpace(final CodeSpace pSpace) {
+        FeedbackTable feedbackTable;
+
+        if (pSpace.size() > MAX_CODES) {
+            throw new IllegalArgumentException("Too many sequences for a "
+                    + "feedback table: " + pSpace);
+        }
+
+        synchronized (TABLES) {
+            feedbackTable = TABLES.get(pSpace);
+            if (feedbackTable == null) {
+                feedbackTable = new FeedbackTable(pSpace);
+                TABLES.put(pSpace, feedbackTable);
+            }
+        }
+
+        return feedbackTable;
+    }
+
+    /**
+     * Get the code space covered by the table.
+     *
+     * @return The code space
+     */
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Look up the feedback for a guess and answer.
+     *
+     * @param guessIndex
+     *            The code space index of the guess
+     * @param answerIndex
+     *            The code space index of the answer
+     *
+     * @return The feedback value (see SequenceCode.getExact() and
+     *         SequenceCode.getColorOnly())
+     */
+    public int score(final int guessIndex, final int answerIndex) {
+        return table[guessIndex * numCodes + answerIndex] & BYTE_MASK;
+    }
+
+    /**
+     * Look up the feedback for a packed guess and answer.
+     *
+     * @param guessCode
+     *            The packed guess (see SequenceCode)
+     * @param answerCode
+     *            The packed answer
+     *
+     * @return The feedback value (see SequenceCode.getExact() and
+     *         SequenceCode.getColorOnly())
+     */
+    public int scoreCodes(final long guessCode, final long answerCode) {
+        return score(space.indexOf(guessCode), space.indexOf(answerCode));
+    }
+
+    /**
+     * Compute the feedback for every guess and answer pair.
+     *
+     * @return The feedback table
+     */
+    private byte[] buildTable() {
+        byte[] feedbackTable = new byte[numCodes * numCodes];
+        int sequenceLength = space.getSequenceLength();
+        long[] codes = new long[numCodes];
+        int feedback;
+
+        for (int index = 0; index < numCodes; ++index) {
+            codes[index] = space.codeAt(index);
+        }
+
+        for (int guessIndex = 0; guessIndex < numCodes; ++guessIndex) {
+            feedbackTable[guessIndex * numCodes + guessIndex] =
+                    (byte) SequenceCode.feedback(sequenceLength, 0);
+            // Scoring is symmetric, so each pair is only computed once
+            for (int answerIndex = 0; answerIndex < guessIndex;
+                    ++answerIndex) {
+                feedback = SequenceCode.score(codes[guessIndex],
+                        codes[answerIndex], sequenceLength);
+                feedbackTable[guessIndex * numCodes + answerIndex] =
+                        (byte) feedback;
+                feedbackTable[answerIndex * numCodes + guessIndex] =
+                        (byte) feedback;
+            }
+        }
+
+        return feedbackTable;
+    }
+}
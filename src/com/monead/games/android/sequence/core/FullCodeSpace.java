@@ -0,0 +1,117 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The code space of the standard game, where colors may be repeated.
+ * 
+ * A sequence's index is the base-numColors value of its color indexes,
+ * position 0 being the least significant digit.
+ * 
+ * @author David Read
+ *
+ */
+public final class FullCodeSpace extends CodeSpace {
+    /**
+     * The number of sequences.
+     */
+    private final int size;
+
+    /**
+     * Create the code space.
+     * 
+     * @param pSequenceLength  The length of the sequences
+     * @param pNumColors  The number of colors the sequences are drawn from
+     */
+    public FullCodeSpace(final int pSequenceLength, final int pNumColors) {
+        super(pSequenceLength, pNumColors);
+        size = indexableSize(new GameRules(pSequenceLength, pNumColors,
+                GameRules.DEFAULT_MAX_TRYS));
+    }
+
+    /**
+     * Get the number of sequences in the space.
+     * 
+     * @return numColors to the power of the sequence length
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the index of a sequence.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return The index, from 0 to size() - 1
+     */
+    @Override
+    public int indexOf(final long code) {
+        int index = 0;
+
+        for (int posit = getSequenceLength() - 1; posit >= 0; --posit) {
+            index = index * getNumColors()
+                    + SequenceCode.getColorIndex(code, posit);
+        }
+
+        return index;
+    }
+
+    /**
+     * Get the sequence at an index.
+     * 
+     * @param index  The index, from 0 to size() - 1
+     * 
+     * @return The packed sequence (see SequenceCode)
+     */
+    @Override
+    public long codeAt(final int index) {
+        long code = 0;
+        int remaining = index;
+
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            code = SequenceCode.setColorIndex(code, posit, remaining
+                    % getNumColors());
+            remaining /= getNumColors();
+        }
+
+        return code;
+    }
+
+    /**
+     * Determine whether a sequence is in the space.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return True if every color index is in range
+     */
+    @Override
+    public boolean contains(final long code) {
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            if (SequenceCode.getColorIndex(code, posit) >= getNumColors()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package com.monead.games.android.sequence.core;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Time how long a game is actively played.
+ * 
+ * The clock starts with the game's first move and stops when the game is
+ * won or lost. While the app is hidden the clock is paused, so that time
+ * is not counted. Time is read from a monotonic TimeSource, and reading
+ * the elapsed time allocates nothing, so it is safe to call while drawing.
+ * 
+ * A serialized clock keeps the time played so far and comes back paused,
+ * since time when the app is shut down should not count toward playing
+ * time. The time source is not serialized; a restored clock uses the
+ * system time source.
+ * 
+ * @author David Read
+ *
+ */
+public final class GameClock implements Serializable {
+    /**
+     * Serial Id required since the game holding the clock is serializable.
+     */
+    private static final long serialVersionUID = 2986104482511362094L;
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Has the clock been started - typically when the user selects the first
+     * color.
+     */
+    private boolean started;
+
+    /**
+     * Has the clock been stopped because the game is over.
+     */
+    private boolean stopped;
+
+    /**
+     * The time counted up to the latest pause, or up to runningSince while
+     * the clock is running.
+     */
+    private long elapsedNanos;
+
+    /**
+     * Is the clock counting. Not persisted, a restored clock is paused.
+     */
+    private transient boolean running;
+
+    /**
+     * The time source reading when the clock last started counting.
+     */
+    private transient long runningSince;
+
+    /**
+     * The source of time.
+     */
+    private transient TimeSource timeSource;
+
+    /**
+     * Create a clock using the system time source.
+     */
+    public GameClock() {
+        this(SystemTimeSource.getInstance());
+    }
+
+    /**
+     * Create a clock using the supplied time source.
+     * 
+     * @param pTimeSource
+     *            The source of time
+     */
+    public GameClock(final TimeSource pTimeSource) {
+        timeSource = pTimeSource;
+    }
+
+    /**
+     * Start the clock. Has no effect if it has already been started.
+     */
+    public void start() {
+        if (!started) {
+            started = true;
+            resume();
+        }
+    }
+
+    /**
+     * Stop counting until resumed.
+     */
+    public void pause() {
+        if (running) {
+            elapsedNanos += timeSource.nanoTime() - runningSince;
+            running = false;
+        }
+    }
+
+    /**
+     * Continue counting after a pause. Has no effect if the clock has not
+     * been started, or has been stopped.
+     */
+    public void resume() {
+        if (started && !stopped && !running) {
+            runningSince = timeSource.nanoTime();
+            running = true;
+        }
+    }
+
+    /**
+     * Stop the clock for good, e.g. when the game is over.
+     */
+    public void stop() {
+        pause();
+        stopped = true;
+    }
+
+    /**
+     * Whether the clock has been started.
+     * 
+     * @return True if the clock has been started
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Whether the clock is counting.
+     * 
+     * @return True if the clock is started, not paused and not stopped
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Get the time counted so far.
+     * 
+     * @return The elapsed time, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        if (running) {
+            return elapsedNanos + timeSource.nanoTime() - runningSince;
+        }
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the time counted so far.
+     * 
+     * @return The elapsed time, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return getElapsedNanos() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Include the time counted since the clock last started counting when
+     * it is serialized, without pausing it.
+     * 
+     * @param out
+     *            The stream the clock is written to
+     * 
+     * @throws IOException
+     *             If the clock cannot be written
+     */
+    private void writeObject(final ObjectOutputStream out)
+            throws IOException {
+        long now;
+
+        if (running) {
+            now = timeSource.nanoTime();
+            elapsedNanos += now - runningSince;
+            runningSince = now;
+        }
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Restore the clock, paused and using the system time source.
+     * 
+     * @param in
+     *            The stream the clock is read from
+     * 
+     * @throws IOException
+     *             If the clock cannot be read
+     * @throws ClassNotFoundException
+     *             If a class of a serialized object cannot be found
+     */
+    private void readObject(final ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        timeSource = SystemTimeSource.getInstance();
+    }
+}
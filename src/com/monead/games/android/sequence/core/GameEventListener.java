@@ -0,0 +1,72 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * An interface to support listening for changes to the state
+ * of a Sequence Hunt game.
+ * 
+ * Listeners are called on the thread that changed the game, so
+ * they should return quickly.
+ * 
+ * @author David Read
+ *
+ */
+public interface GameEventListener {
+    /**
+     * Detect a color being added to the current try.
+     * 
+     * @param color  The added color (COLOR_* constants)
+     */
+    void notifyGuessAdded(int color);
+
+    /**
+     * Detect the latest color being removed from the current try.
+     */
+    void notifyGuessRemoved();
+
+    /**
+     * Detect a try being submitted and its clues calculated.
+     * 
+     * @param tryNum  The try that was submitted
+     */
+    void notifyTrySubmitted(int tryNum);
+
+    /**
+     * Detect a submitted try that was less accurate than the one before it.
+     */
+    void notifyTryGotWorse();
+
+    /**
+     * Detect the game being won.
+     */
+    void notifyGameWon();
+
+    /**
+     * Detect the game being lost (all trys used).
+     */
+    void notifyGameLost();
+
+    /**
+     * Detect a delete or submit request that could not be carried out.
+     */
+    void notifyMoveRejected();
+}
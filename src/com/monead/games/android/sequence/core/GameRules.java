@@ -0,0 +1,249 @@
+package com.monead.games.android.sequence.core;
+
+import java.io.Serializable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The configuration of a game: the length of the sequence, the number of
+ * colors it is drawn from, the number of trys allowed to find it and
+ * whether a color may be repeated.
+ * 
+ * Rules are immutable. Up to 12 positions and 16 colors are supported,
+ * the limits of a sequence packed into a long (see SequenceCode).
+ * 
+ * @author David Read
+ *
+ */
+public final class GameRules implements Serializable {
+    /**
+     * Serial Id required since the game holding the rules is serializable.
+     */
+    private static final long serialVersionUID = 1460251925738322113L;
+
+    /**
+     * The default number of colors.
+     */
+    public static final int DEFAULT_NUM_COLORS = 6;
+
+    /**
+     * The default number of trys allowed.
+     */
+    public static final int DEFAULT_MAX_TRYS = 10;
+
+    /**
+     * The fewest colors a game can use.
+     */
+    public static final int MIN_NUM_COLORS = 2;
+
+    /**
+     * The most colors a game can use.
+     */
+    public static final int MAX_NUM_COLORS = SequenceCode.MAX_COLORS;
+
+    /**
+     * The shortest sequence a game can use.
+     */
+    public static final int MIN_SEQUENCE_LENGTH = 1;
+
+    /**
+     * The longest sequence a game can use.
+     */
+    public static final int MAX_SEQUENCE_LENGTH = SequenceCode.MAX_PEGS;
+
+    /**
+     * The length of the sequence.
+     */
+    private final int sequenceLength;
+
+    /**
+     * The number of colors the sequence is drawn from.
+     */
+    private final int numColors;
+
+    /**
+     * The number of trys allowed.
+     */
+    private final int maxTrys;
+
+    /**
+     * True if a color may appear only once in the sequence (and in each
+     * guess). Rules saved before this option existed read as false.
+     */
+    private final boolean uniqueColors;
+
+    /**
+     * Create rules with the default number of colors and trys.
+     * 
+     * @param pSequenceLength  The length of the sequence
+     */
+    public GameRules(final int pSequenceLength) {
+        this(pSequenceLength, DEFAULT_NUM_COLORS, DEFAULT_MAX_TRYS);
+    }
+
+    /**
+     * Create rules.
+     * 
+     * @param pSequenceLength  The length of the sequence
+     * @param pNumColors  The number of colors the sequence is drawn from
+     * @param pMaxTrys  The number of trys allowed
+     */
+    public GameRules(final int pSequenceLength, final int pNumColors,
+            final int pMaxTrys) {
+        this(pSequenceLength, pNumColors, pMaxTrys, false);
+    }
+
+    /**
+     * Create rules, optionally forbidding repeated colors. Without repeats
+     * the sequence cannot be longer than the number of colors.
+     * 
+     * @param pSequenceLength  The length of the sequence
+     * @param pNumColors  The number of colors the sequence is drawn from
+     * @param pMaxTrys  The number of trys allowed
+     * @param pUniqueColors  True if a color may appear only once
+     */
+    public GameRules(final int pSequenceLength, final int pNumColors,
+            final int pMaxTrys, final boolean pUniqueColors) {
+        if (pSequenceLength < MIN_SEQUENCE_LENGTH
+                || pSequenceLength > MAX_SEQUENCE_LENGTH) {
+            throw new IllegalArgumentException("Sequence length must be from "
+                    + MIN_SEQUENCE_LENGTH + " to " + MAX_SEQUENCE_LENGTH
+                    + ": " + pSequenceLength);
+        }
+
+        if (pNumColors < MIN_NUM_COLORS || pNumColors > MAX_NUM_COLORS) {
+            throw new IllegalArgumentException("Number of colors must be from "
+                    + MIN_NUM_COLORS + " to " + MAX_NUM_COLORS + ": "
+                    + pNumColors);
+        }
+
+        if (pMaxTrys < 1) {
+            throw new IllegalArgumentException(
+                    "At least one try must be allowed: " + pMaxTrys);
+        }
+
+        if (pUniqueColors && pSequenceLength > pNumColors) {
+            throw new IllegalArgumentException("Sequence length "
+                    + pSequenceLength + " needs repeated colors with "
+                    + pNumColors + " colors");
+        }
+
+        sequenceLength = pSequenceLength;
+        numColors = pNumColors;
+        maxTrys = pMaxTrys;
+        uniqueColors = pUniqueColors;
+    }
+
+    /**
+     * Get the length of the sequence.
+     * 
+     * @return The length of the sequence
+     */
+    public int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    /**
+     * Get the number of colors the sequence is drawn from.
+     * 
+     * @return The number of colors
+     */
+    public int getNumColors() {
+        return numColors;
+    }
+
+    /**
+     * Get the number of trys allowed.
+     * 
+     * @return The number of trys allowed
+     */
+    public int getMaxTrys() {
+        return maxTrys;
+    }
+
+    /**
+     * Whether a color may appear only once in the sequence.
+     * 
+     * @return True if repeated colors are not allowed
+     */
+    public boolean isUniqueColors() {
+        return uniqueColors;
+    }
+
+    /**
+     * Get the number of distinct sequences these rules allow.
+     * 
+     * @return The number of sequences
+     */
+    public long getNumSequences() {
+        long count = 1;
+
+        for (int posit = 0; posit < sequenceLength; ++posit) {
+            count *= uniqueColors ? numColors - posit : numColors;
+        }
+
+        return count;
+    }
+
+    /**
+     * Compare to other rules.
+     * 
+     * @param other  The object to compare to
+     * 
+     * @return True if the other object is rules with the same settings
+     */
+    @Override
+    public boolean equals(final Object other) {
+        GameRules rules;
+
+        if (!(other instanceof GameRules)) {
+            return false;
+        }
+
+        rules = (GameRules) other;
+        return sequenceLength == rules.sequenceLength
+                && numColors == rules.numColors && maxTrys == rules.maxTrys
+                && uniqueColors == rules.uniqueColors;
+    }
+
+    /**
+     * Get a hash code consistent with equals().
+     * 
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return ((sequenceLength * MAX_NUM_COLORS + numColors) * 31 + maxTrys)
+                * 2 + (uniqueColors ? 1 : 0);
+    }
+
+    /**
+     * Describe the rules.
+     * 
+     * @return A description of the rules
+     */
+    @Override
+    public String toString() {
+        return "GameRules [sequenceLength=" + sequenceLength + ", numColors="
+                + numColors + ", maxTrys=" + maxTrys + ", uniqueColors="
+                + uniqueColors + "]";
+    }
+}
@@ -0,0 +1,282 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * An immutable copy of the visible state of a game: the trys, their clues
+ * and whether the game is over.
+ * 
+ * A game publishes a new snapshot after each change, so a snapshot can be
+ * read from any thread (e.g. to draw, save or analyze the game) without
+ * locking and without seeing a partly made change. Elapsed time is not
+ * included since it changes continuously.
+ * 
+ * @author David Read
+ *
+ */
+public final class GameSnapshot {
+    /**
+     * The rules of the game.
+     */
+    private final GameRules rules;
+
+    /**
+     * The packed sequence for each try up to and including the current one.
+     */
+    private final long[] tries;
+
+    /**
+     * The clue word (see ClueWord) for each submitted try.
+     */
+    private final long[] clues;
+
+    /**
+     * The current try number.
+     */
+    private final int currentTry;
+
+    /**
+     * The number of colors guessed in the current try.
+     */
+    private final int currentPosit;
+
+    /**
+     * Whether the game has been won.
+     */
+    private final boolean winner;
+
+    /**
+     * Whether the game has been lost.
+     */
+    private final boolean loser;
+
+    /**
+     * The sequences still consistent with the clues, null if the game does
+     * not keep them.
+     */
+    private final CandidateSet candidates;
+
+    /**
+     * Create a snapshot. The arrays become owned by the snapshot and must
+     * not be changed afterward.
+     * 
+     * @param pRules  The rules of the game
+     * @param pTries  The packed sequence for each try
+     * @param pClues  The clue word for each submitted try
+     * @param pCurrentTry  The current try number
+     * @param pCurrentPosit  The number of colors guessed in the current try
+     * @param pWinner  Whether the game has been won
+     * @param pLoser  Whether the game has been lost
+     * @param pCandidates  The sequences still consistent with the clues,
+     *            a read only copy, or null if not kept
+     */
+    GameSnapshot(final GameRules pRules, final long[] pTries,
+            final long[] pClues, final int pCurrentTry, final int pCurrentPosit,
+            final boolean pWinner, final boolean pLoser,
+            final CandidateSet pCandidates) {
+        rules = pRules;
+        tries = pTries;
+        clues = pClues;
+        currentTry = pCurrentTry;
+        currentPosit = pCurrentPosit;
+        winner = pWinner;
+        loser = pLoser;
+        candidates = pCandidates;
+    }
+
+    /**
+     * Get the rules of the game.
+     * 
+     * @return The game rules
+     */
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the length of the sequence.
+     * 
+     * @return The length of the sequence
+     */
+    public int getSequenceLength() {
+        return rules.getSequenceLength();
+    }
+
+    /**
+     * Get the maximum number of trys allowed.
+     * 
+     * @return The maximum number of trys allowed
+     */
+    public int getMaxTrys() {
+        return rules.getMaxTrys();
+    }
+
+    /**
+     * Get the current try number.
+     * 
+     * @return The current try number
+     */
+    public int getCurrentTry() {
+        return currentTry;
+    }
+
+    /**
+     * Get the number of colors guessed in the current try.
+     * 
+     * @return The number of colors guessed
+     */
+    public int getCurrentPosit() {
+        return currentPosit;
+    }
+
+    /**
+     * Get the winner status.
+     * 
+     * @return True if a winner
+     */
+    public boolean isWinner() {
+        return winner;
+    }
+
+    /**
+     * Get the loser status.
+     * 
+     * @return True if a loser (e.g. all trys exhausted)
+     */
+    public boolean isLoser() {
+        return loser;
+    }
+
+    /**
+     * Get the sequences still consistent with the clues of the submitted
+     * trys. The set is shared with other readers and is read only.
+     * 
+     * @return The candidate set, null if the game does not keep one (see
+     *         SequenceHuntGame.getNumCandidates())
+     */
+    public CandidateSet getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Determine if a guess position has a color.
+     * 
+     * @param row  The row (try) being checked
+     * @param tryNum  The position in the row
+     * 
+     * @return True of there is a guessed color in the position
+     */
+    public boolean hasTryColor(final int row, final int tryNum) {
+        return row < currentTry
+                || (row == currentTry && tryNum < currentPosit);
+    }
+
+    /**
+     * Get the guessed color for a position.
+     * 
+     * @param row  The row (try) being checked
+     * @param tryNum  The guess position being checked
+     * 
+     * @return The color guessed at the selected position (COLOR_* constants
+     *         of SequenceHuntGame) or UNSELECTED if the position has no guess
+     */
+    public int getTryColor(final int row, final int tryNum) {
+        if (!hasTryColor(row, tryNum)) {
+            return SequenceHuntGame.UNSELECTED;
+        }
+
+        return SequenceCode.getColorIndex(tries[row], tryNum)
+                + SequenceHuntGame.FIRST_COLOR;
+    }
+
+    /**
+     * Get the packed sequence for a try.
+     * 
+     * @param row  The row (try), up to and including the current try
+     * 
+     * @return The packed try (see SequenceCode)
+     */
+    public long getTryCode(final int row) {
+        return tries[row];
+    }
+
+    /**
+     * Get the meaning of the clue for a position.
+     * 
+     * @param row  The row (try) being checked
+     * @param clueNum  The clue position being checked
+     * 
+     * @return The clue type (CLUE_* constants of SequenceHuntGame)
+     */
+    public int getClueMeaning(final int row, final int clueNum) {
+        if (row >= currentTry) {
+            return SequenceHuntGame.CLUE_COMPLETELY_INCORRECT;
+        }
+
+        return ClueWord.getClueType(clues[row], clueNum);
+    }
+
+    /**
+     * Get the color related to the clue at a position.
+     * 
+     * @param row  The row (try) being checked
+     * @param clueNum  The clue position being checked
+     * 
+     * @return The color represented by the clue (COLOR_* constants of
+     *         SequenceHuntGame)
+     */
+    public int getClueColor(final int row, final int clueNum) {
+        if (row >= currentTry) {
+            return SequenceHuntGame.UNSELECTED;
+        }
+
+        return ClueWord.getClueColor(clues[row], clueNum);
+    }
+
+    /**
+     * Get the clues for a try.
+     * 
+     * @param row  The row (try) being checked
+     * 
+     * @return The clue word (see ClueWord), 0 if the try is not submitted
+     */
+    public long getClueWord(final int row) {
+        if (row >= currentTry) {
+            return 0;
+        }
+
+        return clues[row];
+    }
+
+    /**
+     * Detect if a clue position shows no match.
+     * 
+     * @param row  The row (try) being checked
+     * @param clueNum  The clue position being checked
+     * 
+     * @return True if the clue position reports no match
+     */
+    public boolean hasClueIncorrect(final int row, final int clueNum) {
+        return row < currentTry
+                && getClueMeaning(row, clueNum) 
+                == SequenceHuntGame.CLUE_COMPLETELY_INCORRECT;
+    }
+}
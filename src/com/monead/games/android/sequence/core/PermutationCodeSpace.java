@@ -0,0 +1,159 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The code space of the no-repeated-colors game, where each sequence is a
+ * partial permutation of the colors (e.g. 6P4 = 360 sequences of 4 out of
+ * 6 colors).
+ * 
+ * A sequence's index is its permutation rank (Lehmer code): position 0 is
+ * the most significant digit, and each position's digit is the number of
+ * colors lower than its own that are not used at an earlier position. The
+ * ranks are dense, so the space can be indexed directly.
+ * 
+ * @author David Read
+ *
+ */
+public final class PermutationCodeSpace extends CodeSpace {
+    /**
+     * The weight of each position's digit: the number of ways the later
+     * positions can be filled.
+     */
+    private final int[] weights;
+
+    /**
+     * The number of sequences.
+     */
+    private final int size;
+
+    /**
+     * Create the code space.
+     * 
+     * @param pSequenceLength  The length of the sequences, no more than the
+     *            number of colors
+     * @param pNumColors  The number of colors the sequences are drawn from
+     */
+    public PermutationCodeSpace(final int pSequenceLength,
+            final int pNumColors) {
+        super(pSequenceLength, pNumColors);
+        size = indexableSize(new GameRules(pSequenceLength, pNumColors,
+                GameRules.DEFAULT_MAX_TRYS, true));
+
+        weights = new int[pSequenceLength];
+        weights[pSequenceLength - 1] = 1;
+        for (int posit = pSequenceLength - 2; posit >= 0; --posit) {
+            weights[posit] = weights[posit + 1]
+                    * (pNumColors - 1 - posit);
+        }
+    }
+
+    /**
+     * Get the number of sequences in the space.
+     * 
+     * @return The number of partial permutations
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the permutation rank of a sequence.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return The rank, from 0 to size() - 1
+     */
+    @Override
+    public int indexOf(final long code) {
+        int index = 0;
+        int used = 0;
+        int color;
+
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            color = SequenceCode.getColorIndex(code, posit);
+            index += (color - Integer.bitCount(used & ((1 << color) - 1)))
+                    * weights[posit];
+            used |= 1 << color;
+        }
+
+        return index;
+    }
+
+    /**
+     * Get the sequence with a permutation rank.
+     * 
+     * @param index  The rank, from 0 to size() - 1
+     * 
+     * @return The packed sequence (see SequenceCode)
+     */
+    @Override
+    public long codeAt(final int index) {
+        long code = 0;
+        int remaining = index;
+        int used = 0;
+        int digit;
+        int color;
+
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            digit = remaining / weights[posit];
+            remaining %= weights[posit];
+
+            // The digit counts the unused colors below the one to use
+            color = 0;
+            while ((used & (1 << color)) != 0 || digit > 0) {
+                if ((used & (1 << color)) == 0) {
+                    --digit;
+                }
+                ++color;
+            }
+
+            code = SequenceCode.setColorIndex(code, posit, color);
+            used |= 1 << color;
+        }
+
+        return code;
+    }
+
+    /**
+     * Determine whether a sequence is in the space.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return True if every color index is in range and none repeats
+     */
+    @Override
+    public boolean contains(final long code) {
+        int used = 0;
+        int color;
+
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            color = SequenceCode.getColorIndex(code, posit);
+            if (color >= getNumColors() || (used & (1 << color)) != 0) {
+                return false;
+            }
+            used |= 1 << color;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package com.monead.games.android.sequence.core;
+
+import java.io.Serializable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A source of random values for a game, used to generate the answer
+ * and to shuffle the clues.
+ * 
+ * A source belongs to a single game and is not shared between threads.
+ * Independent sources for other games (e.g. parallel simulations) are
+ * obtained with split().
+ * 
+ * @author David Read
+ *
+ */
+public interface RandomSource extends Serializable {
+    /**
+     * Get a uniformly distributed value between 0 (inclusive) and the
+     * bound (exclusive).
+     * 
+     * @param bound  The upper bound, must be positive
+     * 
+     * @return The random value
+     */
+    int nextInt(int bound);
+
+    /**
+     * Get a uniformly distributed long value.
+     * 
+     * @return The random value
+     */
+    long nextLong();
+
+    /**
+     * Create a new, independent source. The new source's values are
+     * determined by the state of this source, so splitting a seeded
+     * source is reproducible.
+     * 
+     * @return The new source
+     */
+    RandomSource split();
+}
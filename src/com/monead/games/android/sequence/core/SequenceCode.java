@@ -0,0 +1,258 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ *
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Operations on a sequence packed into a single long.
+ *
+ * Each position (peg) of the sequence occupies 4 bits, holding the color
+ * index (0 based) for that position. Position 0 is held in the lowest bits.
+ * Up to 12 positions and 16 colors can be represented.
+ *
+ * Scoring produces a feedback value holding the number of exact matches
+ * (correct color and position) and the number of color-only matches (correct
+ * color, incorrect position). None of the methods allocate memory.
+ *
+ * @author David Read
+ *
+ */
+public final class SequenceCode {
+    /**
+     * Number of bits used for each position in a packed sequence.
+     */
+    public static final int BITS_PER_PEG = 4;
+
+    /**
+     * Mask for a single position in a packed sequence.
+     */
+    public static final long PEG_MASK = 0xFL;
+
+    /**
+     * Maximum number of positions in a packed sequence.
+     */
+    public static final int MAX_PEGS = 12;
+
+    /**
+     * Maximum number of colors that fit in a position.
+     */
+    public static final int MAX_COLORS = 16;
+
+    /**
+     * Number of bits used for each color counter in a histogram.
+     */
+    private static final int COUNTER_BITS = 4;
+
+    /**
+     * Mask for a single color counter in a histogram.
+     */
+    private static final long COUNTER_MASK = 0xFL;
+
+    /**
+     * Shift applied to the exact match count in a feedback value.
+     */
+    public static final int FEEDBACK_SHIFT = 4;
+
+    /**
+     * Mask for either count held in a feedback value.
+     */
+    public static final int FEEDBACK_MASK = 0xF;
+
+    /**
+     * The number of distinct feedback values, feedback values are always
+     * less than this.
+     */
+    public static final int NUM_FEEDBACK_VALUES = 1 << (2 * FEEDBACK_SHIFT);
+
+    /**
+     * No instances - static methods only.
+     */
+    private SequenceCode() {
+    }
+
+    /**
+     * Get the color index at a position.
+     *
+     * @param code
+     *            The packed sequence
+     * @param posit
+     *            The position
+     *
+     * @return The color index at the position
+     */
+    public static int getColorIndex(final long code, final int posit) {
+        return (int) ((code >>> (posit * BITS_PER_PEG)) & PEG_MASK);
+    }
+
+    /**
+     * Set the color index at a position.
+     *
+     * @param code
+     *            The packed sequence
+     * @param posit
+     *            The position
+     * @param colorIndex
+     *            The color index to place at the position
+     *
+     * @return The updated packed sequence
+     */
+    public static long setColorIndex(final long code, final int posit,
+            final int colorIndex) {
+        int shift = posit * BITS_PER_PEG;
+
+        return (code & ~(PEG_MASK << shift))
+                | ((colorIndex & PEG_MASK) << shift);
+    }
+
+    /**
+     * Clear a position, leaving color index 0 in its place.
+     *
+     * @param code
+     *            The packed sequence
+     * @param posit
+     *            The position
+     *
+     * @return The updated packed sequence
+     */
+    public static long clearPosit(final long code, final int posit) {
+        return code & ~(PEG_MASK << (posit * BITS_PER_PEG));
+    }
+
+    /**
+     * Count the colors used in a packed sequence. Each color has a 4 bit
+     * counter in the returned histogram, color index 0 in the lowest bits.
+     *
+     * @param code
+     *            The packed sequence
+     * @param length
+     *            The number of positions in the sequence
+     *
+     * @return The color histogram
+     */
+    public static long histogram(final long code, final int length) {
+        long histogram = 0;
+        long remaining = code;
+
+        for (int posit = 0; posit < length; ++posit) {
+            histogram += 1L << ((int) (remaining & PEG_MASK) * COUNTER_BITS);
+            remaining >>>= BITS_PER_PEG;
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Count the colors used in a packed sequence, skipping the positions
+     * where it matches the other sequence exactly.
+     *
+     * @param code
+     *            The packed sequence to count
+     * @param other
+     *            The packed sequence it is compared to
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return The color histogram of the unmatched positions
+     */
+    public static long unmatchedHistogram(final long code, final long other,
+            final int length) {
+        long histogram = 0;
+        int colorIndex;
+
+        for (int posit = 0; posit < length; ++posit) {
+            colorIndex = getColorIndex(code, posit);
+            if (colorIndex != getColorIndex(other, posit)) {
+                histogram += 1L << (colorIndex * COUNTER_BITS);
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Get the count for a color from a histogram.
+     *
+     * @param histogram
+     *            The color histogram
+     * @param colorIndex
+     *            The color index
+     *
+     * @return The number of times the color occurs
+     */
+    public static int getCount(final long histogram, final int colorIndex) {
+        return (int) ((histogram >>> (colorIndex * COUNTER_BITS))
+                & COUNTER_MASK);
+    }
+
+    /**
+     * Score a guess against an answer.
+     *
+     * @param guess
+     *            The packed guess
+     * @param answer
+     *            The packed answer
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return The feedback value (see getExact() and getColorOnly())
+     */
+    public static int score(final long guess, final long answer,
+            final int length) {
+        return SwarScorer.score(guess, answer, length);
+    }
+
+    /**
+     * Build a feedback value.
+     *
+     * @param exact
+     *            The number of exact matches
+     * @param colorOnly
+     *            The number of color-only matches
+     *
+     * @return The feedback value
+     */
+    public static int feedback(final int exact, final int colorOnly) {
+        return (exact << FEEDBACK_SHIFT) | colorOnly;
+    }
+
+    /**
+     * Get the number of exact matches from a feedback value.
+     *
+     * @param feedback
+     *            The feedback value
+     *
+     * @return The number of exact matches
+     */
+    public static int getExact(final int feedback) {
+        return (feedback >>> FEEDBACK_SHIFT) & FEEDBACK_MASK;
+    }
+
+    /**
+     * Get the number of color-only matches from a feedback value.
+     *
+     * @param feedback
+     *            The feedback value
+     *
+     * @return The number of color-only matches
+     */
+    public static int getColorOnly(final int feedback) {
+        return feedback & FEEDBACK_MASK;
+    }
+}
@@ -0,0 +1,1134 @@
+package com.monead.games.android.sequence.core;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * This holds the rules and state for a game of Sequence Hunt. It has no
+ * Android dependencies so that games can be played and simulated on a plain
+ * JVM. SequenceHuntGameModel adapts it for use by the Android application.
+ * 
+ * @author David Read
+ * 
+ */
+public class SequenceHuntGame implements Serializable {
+    /**
+     * Serial Id required since this model is serializable.
+     */
+    private static final long serialVersionUID = -2203918457367401187L;
+
+    /**
+     * Value of a correct guess when calculating the relative
+     * score for a try.  This is used solely to rank the
+     * how close a try is to the previous try
+     * e.g. better, same or worse
+     */
+    private static final int SCORING_VALUE_OF_CORRECT_GUESS = 10;
+
+    /**
+     * Default size of the sequence.
+     */
+    public static final int DEFAULT_SEQUENCE_LENGTH = 4;
+
+    /**
+     * Minimum size of the sequence.
+     */
+    public static final int MINIMUM_SEQUENCE_LENGTH = 4;
+
+    /**
+     * Maximum size of the sequence.
+     */
+    public static final int MAXIMUM_SEQUENCE_LENGTH = 8;
+
+    /**
+     * Value of an unselected position.
+     */
+    public static final int UNSELECTED = 0;
+
+    // Internal constants used for the colors.
+    /**
+     * Constant for red.
+     */
+    public static final int COLOR_RED = 1;
+
+    /**
+     * Constant for green.
+     */
+    public static final int COLOR_GREEN = 2;
+
+    /**
+     * Constant for blue.
+     */
+    public static final int COLOR_BLUE = 3;
+
+    /**
+     * Constant for yellow.
+     */
+    public static final int COLOR_YELLOW = 4;
+
+    /**
+     * Constant for white.
+     */
+    public static final int COLOR_WHITE = 5;
+
+    /**
+     * Constant for black.
+     */
+    public static final int COLOR_BLACK = 6;
+
+    /**
+     * The number of colors available in a default game.
+     * 
+     * This must agree with the number of colors defined with constants.
+     * Games using more colors number the additional colors consecutively
+     * after the last constant.
+     */
+    public static final int NUM_COLORS = GameRules.DEFAULT_NUM_COLORS;
+
+    /**
+     * The first color constant. Colors are stored in packed sequences as an
+     * index relative to this value.
+     */
+    public static final int FIRST_COLOR = COLOR_RED;
+
+    /**
+     * CVlue value indicating no match on color.
+     * 
+     * Must have value 0 since this will be default for new clue array
+     */
+    public static final int CLUE_COMPLETELY_INCORRECT = 0;
+
+    /**
+     * A guess is a correct color but in the wrong position.
+     */
+    public static final int CLUE_POSIT_INCORRECT = 1;
+
+    /**
+     * A guess is the correct color in the correct position.
+     */
+    public static final int CLUE_POSIT_CORRECT = 2;
+
+    /**
+     * Stores the answer for this game.
+     * 
+     * Packed sequence - see SequenceCode
+     */
+    private long answer;
+
+    /**
+     * Stores the trys (submitted guesses) made so far in the game.
+     * 
+     * One packed sequence (see SequenceCode) for each try. Only the positions
+     * before currentPosit hold guesses in the current try.
+     */
+    private long[] guess;
+
+    /**
+     * The rules (sequence length, colors and trys) for this game.
+     */
+    private GameRules rules;
+
+    /**
+     * Times how long the game has been (actively) going on. This will not
+     * count time when the app is hidden or closed.
+     */
+    private GameClock clock;
+
+    /**
+     * Stores the computed clues for the trys.
+     * 
+     * One clue word (see ClueWord) for each try, holding the match counts and
+     * the color shown by each clue.
+     */
+    private long[] clue;
+
+    /**
+     * Flags that the latest try is correct and the user has won.
+     */
+    private boolean winner;
+
+    /**
+     * The relative "score" of the previous try. see: latestTryScore
+     */
+    private int previousTryScore;
+
+    /**
+     * The relative "score" of the latest try. This is used to determine if the
+     * latest try is better, worse or the same. The score is essentially the
+     * number correct * 10 + number incorrect position
+     */
+    private int latestTryScore;
+
+    /**
+     * The current try number.
+     */
+    private int currentTry;
+
+    /**
+     * The current guess position within a try.
+     */
+    private int currentPosit;
+
+    /**
+     * The source of random values for the answer and clue order.
+     */
+    private RandomSource random;
+
+    /**
+     * Listeners for game events. Null when there are no listeners, so that
+     * moves made without listeners (e.g. simulations) only pay for a null
+     * check. The array is replaced, never changed, when listeners are added
+     * or removed. Not persisted, listeners must register again after a game
+     * is restored.
+     */
+    private transient volatile GameEventListener[] listeners;
+
+    /**
+     * The latest published snapshot of the game. Replaced after each change
+     * so that other threads can read the game without locking. Not
+     * persisted, recreated when a game is restored (see readObject()).
+     */
+    private transient volatile GameSnapshot snapshot;
+
+    /**
+     * The feedback table for this game's rules, if they are small enough
+     * to have one. Not persisted, looked up again on first use after a game
+     * is restored.
+     */
+    private transient FeedbackTable feedbackTable;
+
+    /**
+     * The sequences still consistent with the clues, kept only for rules
+     * small enough to have a feedback table so that filtering stays cheap.
+     * Filtered in place as each try is submitted. Not persisted, rebuilt
+     * from the trys when a game is restored (see readObject()).
+     */
+    private transient CandidateSet candidates;
+
+    /**
+     * A read only copy of the candidates as of the latest submitted try,
+     * shared by the snapshots until the next try is submitted.
+     */
+    private transient CandidateSet publishedCandidates;
+
+    /**
+     * Setup the model with a generated answer that the user must find.
+     * 
+     * @param pSequenceLength
+     *            The length of the sequence
+     */
+    public SequenceHuntGame(final int pSequenceLength) {
+        this(pSequenceLength, new SplitMixRandom());
+    }
+
+    /**
+     * Setup the model with an answer generated from the supplied random
+     * source. Games created with equally seeded sources are identical, which
+     * allows games to be reproduced.
+     * 
+     * @param pSequenceLength
+     *            The length of the sequence
+     * @param pRandom
+     *            The source of random values for this game
+     */
+    public SequenceHuntGame(final int pSequenceLength,
+            final RandomSource pRandom) {
+        this(new GameRules(validSequenceLength(pSequenceLength)), pRandom);
+    }
+
+    /**
+     * Setup the model for a game with the supplied rules.
+     * 
+     * @param pRules
+     *            The rules for this game
+     */
+    public SequenceHuntGame(final GameRules pRules) {
+        this(pRules, new SplitMixRandom());
+    }
+
+    /**
+     * Setup the model for a game with the supplied rules and random source.
+     * 
+     * @param pRules
+     *            The rules for this game
+     * @param pRandom
+     *            The source of random values for this game
+     */
+    public SequenceHuntGame(final GameRules pRules,
+            final RandomSource pRandom) {
+        this(pRules, pRandom, SystemTimeSource.getInstance());
+    }
+
+    /**
+     * Setup the model for a game with the supplied rules, random source and
+     * time source. A controlled time source allows the game timer to be
+     * tested.
+     * 
+     * @param pRules
+     *            The rules for this game
+     * @param pRandom
+     *            The source of random values for this game
+     * @param pTimeSource
+     *            The source of time for the game clock
+     */
+    public SequenceHuntGame(final GameRules pRules,
+            final RandomSource pRandom, final TimeSource pTimeSource) {
+        rules = pRules;
+        random = pRandom;
+        clock = new GameClock(pTimeSource);
+        setup();
+    }
+
+    /**
+     * Setup the model with a new game.
+     */
+    private void setup() {
+        guess = new long[getMaxTrys()];
+        clue = new long[getMaxTrys()];
+        answer = 0;
+
+        if (rules.isUniqueColors() && CodeSpace.isIndexable(rules)) {
+            // Every arrangement of distinct colors is equally likely
+            CodeSpace space = CodeSpace.forRules(rules);
+            answer = space.codeAt(random.nextInt(space.size()));
+        } else if (rules.isUniqueColors()) {
+            answer = drawUniqueColors();
+        } else {
+            for (int cell = 0; cell < getSequenceLength(); ++cell) {
+                answer = SequenceCode.setColorIndex(answer, cell,
+                        random.nextInt(getNumColors()));
+            }
+        }
+
+        currentTry = 0;
+        currentPosit = 0;
+        latestTryScore = 0;
+        previousTryScore = 0;
+        keepCandidates();
+        publishSnapshot();
+    }
+
+    /**
+     * Draw an answer of distinct colors for rules with too many arrangements
+     * to index. Each position takes one of the colors not yet used, a partial
+     * Fisher-Yates shuffle, so every arrangement is equally likely.
+     * 
+     * @return The answer
+     */
+    private long drawUniqueColors() {
+        int[] colors = new int[getNumColors()];
+        long code = 0;
+        int pick;
+        int swap;
+
+        for (int color = 0; color < colors.length; ++color) {
+            colors[color] = color;
+        }
+
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            pick = posit + random.nextInt(colors.length - posit);
+            swap = colors[pick];
+            colors[pick] = colors[posit];
+            colors[posit] = swap;
+            code = SequenceCode.setColorIndex(code, posit, swap);
+        }
+
+        return code;
+    }
+
+    /**
+     * Validates a sequence length for the model
+     * 
+     * If the length supplied is less than the minimum allowed or greater than
+     * the maximum allowed, the default length will be used.
+     * 
+     * @param pSequenceLength
+     *            The length of the sequence, which must be between the constant
+     *            values of MIMUMUM_SEQUENCE_LENGTH and MAXIMUM_SEQUENCE_LENGTH
+     * 
+     * @return The sequence length to use
+     */
+    private static int validSequenceLength(final int pSequenceLength) {
+        if (pSequenceLength >= MINIMUM_SEQUENCE_LENGTH
+                && pSequenceLength <= MAXIMUM_SEQUENCE_LENGTH) {
+            return pSequenceLength;
+        }
+
+        return DEFAULT_SEQUENCE_LENGTH;
+    }
+
+    /**
+     * Sets the winner status for the model.
+     * 
+     * @param pWinner
+     *            True if a winner
+     */
+    public final void setWinner(final boolean pWinner) {
+        winner = pWinner;
+        publishSnapshot();
+    }
+
+    /**
+     * Get the winner status for the model.
+     * 
+     * @return True if a winner
+     */
+    public final boolean isWinner() {
+        return winner;
+    }
+
+    /**
+     * Get the loser status.
+     * 
+     * @return True if a loser (e.g. all trys exhausted)
+     */
+    public final boolean isLoser() {
+        return !winner && currentTry >= getMaxTrys();
+    }
+
+    /**
+     * Get the maximum number of trys allowed.
+     * 
+     * @return The maximum number of trys allowed
+     */
+    public final int getMaxTrys() {
+        return rules.getMaxTrys();
+    }
+
+    /**
+     * Get the number of colors the sequence is drawn from.
+     * 
+     * @return The number of colors
+     */
+    public final int getNumColors() {
+        return rules.getNumColors();
+    }
+
+    /**
+     * Get the rules for this game.
+     * 
+     * @return The game rules
+     */
+    public final GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Retrieve the relative improvement of the latest try from the previous
+     * one. A positive value indicates that the latest try had more correct than
+     * the prior one.
+     * 
+     * @return Greater than 1 indicates an improvement, 0 for no change, less
+     *         than 1 indicates a decline
+     */
+    public final int getTryProgress() {
+        return latestTryScore - previousTryScore;
+    }
+
+    /**
+     * Signal that a game has started, or that play has picked up again. A
+     * clock left paused, e.g. by a restored game whose board was not shown
+     * again, resumes counting with the next move.
+     */
+    private void signalGameStart() {
+        clock.start();
+        clock.resume();
+    }
+
+    /**
+     * Get the number of MS the game has been going on. If the game has ended
+     * (win or lose) this will be the total number of MS the game took.
+     * 
+     * @return The number of MS the game has taken.
+     */
+    public final long getElapsedTime() {
+        return clock.getElapsedMillis();
+    }
+
+    /**
+     * Signal that a game has ended.
+     */
+    public final void signalGameEnd() {
+        clock.stop();
+    }
+
+    /**
+     * Signal that a game is being paused. Elapsed time will not be counted
+     * toward the game.
+     */
+    public final void signalGamePaused() {
+        clock.pause();
+    }
+
+    /**
+     * Signal that a game is being restored.
+     */
+    public final void signalGameRestored() {
+        clock.resume();
+    }
+
+    /**
+     * Add a guess to the current try.
+     * 
+     * @param color
+     *            The chosen color
+     * 
+     * @return True if there was a spot left in the current try for a guess
+     *         and, if colors may not repeat, the color was not already in it
+     */
+    public final boolean addGuess(final int color) {
+        signalGameStart();
+
+        if (rules.isUniqueColors() && isInCurrentTry(color)) {
+            fireMoveRejected();
+            return false;
+        }
+
+        if (currentTry < getMaxTrys() 
+                && currentPosit < getSequenceLength()
+                && color >= FIRST_COLOR 
+                && color < FIRST_COLOR + getNumColors()) {
+            guess[currentTry] = SequenceCode.setColorIndex(guess[currentTry],
+                    currentPosit, color - FIRST_COLOR);
+            ++currentPosit;
+            publishSnapshot();
+            fireGuessAdded(color);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Determine whether a color has already been placed in the current try.
+     * 
+     * @param color
+     *            The color (COLOR_* constants)
+     * 
+     * @return True if the color is in the current try
+     */
+    private boolean isInCurrentTry(final int color) {
+        if (currentTry >= getMaxTrys()) {
+            return false;
+        }
+
+        for (int posit = 0; posit < currentPosit; ++posit) {
+            if (SequenceCode.getColorIndex(guess[currentTry], posit) 
+                    == color - FIRST_COLOR) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove the latest guess.
+     * 
+     * @return True if there was a guess to remove
+     */
+    public final boolean removeLastGuess() {
+        if (currentTry < getMaxTrys() && currentPosit > 0) {
+            --currentPosit;
+            guess[currentTry] = SequenceCode.clearPosit(guess[currentTry],
+                    currentPosit);
+            publishSnapshot();
+            fireGuessRemoved();
+            return true;
+        }
+
+        fireMoveRejected();
+
+        return false;
+    }
+
+    /**
+     * Submit the guesses.
+     * 
+     * @return True if a full set of guesses was supplied
+     */
+    public final boolean submitGuess() {
+        if (currentTry < getMaxTrys()
+                && currentPosit == getSequenceLength()) {
+            calcClues();
+            ++currentTry;
+            currentPosit = 0;
+            if (isLoser()) {
+                signalGameEnd();
+            }
+            publishSnapshot();
+            fireTrySubmitted(currentTry - 1);
+            return true;
+        }
+
+        fireMoveRejected();
+
+        return false;
+    }
+
+    /**
+     * Get the latest snapshot of the game. The snapshot is immutable and may
+     * be read from any thread.
+     * 
+     * @return The latest snapshot
+     */
+    public final GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Copy the visible state of the game into a new snapshot and publish it.
+     * 
+     * @return The published snapshot
+     */
+    private GameSnapshot publishSnapshot() {
+        int numTries = Math.min(currentTry + 1, getMaxTrys());
+        long[] tries = new long[numTries];
+        long[] clues = new long[currentTry];
+        GameSnapshot latest;
+
+        System.arraycopy(guess, 0, tries, 0, numTries);
+        System.arraycopy(clue, 0, clues, 0, currentTry);
+
+        latest = new GameSnapshot(rules, tries, clues, currentTry,
+                currentPosit, isWinner(), isLoser(), publishedCandidates);
+        snapshot = latest;
+
+        return latest;
+    }
+
+    /**
+     * Register a listener for game events.
+     * 
+     * @param listener
+     *            The listener to add
+     */
+    public final synchronized void addGameEventListener(
+            final GameEventListener listener) {
+        GameEventListener[] updated;
+
+        if (listeners == null) {
+            updated = new GameEventListener[1];
+        } else {
+            updated = new GameEventListener[listeners.length + 1];
+            System.arraycopy(listeners, 0, updated, 0, listeners.length);
+        }
+        updated[updated.length - 1] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Unregister a listener for game events.
+     * 
+     * @param listener
+     *            The listener to remove
+     */
+    public final synchronized void removeGameEventListener(
+            final GameEventListener listener) {
+        GameEventListener[] updated;
+        int keep = 0;
+
+        if (listeners == null) {
+            return;
+        }
+
+        updated = new GameEventListener[listeners.length];
+        for (GameEventListener registered : listeners) {
+            if (registered != listener) {
+                updated[keep++] = registered;
+            }
+        }
+
+        if (keep == 0) {
+            listeners = null;
+        } else if (keep < listeners.length) {
+            listeners = new GameEventListener[keep];
+            System.arraycopy(updated, 0, listeners, 0, keep);
+        }
+    }
+
+    /**
+     * Tell the listeners that a color was added to the current try.
+     * 
+     * @param color
+     *            The added color
+     */
+    private void fireGuessAdded(final int color) {
+        GameEventListener[] current = listeners;
+
+        if (current == null) {
+            return;
+        }
+
+        for (GameEventListener listener : current) {
+            listener.notifyGuessAdded(color);
+        }
+    }
+
+    /**
+     * Tell the listeners that a color was removed from the current try.
+     */
+    private void fireGuessRemoved() {
+        GameEventListener[] current = listeners;
+
+        if (current == null) {
+            return;
+        }
+
+        for (GameEventListener listener : current) {
+            listener.notifyGuessRemoved();
+        }
+    }
+
+    /**
+     * Tell the listeners that a move could not be made.
+     */
+    private void fireMoveRejected() {
+        GameEventListener[] current = listeners;
+
+        if (current == null) {
+            return;
+        }
+
+        for (GameEventListener listener : current) {
+            listener.notifyMoveRejected();
+        }
+    }
+
+    /**
+     * Tell the listeners that a try was submitted, along with its outcome.
+     * 
+     * @param tryNum
+     *            The try that was submitted
+     */
+    private void fireTrySubmitted(final int tryNum) {
+        GameEventListener[] current = listeners;
+
+        if (current == null) {
+            return;
+        }
+
+        for (GameEventListener listener : current) {
+            listener.notifyTrySubmitted(tryNum);
+        }
+
+        if (getTryProgress() < 0) {
+            for (GameEventListener listener : current) {
+                listener.notifyTryGotWorse();
+            }
+        }
+
+        if (isWinner()) {
+            for (GameEventListener listener : current) {
+                listener.notifyGameWon();
+            }
+        } else if (isLoser()) {
+            for (GameEventListener listener : current) {
+                listener.notifyGameLost();
+            }
+        }
+    }
+
+    /**
+     * Calculate the clues for the submitted try.
+     */
+    private void calcClues() {
+        int clueNum;
+        long tryCode;
+        int feedback;
+        long word;
+        long guessCounts;
+        long answerCounts;
+        int colorMatches;
+        int numberOfCorrectPositionClues;
+
+        clueNum = 0;
+        tryCode = guess[currentTry];
+        feedback = scoreSequences(tryCode, answer);
+
+        // Tracking whether this try is better (more accurate)
+        // than the last
+        previousTryScore = latestTryScore;
+        latestTryScore = SequenceCode.getExact(feedback)
+                * SCORING_VALUE_OF_CORRECT_GUESS
+                + SequenceCode.getColorOnly(feedback);
+
+        word = ClueWord.create(feedback);
+
+        for (int check = 0; check < getSequenceLength(); ++check) {
+            if (SequenceCode.getColorIndex(tryCode, check) 
+                    == SequenceCode.getColorIndex(answer, check)) {
+                word = ClueWord.setColorIndex(word, clueNum++,
+                        SequenceCode.getColorIndex(answer, check));
+            }
+        }
+
+        if (clueNum == getSequenceLength()) {
+            // Published with the clue and try count by submitGuess()
+            signalGameEnd();
+            winner = true;
+        }
+
+        numberOfCorrectPositionClues = clueNum;
+
+        if (!isWinner() && SequenceCode.getColorOnly(feedback) > 0) {
+            guessCounts = SequenceCode.unmatchedHistogram(tryCode, answer,
+                    getSequenceLength());
+            answerCounts = SequenceCode.unmatchedHistogram(answer, tryCode,
+                    getSequenceLength());
+            for (int colorIndex = 0; colorIndex < getNumColors(); 
+                    ++colorIndex) {
+                colorMatches = Math.min(
+                        SequenceCode.getCount(guessCounts, colorIndex),
+                        SequenceCode.getCount(answerCounts, colorIndex));
+                for (int match = 0; match < colorMatches; ++match) {
+                    word = ClueWord.setColorIndex(word, clueNum++,
+                            colorIndex);
+                }
+            }
+        }
+
+        clue[currentTry] = shuffleClues(word, numberOfCorrectPositionClues,
+                clueNum);
+
+        if (candidates != null) {
+            candidates.filter(tryCode, feedback, feedbackTable);
+            publishedCandidates = candidates.readOnlyCopy();
+        }
+    }
+
+    /**
+     * Start keeping the candidates if the rules are small enough and they
+     * are not already kept, filtering them by the submitted trys.
+     */
+    private void keepCandidates() {
+        if (candidates != null || !FeedbackTable.supports(rules)) {
+            return;
+        }
+
+        candidates = new CandidateSet(CodeSpace.forRules(rules));
+        for (int row = 0; row < currentTry; ++row) {
+            candidates.filter(guess[row],
+                    ClueWord.getFeedback(clue[row]), getFeedbackTable());
+        }
+        publishedCandidates = candidates.readOnlyCopy();
+    }
+
+    /**
+     * Get the number of sequences still consistent with the clues of the
+     * submitted trys, as published with the latest snapshot (see
+     * GameSnapshot.getCandidates()).
+     * 
+     * @return The number of sequences, -1 if the game has too many
+     *         sequences to filter them on each try, i.e. more than a
+     *         feedback table holds (see FeedbackTable.supports())
+     */
+    public final int getNumCandidates() {
+        CandidateSet published = getSnapshot().getCandidates();
+
+        if (published == null) {
+            return -1;
+        }
+
+        return published.size();
+    }
+
+    /**
+     * Score a guess against an answer using the fastest path available for
+     * the configuration of this game. Small configurations, such as the
+     * default one, are scored through a precomputed FeedbackTable, all
+     * others through the bit-parallel SwarScorer.
+     * 
+     * @param guessCode
+     *            The packed guess (see SequenceCode)
+     * @param answerCode
+     *            The packed answer (see SequenceCode)
+     * 
+     * @return The feedback value (see SequenceCode.getExact() and
+     *         SequenceCode.getColorOnly())
+     */
+    public final int scoreSequences(final long guessCode, 
+            final long answerCode) {
+        FeedbackTable table = getFeedbackTable();
+
+        if (table != null) {
+            return table.scoreCodes(guessCode, answerCode);
+        }
+
+        return SwarScorer.score(guessCode, answerCode, getSequenceLength());
+    }
+
+    /**
+     * Get the feedback table for this game's rules.
+     * 
+     * @return The feedback table, null if the rules have too many sequences
+     *         for one
+     */
+    private FeedbackTable getFeedbackTable() {
+        if (feedbackTable == null && FeedbackTable.supports(rules)) {
+            feedbackTable = FeedbackTable.forRules(rules);
+        }
+
+        return feedbackTable;
+    }
+
+    /**
+     * Randomize the order of the clues (keeping each clue type [e.g. position
+     * correct, position incorrect] together). This is necessary to prevent the
+     * player from using the order of the "position correct" clues to figure out
+     * which clue applies to which position.
+     * 
+     * e.g. if the sequence is yellow, red, yellow, green and the clues are
+     * reported back without randomization, then a try of yellow, green, red,
+     * yellow will report yellow and red diamonds (in that order everytime)
+     * followed by a yellow triangle. The fact that the red diamond follows the
+     * yellow diamond would inform the player that it was the first yellow that
+     * was in the correct position (since it is the only yellow before the red
+     * guess). The randomization prevents the player from finding such a pattern
+     * from try to try.
+     * 
+     * @param word
+     *            The clue word for the try
+     * @param numberOfCorrectPositionClues
+     *            The number of clues indicating a correct color and position
+     * @param numClues
+     *            The total number of clues
+     * 
+     * @return The clue word with its clue colors shuffled
+     */
+    private long shuffleClues(final long word,
+            final int numberOfCorrectPositionClues, final int numClues) {
+        // Shuffle the correct position clues, then the incorrect position
+        // clues
+        return shuffleClueColors(shuffleClueColors(word, 0,
+                numberOfCorrectPositionClues), numberOfCorrectPositionClues,
+                numClues);
+    }
+
+    /**
+     * Shuffle the clue colors for a range of clues in a clue word
+     * (Fisher-Yates).
+     * 
+     * @param word
+     *            The clue word
+     * @param firstClue
+     *            The first clue in the range
+     * @param endClue
+     *            The clue after the last clue in the range
+     * 
+     * @return The clue word with the range shuffled
+     */
+    private long shuffleClueColors(final long word, final int firstClue,
+            final int endClue) {
+        long shuffled = word;
+
+        for (int index = endClue - 1; index > firstClue; --index) {
+            shuffled = ClueWord.swapColors(shuffled, index, firstClue
+                    + random.nextInt(index - firstClue + 1));
+        }
+
+        return shuffled;
+    }
+
+    /**
+     * Get the color constant at a position of the answer.
+     * 
+     * @param posit
+     *            The position in the answer
+     * 
+     * @return The color constant (COLOR_*)
+     */
+    public final int getAnswerColor(final int posit) {
+        return SequenceCode.getColorIndex(answer, posit) + FIRST_COLOR;
+    }
+
+    /**
+     * Get the color index values for the correct sequence.
+     * 
+     * @return Color index values for the correct sequence
+     */
+    public final String getAnswerValue() {
+        String answerValue;
+
+        answerValue = "";
+
+        for (int posit = 0; posit < getSequenceLength(); ++posit) {
+            if (answerValue.length() > 0) {
+                answerValue += ",";
+            }
+            answerValue += getAnswerColor(posit);
+        }
+
+        return answerValue;
+    }
+
+    /**
+     * Get the length of the sequence.
+     * 
+     * @return The length of the sequence
+     */
+    public final int getSequenceLength() {
+        return rules.getSequenceLength();
+    }
+
+    /**
+     * Determine if a guess position has a color.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * @param tryNum
+     *            The position in the row
+     * 
+     * @return True of there is a guessed color in the position
+     */
+    public final boolean hasTryColor(final int row, final int tryNum) {
+        return row < currentTry
+                || (row == currentTry && tryNum < currentPosit);
+    }
+
+    /**
+     * Detect if a position has a correct color in the incorrect position.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * @param clueNum
+     *            The guess position being checked
+     * 
+     * @return True if the position has a correct color in the wrong place
+     */
+    public final boolean hasClueIncorrect(final int row, final int clueNum) {
+        return row < currentTry
+                && ClueWord.getClueType(clue[row], clueNum) 
+                == CLUE_COMPLETELY_INCORRECT;
+    }
+
+    /**
+     * Get the meaning of the clue for a position.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * @param clueNum
+     *            The guess position being checked
+     * 
+     * @return The clue type (CLUE_POSIT_* constants)
+     */
+    public final int getClueMeaning(final int row, final int clueNum) {
+        return ClueWord.getClueType(clue[row], clueNum);
+    }
+
+    /**
+     * Get the color related to the clue at a position.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * @param clueNum
+     *            The guess position being checked
+     * 
+     * @return The color represented by the clue (COLOR_* constants)
+     */
+    public final int getClueColor(final int row, final int clueNum) {
+        return ClueWord.getClueColor(clue[row], clueNum);
+    }
+
+    /**
+     * Get the clues for a try.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * 
+     * @return The clue word (see ClueWord), 0 if the try is not submitted
+     */
+    public final long getClueWord(final int row) {
+        return clue[row];
+    }
+
+    /**
+     * Get the guessed color for a position.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * @param tryNum
+     *            The guess position being checked
+     * 
+     * @return The color guessed at the selected position (COLOR_* constants)
+     *         or UNSELECTED if the position has no guess
+     */
+    public final int getTryColor(final int row, final int tryNum) {
+        if (!hasTryColor(row, tryNum)) {
+            return UNSELECTED;
+        }
+
+        return SequenceCode.getColorIndex(guess[row], tryNum) + FIRST_COLOR;
+    }
+
+    /**
+     * Get the packed sequence for the answer.
+     * 
+     * @return The packed answer (see SequenceCode)
+     */
+    public final long getAnswerCode() {
+        return answer;
+    }
+
+    /**
+     * Get the packed sequence for a try. Only the positions that have been
+     * guessed are meaningful for the current try.
+     * 
+     * @param row
+     *            The row (try) being checked
+     * 
+     * @return The packed try (see SequenceCode)
+     */
+    public final long getTryCode(final int row) {
+        return guess[row];
+    }
+
+    /**
+     * Get the current try number.
+     * 
+     * @return The current try number
+     */
+    public final int getCurrentTry() {
+        return currentTry;
+    }
+
+    /**
+     * Restore a serialized game, rebuilding the candidates and publishing
+     * its snapshot before the game is shared with other threads.
+     * 
+     * @param in
+     *            The stream the game is read from
+     * 
+     * @throws IOException
+     *             If the game cannot be read
+     * @throws ClassNotFoundException
+     *             If a class of the serialized game cannot be found
+     */
+    private void readObject(final ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        keepCandidates();
+        publishSnapshot();
+    }
+}
@@ -0,0 +1,218 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A seedable, splittable random source using the SplitMix64 algorithm
+ * (the algorithm behind java.util.SplittableRandom, which is not available
+ * on older Android releases).
+ * 
+ * The state is a counter advanced by a fixed odd increment (the gamma) and
+ * each value is a mix of the counter, so the source needs no locking and
+ * allocates nothing to produce values.
+ * 
+ * @author David Read
+ *
+ */
+public final class SplitMixRandom implements RandomSource {
+    /**
+     * Serial Id required since the game holding this source is
+     * serializable.
+     */
+    private static final long serialVersionUID = -4106734389155129447L;
+
+    /**
+     * Increment used for sources created without a seed (the odd integer
+     * closest to 2^64 divided by the golden ratio).
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Seeds sources created without a seed, so that sources created at
+     * the same moment still differ.
+     */
+    private static long defaultSeed = mix64(System.currentTimeMillis())
+            ^ mix64(System.nanoTime());
+
+    /**
+     * The counter, advanced by gamma for each value.
+     */
+    private long seed;
+
+    /**
+     * The increment for the counter, always odd.
+     */
+    private final long gamma;
+
+    /**
+     * Create a source with a seed that differs for each source.
+     */
+    public SplitMixRandom() {
+        this(nextDefaultSeed());
+    }
+
+    /**
+     * Create a source that produces the same values each time it is
+     * created with the seed.
+     * 
+     * @param pSeed  The seed
+     */
+    public SplitMixRandom(final long pSeed) {
+        this(pSeed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Create a source with a specific counter and increment.
+     * 
+     * @param pSeed  The starting counter
+     * @param pGamma  The increment, must be odd
+     */
+    private SplitMixRandom(final long pSeed, final long pGamma) {
+        seed = pSeed;
+        gamma = pGamma;
+    }
+
+    /**
+     * Get a seed for a source created without one.
+     * 
+     * @return The seed
+     */
+    private static synchronized long nextDefaultSeed() {
+        defaultSeed += 2 * GOLDEN_GAMMA;
+        return mix64(defaultSeed) ^ mix64(System.nanoTime());
+    }
+
+    /**
+     * Get a uniformly distributed value between 0 (inclusive) and the
+     * bound (exclusive), without the bias of taking a remainder.
+     * 
+     * @param bound  The upper bound, must be positive
+     * 
+     * @return The random value
+     */
+    @Override
+    public int nextInt(final int bound) {
+        int mask = bound - 1;
+        int bits;
+        int value;
+
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: "
+                    + bound);
+        }
+
+        bits = mix32(nextSeed());
+        if ((bound & mask) == 0) {
+            return bits & mask;
+        }
+
+        // Reject the values from the partial range at the top
+        bits >>>= 1;
+        for (value = bits % bound; bits - value + mask < 0;
+                value = bits % bound) {
+            bits = mix32(nextSeed()) >>> 1;
+        }
+
+        return value;
+    }
+
+    /**
+     * Get a uniformly distributed long value.
+     * 
+     * @return The random value
+     */
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * Create a new, independent source from this one.
+     * 
+     * @return The new source
+     */
+    @Override
+    public RandomSource split() {
+        return new SplitMixRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Advance the counter.
+     * 
+     * @return The new counter value
+     */
+    private long nextSeed() {
+        seed += gamma;
+        return seed;
+    }
+
+    /**
+     * Mix a counter value into a 64 bit random value.
+     * 
+     * @param value  The counter value
+     * 
+     * @return The random value
+     */
+    private static long mix64(final long value) {
+        long mixed = value;
+
+        mixed = (mixed ^ (mixed >>> 30)) * 0xbf58476d1ce4e5b9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94d049bb133111ebL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    /**
+     * Mix a counter value into a 32 bit random value.
+     * 
+     * @param value  The counter value
+     * 
+     * @return The random value
+     */
+    private static int mix32(final long value) {
+        long mixed = value;
+
+        mixed = (mixed ^ (mixed >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((mixed ^ (mixed >>> 28)) * 0xcb24d0a5c88c35b3L) 
+                >>> 32);
+    }
+
+    /**
+     * Derive the increment for a split source, making sure it is odd and
+     * has enough bit transitions to produce well mixed values.
+     * 
+     * @param value  The counter value to derive the increment from
+     * 
+     * @return The increment
+     */
+    private static long mixGamma(final long value) {
+        long mixed = value;
+
+        mixed = (mixed ^ (mixed >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        mixed = (mixed ^ (mixed >>> 33)) | 1L;
+
+        if (Long.bitCount(mixed ^ (mixed >>> 1)) < 24) {
+            mixed ^= 0xaaaaaaaaaaaaaaaaL;
+        }
+
+        return mixed;
+    }
+}
@@ -0,0 +1,202 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ *
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Bit-parallel (SIMD within a register) scoring of packed sequences.
+ *
+ * Exact matches are found for all positions at once by detecting the zero
+ * lanes of the XOR of the two sequences. Color-only matches are found from
+ * the 4 bit per-color counters of SequenceCode.histogram(), spread into the
+ * byte lanes of two longs (even and odd color indexes) so that the minimum
+ * of all counters can be taken at once.
+ *
+ * Nothing is allocated, at any sequence length or number of colors.
+ *
+ * @author David Read
+ *
+ */
+public final class SwarScorer {
+    /**
+     * The low three bits of every position lane.
+     */
+    private static final long LANE_LOW_BITS = 0x7777777777777777L;
+
+    /**
+     * The high bit of every position lane.
+     */
+    private static final long LANE_HIGH_BITS = 0x8888888888888888L;
+
+    /**
+     * Number of bits in a byte lane.
+     */
+    private static final int BITS_PER_BYTE_LANE = 8;
+
+    /**
+     * The low nibble of every byte lane.
+     */
+    private static final long BYTE_LANE_LOW_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+
+    /**
+     * The high bit of every byte lane.
+     */
+    private static final long BYTE_LANE_HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * The low bit of every byte lane.
+     */
+    private static final long BYTE_LANE_LOW_BITS = 0x0101010101010101L;
+
+    /**
+     * Shift that leaves the sum of all byte lanes after multiplying by
+     * BYTE_LANE_LOW_BITS.
+     */
+    private static final int BYTE_LANE_SUM_SHIFT = 56;
+
+    /**
+     * Value of a byte lane with all of its bits set.
+     */
+    private static final long BYTE_LANE_ALL_BITS = 0xFFL;
+
+    /**
+     * No instances - static methods only.
+     */
+    private SwarScorer() {
+    }
+
+    /**
+     * Count the positions where two sequences have the same color.
+     *
+     * @param guess
+     *            The packed guess
+     * @param answer
+     *            The packed answer
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return The number of exact matches
+     */
+    public static int exactMatches(final long guess, final long answer,
+            final int length) {
+        return Long.bitCount(exactLanes(guess, answer, length));
+    }
+
+    /**
+     * Find the positions where two sequences have the same color.
+     *
+     * @param guess
+     *            The packed guess
+     * @param answer
+     *            The packed answer
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return A mask with the high bit of each matching position's lane set
+     *         (bit 4 * position + 3)
+     */
+    public static long exactLanes(final long guess, final long answer,
+            final int length) {
+        long diff = guess ^ answer;
+        // The high bit of each lane is set if any low bit was set, without
+        // carrying into the next lane
+        long nonZero = ((diff & LANE_LOW_BITS) + LANE_LOW_BITS) | diff;
+
+        return ~nonZero & LANE_HIGH_BITS & lengthMask(length);
+    }
+
+    /**
+     * Count the colors two histograms have in common.
+     *
+     * @param guessHistogram
+     *            The color histogram of the guess (see
+     *            SequenceCode.histogram())
+     * @param answerHistogram
+     *            The color histogram of the answer
+     *
+     * @return The number of colors in common, regardless of position
+     */
+    public static int commonColors(final long guessHistogram,
+            final long answerHistogram) {
+        return sumOfMinimums(guessHistogram & BYTE_LANE_LOW_NIBBLES,
+                answerHistogram & BYTE_LANE_LOW_NIBBLES)
+                + sumOfMinimums((guessHistogram >>> SequenceCode.BITS_PER_PEG)
+                        & BYTE_LANE_LOW_NIBBLES,
+                        (answerHistogram >>> SequenceCode.BITS_PER_PEG)
+                                & BYTE_LANE_LOW_NIBBLES);
+    }
+
+    /**
+     * Score a guess against an answer.
+     *
+     * @param guess
+     *            The packed guess
+     * @param answer
+     *            The packed answer
+     * @param length
+     *            The number of positions in the sequences
+     *
+     * @return The feedback value (see SequenceCode.getExact() and
+     *         SequenceCode.getColorOnly())
+     */
+    public static int score(final long guess, final long answer,
+            final int length) {
+        int exact = exactMatches(guess, answer, length);
+
+        return SequenceCode.feedback(exact, commonColors(
+                SequenceCode.histogram(guess, length),
+                SequenceCode.histogram(answer, length))
+                - exact);
+    }
+
+    /**
+     * Sum the minimum of each pair of byte lanes. Every lane must be less
+     * than 128.
+     *
+     * @param first
+     *            The first set of byte lanes
+     * @param second
+     *            The second set of byte lanes
+     *
+     * @return The sum of the lane minimums
+     */
+    private static int sumOfMinimums(final long first, final long second) {
+        // Lane high bit set where the first lane >= the second lane
+        long firstNotLess = ((first | BYTE_LANE_HIGH_BITS) - second)
+                & BYTE_LANE_HIGH_BITS;
+        long takeSecond = (firstNotLess >>> (BITS_PER_BYTE_LANE - 1))
+                * BYTE_LANE_ALL_BITS;
+        long minimum = (second & takeSecond) | (first & ~takeSecond);
+
+        return (int) ((minimum * BYTE_LANE_LOW_BITS) >>> BYTE_LANE_SUM_SHIFT);
+    }
+
+    /**
+     * Get a mask covering the lanes in use for a sequence length.
+     *
+     * @param length
+     *            The number of positions in the sequence
+     *
+     * @return The mask of the lanes in use
+     */
+    private static long lengthMask(final int length) {
+        return (1L << (length * SequenceCode.BITS_PER_PEG)) - 1;
+    }
+}
@@ -0,0 +1,58 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The time source for real games, backed by System.nanoTime().
+ * 
+ * @author David Read
+ *
+ */
+public final class SystemTimeSource implements TimeSource {
+    /**
+     * Singleton instance.
+     */
+    private static final SystemTimeSource INSTANCE = new SystemTimeSource();
+
+    /**
+     * Create the time source - private since Singleton.
+     */
+    private SystemTimeSource() {
+    }
+
+    /**
+     * Get the instance of the system time source.
+     * 
+     * @return The time source instance
+     */
+    public static SystemTimeSource getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the current reading of the system's monotonic timer.
+     * 
+     * @return The reading, in nanoseconds
+     */
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
@@ -0,0 +1,40 @@
+package com.monead.games.android.sequence.core;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A monotonic source of time for the game clock.
+ * 
+ * Only differences between two readings are meaningful; the values do not
+ * relate to the time of day and do not jump when the device's clock is
+ * changed. Tests can supply a source that they advance themselves.
+ * 
+ * @author David Read
+ *
+ */
+public interface TimeSource {
+    /**
+     * Get the current reading.
+     * 
+     * @return The reading, in nanoseconds
+     */
+    long nanoTime();
+}
@@ -0,0 +1,5 @@
+/**
+ * The core package for the android-based Sequence Hunt game. Nothing in this
+ * package depends on Android, so the game rules can run on a plain JVM.
+ */
+package com.monead.games.android.sequence.core;
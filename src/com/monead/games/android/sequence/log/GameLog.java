@@ -0,0 +1,352 @@
+package com.monead.games.android.sequence.log;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The logging facade used throughout Sequence Hunt.
+ * 
+ * Debug messages are parameterized: "{}" in the message is replaced by
+ * the next value, and primitive values have their own overloads so nothing
+ * is boxed or formatted unless a sink will receive the message. Debug
+ * logging is also switched off at compile time by DEBUG. With it false the
+ * compiler drops any block guarded by "if (GameLog.DEBUG)", which is how
+ * callers on the drawing path must wrap their debug calls, since even the
+ * values passed would otherwise be computed.
+ * 
+ * Warnings and errors are always written.
+ * 
+ * Sinks are attached at startup; until then everything is discarded.
+ * 
+ * @author David Read
+ *
+ */
+public final class GameLog {
+    /**
+     * True to compile debug logging into the game. Set to false for
+     * releases.
+     */
+    public static final boolean DEBUG = false;
+
+    /**
+     * Verbose level, same value as android.util.Log.VERBOSE.
+     */
+    public static final int LEVEL_VERBOSE = 2;
+
+    /**
+     * Debug level, same value as android.util.Log.DEBUG.
+     */
+    public static final int LEVEL_DEBUG = 3;
+
+    /**
+     * Info level, same value as android.util.Log.INFO.
+     */
+    public static final int LEVEL_INFO = 4;
+
+    /**
+     * Warning level, same value as android.util.Log.WARN.
+     */
+    public static final int LEVEL_WARN = 5;
+
+    /**
+     * Error level, same value as android.util.Log.ERROR.
+     */
+    public static final int LEVEL_ERROR = 6;
+
+    /**
+     * The placeholder replaced by a value in a parameterized message.
+     */
+    private static final String PLACEHOLDER = "{}";
+
+    /**
+     * The main sink, e.g. the Android log. Null if not attached.
+     */
+    private static volatile LogSink sink;
+
+    /**
+     * The in-memory record of recent messages. Null if not attached.
+     */
+    private static volatile LogRingBuffer ringBuffer;
+
+    /**
+     * Not instantiated - static methods only.
+     */
+    private GameLog() {
+    }
+
+    /**
+     * Attach the main sink.
+     * 
+     * @param pSink  The sink, null to stop writing to it
+     */
+    public static void setSink(final LogSink pSink) {
+        sink = pSink;
+    }
+
+    /**
+     * Attach an in-memory ring buffer which receives every message the
+     * main sink does.
+     * 
+     * @param pRingBuffer  The ring buffer, null to stop recording
+     */
+    public static void setRingBuffer(final LogRingBuffer pRingBuffer) {
+        ringBuffer = pRingBuffer;
+    }
+
+    /**
+     * Get the in-memory ring buffer.
+     * 
+     * @return The ring buffer, null if none is attached
+     */
+    public static LogRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * Whether a debug message would be written anywhere.
+     * 
+     * @return True if debug logging is compiled in and a sink is attached
+     */
+    public static boolean isDebugEnabled() {
+        return DEBUG && (sink != null || ringBuffer != null);
+    }
+
+    /**
+     * Write a debug message.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The message
+     */
+    public static void d(final String pTag, final String pMessage) {
+        if (isDebugEnabled()) {
+            write(LEVEL_DEBUG, pTag, pMessage, null);
+        }
+    }
+
+    /**
+     * Write a debug message with one numeric value.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pFormat  The message, "{}" marks where the value goes
+     * @param pValue  The value
+     */
+    public static void d(final String pTag, final String pFormat,
+            final long pValue) {
+        StringBuilder message;
+        int from;
+
+        if (isDebugEnabled()) {
+            message = new StringBuilder();
+            from = appendUntilPlaceholder(message, pFormat, 0);
+            message.append(pValue);
+            appendRest(message, pFormat, from);
+            write(LEVEL_DEBUG, pTag, message.toString(), null);
+        }
+    }
+
+    /**
+     * Write a debug message with two numeric values.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pFormat  The message, "{}" marks where each value goes
+     * @param pValue1  The first value
+     * @param pValue2  The second value
+     */
+    public static void d(final String pTag, final String pFormat,
+            final long pValue1, final long pValue2) {
+        StringBuilder message;
+        int from;
+
+        if (isDebugEnabled()) {
+            message = new StringBuilder();
+            from = appendUntilPlaceholder(message, pFormat, 0);
+            message.append(pValue1);
+            from = appendUntilPlaceholder(message, pFormat, from);
+            message.append(pValue2);
+            appendRest(message, pFormat, from);
+            write(LEVEL_DEBUG, pTag, message.toString(), null);
+        }
+    }
+
+    /**
+     * Write a debug message with three numeric values.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pFormat  The message, "{}" marks where each value goes
+     * @param pValue1  The first value
+     * @param pValue2  The second value
+     * @param pValue3  The third value
+     */
+    public static void d(final String pTag, final String pFormat,
+            final long pValue1, final long pValue2, final long pValue3) {
+        StringBuilder message;
+        int from;
+
+        if (isDebugEnabled()) {
+            message = new StringBuilder();
+            from = appendUntilPlaceholder(message, pFormat, 0);
+            message.append(pValue1);
+            from = appendUntilPlaceholder(message, pFormat, from);
+            message.append(pValue2);
+            from = appendUntilPlaceholder(message, pFormat, from);
+            message.append(pValue3);
+            appendRest(message, pFormat, from);
+            write(LEVEL_DEBUG, pTag, message.toString(), null);
+        }
+    }
+
+    /**
+     * Write a debug message with one value. The value's toString() is only
+     * called if the message is written.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pFormat  The message, "{}" marks where the value goes
+     * @param pValue  The value
+     */
+    public static void d(final String pTag, final String pFormat,
+            final Object pValue) {
+        StringBuilder message;
+        int from;
+
+        if (isDebugEnabled()) {
+            message = new StringBuilder();
+            from = appendUntilPlaceholder(message, pFormat, 0);
+            message.append(pValue);
+            appendRest(message, pFormat, from);
+            write(LEVEL_DEBUG, pTag, message.toString(), null);
+        }
+    }
+
+    /**
+     * Write an informational message.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The message
+     */
+    public static void i(final String pTag, final String pMessage) {
+        write(LEVEL_INFO, pTag, pMessage, null);
+    }
+
+    /**
+     * Write a warning.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The message
+     */
+    public static void w(final String pTag, final String pMessage) {
+        write(LEVEL_WARN, pTag, pMessage, null);
+    }
+
+    /**
+     * Write a warning caused by an exception.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The message
+     * @param pThrown  The exception
+     */
+    public static void w(final String pTag, final String pMessage,
+            final Throwable pThrown) {
+        write(LEVEL_WARN, pTag, pMessage, pThrown);
+    }
+
+    /**
+     * Write an error.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The message
+     */
+    public static void e(final String pTag, final String pMessage) {
+        write(LEVEL_ERROR, pTag, pMessage, null);
+    }
+
+    /**
+     * Write an error caused by an exception.
+     * 
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The message
+     * @param pThrown  The exception
+     */
+    public static void e(final String pTag, final String pMessage,
+            final Throwable pThrown) {
+        write(LEVEL_ERROR, pTag, pMessage, pThrown);
+    }
+
+    /**
+     * Pass a formatted message to the attached sinks.
+     * 
+     * @param pLevel  The level (LEVEL_* constants)
+     * @param pTag  The tag
+     * @param pMessage  The message
+     * @param pThrown  An exception to report, may be null
+     */
+    private static void write(final int pLevel, final String pTag,
+            final String pMessage, final Throwable pThrown) {
+        LogSink mainSink;
+        LogRingBuffer buffer;
+
+        mainSink = sink;
+        if (mainSink != null) {
+            mainSink.write(pLevel, pTag, pMessage, pThrown);
+        }
+
+        buffer = ringBuffer;
+        if (buffer != null) {
+            buffer.write(pLevel, pTag, pMessage, pThrown);
+        }
+    }
+
+    /**
+     * Copy a parameterized message up to its next placeholder. If there
+     * are no placeholders left the whole remainder and a separating space
+     * are copied, so surplus values are still reported.
+     * 
+     * @param pMessage  The message being built
+     * @param pFormat  The parameterized message
+     * @param pFrom  The index to copy from
+     * 
+     * @return The index just past the placeholder
+     */
+    private static int appendUntilPlaceholder(final StringBuilder pMessage,
+            final String pFormat, final int pFrom) {
+        int placeholder;
+
+        placeholder = pFormat.indexOf(PLACEHOLDER, pFrom);
+        if (placeholder < 0) {
+            pMessage.append(pFormat, pFrom, pFormat.length());
+            pMessage.append(' ');
+            return pFormat.length();
+        }
+
+        pMessage.append(pFormat, pFrom, placeholder);
+        return placeholder + PLACEHOLDER.length();
+    }
+
+    /**
+     * Copy the rest of a parameterized message after its last value.
+     * 
+     * @param pMessage  The message being built
+     * @param pFormat  The parameterized message
+     * @param pFrom  The index to copy from
+     */
+    private static void appendRest(final StringBuilder pMessage,
+            final String pFormat, final int pFrom) {
+        pMessage.append(pFormat, pFrom, pFormat.length());
+    }
+}
@@ -0,0 +1,168 @@
+package com.monead.games.android.sequence.log;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A fixed size, in-memory record of the most recent log messages.
+ * 
+ * The buffer is a sink like any other. Once full, each new message
+ * replaces the oldest one, so the memory used never grows. The contents
+ * can be dumped, e.g. into the runtime information dialog.
+ * 
+ * @author David Read
+ *
+ */
+public final class LogRingBuffer implements LogSink {
+    /**
+     * Number of messages kept when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * Level names, indexed by level.
+     */
+    private static final char[] LEVEL_NAMES = {
+        '?', '?', 'V', 'D', 'I', 'W', 'E'
+    };
+
+    /**
+     * The messages, oldest at index next once the buffer has wrapped.
+     */
+    private final String[] entries;
+
+    /**
+     * Index of the slot the next message is written to.
+     */
+    private int next;
+
+    /**
+     * Number of messages held, up to the capacity.
+     */
+    private int count;
+
+    /**
+     * Create a ring buffer holding the default number of messages.
+     */
+    public LogRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a ring buffer.
+     * 
+     * @param pCapacity  The number of messages to keep
+     */
+    public LogRingBuffer(final int pCapacity) {
+        if (pCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: "
+                    + pCapacity);
+        }
+        entries = new String[pCapacity];
+    }
+
+    /**
+     * Record a message, replacing the oldest if the buffer is full.
+     * 
+     * @param pLevel  The level (GameLog.LEVEL_* constants)
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The formatted message
+     * @param pThrown  An exception to report with the message, may be null
+     */
+    public void write(final int pLevel, final String pTag,
+            final String pMessage, final Throwable pThrown) {
+        StringBuilder entry;
+
+        entry = new StringBuilder();
+        entry.append(pLevel >= 0 && pLevel < LEVEL_NAMES.length
+                ? LEVEL_NAMES[pLevel] : '?');
+        entry.append('/');
+        entry.append(shortName(pTag));
+        entry.append(": ");
+        entry.append(pMessage);
+        if (pThrown != null) {
+            entry.append(" (");
+            entry.append(pThrown);
+            entry.append(')');
+        }
+
+        synchronized (this) {
+            entries[next] = entry.toString();
+            next = (next + 1) % entries.length;
+            if (count < entries.length) {
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Get the messages held, oldest first.
+     * 
+     * @return The messages, one per line
+     */
+    public synchronized String dump() {
+        StringBuilder dump;
+        int start;
+
+        dump = new StringBuilder();
+        start = (next - count + entries.length) % entries.length;
+        for (int entry = 0; entry < count; ++entry) {
+            dump.append(entries[(start + entry) % entries.length]);
+            dump.append('\n');
+        }
+
+        return dump.toString();
+    }
+
+    /**
+     * Get the number of messages held.
+     * 
+     * @return The message count, at most the capacity
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Discard all messages.
+     */
+    public synchronized void clear() {
+        for (int entry = 0; entry < entries.length; ++entry) {
+            entries[entry] = null;
+        }
+        next = 0;
+        count = 0;
+    }
+
+    /**
+     * Drop the package from a class name used as a tag, keeping the dialog
+     * readable on a phone screen.
+     * 
+     * @param pTag  The tag
+     * 
+     * @return The tag after the last period
+     */
+    private static String shortName(final String pTag) {
+        if (pTag == null) {
+            return "";
+        }
+        return pTag.substring(pTag.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.monead.games.android.sequence.log;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A destination for log messages, such as the Android log.
+ * 
+ * Messages arrive already formatted. A sink may be called from any thread.
+ * 
+ * @author David Read
+ *
+ */
+public interface LogSink {
+    /**
+     * Write a message.
+     * 
+     * @param pLevel  The level (GameLog.LEVEL_* constants)
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The formatted message
+     * @param pThrown  An exception to report with the message, may be null
+     */
+    void write(int pLevel, String pTag, String pMessage, Throwable pThrown);
+}
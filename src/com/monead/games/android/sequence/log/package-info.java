@@ -0,0 +1,5 @@
+/**
+ * The logging package for the android-based Sequence Hunt game. Nothing in
+ * this package depends on Android; the Android log is attached as a sink.
+ */
+package com.monead.games.android.sequence.log;
@@ -1,18 +1,16 @@
 package com.monead.games.android.sequence.model;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
-import java.util.List;
-import java.util.Random;
 
 import com.monead.games.android.sequence.R;
-import com.monead.games.android.sequence.sound.SoundManager;
+import com.monead.games.android.sequence.core.GameEventListener;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceHuntGame;
+import com.monead.games.android.sequence.log.GameLog;
 
 import android.content.Context;
 import android.graphics.Color;
-import android.util.Log;
 
 /**
  * Copyright 2011, David S. Read
@@ -37,6 +35,11 @@ import android.util.Log;
 /**
  * This is the model that holds the state for a game of Sequence Hunt.
  * 
+ * The rules and state are held by a SequenceHuntGame, which has no Android
+ * dependencies. This class adapts it for the Android application, supplying
+ * display colors and localized color names. Sounds and other reactions to
+ * moves are supplied by GameEventListener implementations.
+ * 
  * @author David Read
  * 
  */
@@ -44,277 +47,176 @@ public class SequenceHuntGameModel implements Serializable {
     /**
      * Serial Id required since this model is serializable.
      */
-    private static final long serialVersionUID = 5685518061216785733L;
-
-    /**
-     * Maximum number of attempts to discover the sequence.
-     */
-    private static final int MAX_TRYS_ALLOWED = 10;
-
-    /**
-     * Value of a correct guess when calculating the relative
-     * score for a try.  This is used solely to rank the
-     * how close a try is to the previous try
-     * e.g. better, same or worse
-     */
-    private static final int SCORING_VALUE_OF_CORRECT_GUESS = 10;
+    private static final long serialVersionUID = 3815582719940265611L;
 
     /**
      * Default size of the sequence.
      */
-    public static final int DEFAULT_SEQUENCE_LENGTH = 4;
+    public static final int DEFAULT_SEQUENCE_LENGTH = 
+        SequenceHuntGame.DEFAULT_SEQUENCE_LENGTH;
 
     /**
      * Minimum size of the sequence.
      */
-    public static final int MINIMUM_SEQUENCE_LENGTH = 4;
+    public static final int MINIMUM_SEQUENCE_LENGTH = 
+        SequenceHuntGame.MINIMUM_SEQUENCE_LENGTH;
 
     /**
      * Maximum size of the sequence.
      */
-    public static final int MAXIMUM_SEQUENCE_LENGTH = 8;
-
-    /**
-     * Value of an unselected position.
-     */
-    private static final int UNSELECTED = 0;
+    public static final int MAXIMUM_SEQUENCE_LENGTH = 
+        SequenceHuntGame.MAXIMUM_SEQUENCE_LENGTH;
 
-    // Internal constants used for the colors.
     /**
      * Constant for red.
      */
-    public static final int COLOR_RED = 1;
+    public static final int COLOR_RED = SequenceHuntGame.COLOR_RED;
 
     /**
      * Constant for green.
      */
-    public static final int COLOR_GREEN = 2;
+    public static final int COLOR_GREEN = SequenceHuntGame.COLOR_GREEN;
 
     /**
      * Constant for blue.
      */
-    public static final int COLOR_BLUE = 3;
+    public static final int COLOR_BLUE = SequenceHuntGame.COLOR_BLUE;
 
     /**
      * Constant for yellow.
      */
-    public static final int COLOR_YELLOW = 4;
+    public static final int COLOR_YELLOW = SequenceHuntGame.COLOR_YELLOW;
 
     /**
      * Constant for white.
      */
-    public static final int COLOR_WHITE = 5;
+    public static final int COLOR_WHITE = SequenceHuntGame.COLOR_WHITE;
 
     /**
      * Constant for black.
      */
-    public static final int COLOR_BLACK = 6;
+    public static final int COLOR_BLACK = SequenceHuntGame.COLOR_BLACK;
 
     /**
      * The number of colors available in the game.
-     * 
-     * This must agree with the number of colors defined with constants
      */
-    public static final int NUM_COLORS = 6;
+    public static final int NUM_COLORS = SequenceHuntGame.NUM_COLORS;
 
     /**
-     * CVlue value indicating no match on color.
-     * 
-     * Must have value 0 since this will be default for new clue array
+     * Clue value indicating no match on color.
      */
-    public static final int CLUE_COMPLETELY_INCORRECT = 0;
+    public static final int CLUE_COMPLETELY_INCORRECT = 
+        SequenceHuntGame.CLUE_COMPLETELY_INCORRECT;
 
     /**
      * A guess is a correct color but in the wrong position.
      */
-    public static final int CLUE_POSIT_INCORRECT = 1;
+    public static final int CLUE_POSIT_INCORRECT = 
+        SequenceHuntGame.CLUE_POSIT_INCORRECT;
 
     /**
      * A guess is the correct color in the correct position.
      */
-    public static final int CLUE_POSIT_CORRECT = 2;
+    public static final int CLUE_POSIT_CORRECT = 
+        SequenceHuntGame.CLUE_POSIT_CORRECT;
 
-    // Constants for the clue three-dimensional array
     /**
-     * Array index used when populating the clue array.
-     * 
-     * The element represents the type (CLUE_POSIT_*)
+     * The Android colors used to display each game color, in color index
+     * order (e.g. the first entry is for COLOR_RED). Covers the most colors
+     * a game can use.
      */
-    private static final int CLUE_METADATA_TYPE = 0;
+    private static final int[] DISPLAY_COLORS = {
+        Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW, Color.WHITE,
+        Color.BLACK, Color.CYAN, Color.MAGENTA, Color.rgb(255, 128, 0),
+        Color.rgb(128, 0, 255), Color.rgb(128, 64, 0), Color.rgb(255, 128, 192),
+        Color.rgb(0, 128, 0), Color.rgb(0, 0, 128), Color.rgb(128, 128, 0),
+        Color.rgb(0, 128, 128)
+    };
 
     /**
-     * Array index used when populating the clue array.
-     * 
-     * The element represents the color
+     * The string resources naming each game color, in color index order.
+     * Colors beyond the end of the list are reported by number.
      */
-    private static final int CLUE_METADATA_COLOR = 1;
+    private static final int[] COLOR_NAMES = {
+        R.string.color_red, R.string.color_green, R.string.color_blue,
+        R.string.color_yellow, R.string.color_white, R.string.color_black
+    };
 
     /**
-     * The number of metadata elements in the array.
+     * The game rules and state.
      */
-    private static final int NUM_CLUE_METADATA = 2;
+    private SequenceHuntGame game;
 
     /**
-     * Stores the answer for this game.
-     * 
-     * One dimensional array - containing the colors
+     * Class name used for logging.
      */
-    private int[] answer;
+    private String className = this.getClass().getName();
 
     /**
-     * Stores the trys (submitted guesses) made so far in the game.
+     * Setup the model with a generated answer that the user must find.
      * 
-     * Two dimensional array containing the trys and guesses for each try
-     */
-    private int[][] guess;
-
-    /**
-     * Length of the sequence.
-     */
-    private int sequenceLength;
-
-    /**
-     * Has the game started - typically starts when the user selects the first
-     * color.
-     */
-    private boolean gameStarted;
-
-    /**
-     * How long has the game been (actively) going on? This will not count time
-     * when the app is hidden or closed.
-     */
-    private long elapsedMS;
-
-    /**
-     * The date value when the elapsedMS value was last updated. Doesn't get
-     * persisted since time when app is shutdown should not count toward playing
-     * time.
+     * @param pSequenceLength
+     *            The length of the sequence
      */
-    private transient Date latestStartupDate;
+    public SequenceHuntGameModel(final int pSequenceLength) {
+        game = new SequenceHuntGame(pSequenceLength);
+        if (GameLog.DEBUG) {
+            GameLog.d(className,
+                    "Requested sequence length: {} resulting length: {}",
+                    pSequenceLength, getSequenceLength());
+        }
+    }
 
     /**
-     * Stores the computed clues for the trys
+     * Setup the model for a game with the supplied rules.
      * 
-     * Three dimensional array containing the the clues for each try. Clues
-     * require two elements, the clue itself and the color represented.
+     * @param rules
+     *            The rules (sequence length, colors and trys) for the game
      */
-    private int[][][] clue;
-
-    /**
-     * Flags that the latest try is correct and the user has won.
-     */
-    private boolean winner;
-
-    /**
-     * The relative "score" of the previous try. see: latestTryScore
-     */
-    private int previousTryScore;
-
-    /**
-     * The relative "score" of the latest try. This is used to determine if the
-     * latest try is better, worse or the same. The score is essentially the
-     * number correct * 10 + number incorrect position
-     */
-    private int latestTryScore;
-
-    /**
-     * The current try number.
-     */
-    private int currentTry;
-
-    /**
-     * The current guess position within a try.
-     */
-    private int currentPosit;
-
-    /**
-     * A random number generator.
-     */
-    private Random random = new Random();
+    public SequenceHuntGameModel(final GameRules rules) {
+        game = new SequenceHuntGame(rules);
+    }
 
     /**
-     * Class name used for logging.
+     * Get the game rules and state that this model adapts.
+     * 
+     * @return The game
      */
-    private String className = this.getClass().getName();
+    public final SequenceHuntGame getGame() {
+        return game;
+    }
 
     /**
-     * Setup the model with a generated answer that the user must find.
+     * Get the latest immutable snapshot of the game, which may be read from
+     * any thread.
      * 
-     * @param pSequenceLength
-     *            The length of the sequence
+     * @return The latest snapshot
      */
-    public SequenceHuntGameModel(final int pSequenceLength) {
-        Log.d(className, "Requested sequence length: " + sequenceLength);
-        setSequenceLength(pSequenceLength);
-        Log.d(className, "Resulting sequence length: " + getSequenceLength());
-        setup();
+    public final GameSnapshot getSnapshot() {
+        return game.getSnapshot();
     }
 
     /**
-     * Setup the model with a new game.
-     */
-    private void setup() {
-        guess = new int[MAX_TRYS_ALLOWED][getSequenceLength()];
-        clue = new int[MAX_TRYS_ALLOWED][getSequenceLength()]
-                                         [NUM_CLUE_METADATA];
-        answer = new int[getSequenceLength()];
-
-        for (int cell = 0; cell < getSequenceLength(); ++cell) {
-            switch (Math.abs(random.nextInt() % NUM_COLORS)) {
-                case 0:
-                    answer[cell] = COLOR_BLACK;
-                    break;
-                case 1:
-                    answer[cell] = COLOR_BLUE;
-                    break;
-                case 2:
-                    answer[cell] = COLOR_GREEN;
-                    break;
-                case 3:
-                    answer[cell] = COLOR_RED;
-                    break;
-                case 4:
-                    answer[cell] = COLOR_WHITE;
-                    break;
-                case 5:
-                    answer[cell] = COLOR_YELLOW;
-                    break;
-                default:
-                    answer[cell] = COLOR_YELLOW;
-                    break;
-            }
-        }
-
-        currentTry = 0;
-        currentPosit = 0;
-        gameStarted = false;
-        elapsedMS = 0;
-        latestTryScore = 0;
-        previousTryScore = 0;
+     * Register a listener for game events.
+     * 
+     * Listeners are not persisted with the model.
+     * 
+     * @param listener
+     *            The listener to add
+     */
+    public final void addGameEventListener(final GameEventListener listener) {
+        game.addGameEventListener(listener);
     }
 
     /**
-     * Sets the sequence length for the model
+     * Unregister a listener for game events.
      * 
-     * If the length supplied is less than the minimum allowed or greater than
-     * the maximum allowed, it will be set to the default length.
-     * 
-     * @param pSequenceLength
-     *            The length of the sequence, which must be between the constant
-     *            values of MIMUMUM_SEQUENCE_LENGTH and MAXIMUM_SEQUENCE_LENGTH
-     */
-    private void setSequenceLength(final int pSequenceLength) {
-        if (pSequenceLength >= MINIMUM_SEQUENCE_LENGTH
-                && pSequenceLength <= MAXIMUM_SEQUENCE_LENGTH) {
-            this.sequenceLength = pSequenceLength;
-            Log.d(className, "setSequenceLength, used supplied value: "
-                    + pSequenceLength);
-        } else {
-            this.sequenceLength = DEFAULT_SEQUENCE_LENGTH;
-            Log.d(className, "setSequenceLength, ignored supplied value: "
-                    + pSequenceLength + " and used default: "
-                    + this.sequenceLength);
-        }
+     * @param listener
+     *            The listener to remove
+     */
+    public final void removeGameEventListener(
+            final GameEventListener listener) {
+        game.removeGameEventListener(listener);
     }
 
     /**
@@ -324,7 +226,7 @@ public class SequenceHuntGameModel implements Serializable {
      *            True if a winner
      */
     public final void setWinner(final boolean pWinner) {
-        winner = pWinner;
+        game.setWinner(pWinner);
     }
 
     /**
@@ -333,7 +235,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True if a winner
      */
     public final boolean isWinner() {
-        return winner;
+        return game.isWinner();
     }
 
     /**
@@ -342,7 +244,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True if a loser (e.g. all trys exhausted)
      */
     public final boolean isLoser() {
-        return !winner && currentTry >= MAX_TRYS_ALLOWED;
+        return game.isLoser();
     }
 
     /**
@@ -351,7 +253,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The maximum number of trys allowed
      */
     public final int getMaxTrys() {
-        return MAX_TRYS_ALLOWED;
+        return game.getMaxTrys();
     }
 
     /**
@@ -363,18 +265,7 @@ public class SequenceHuntGameModel implements Serializable {
      *         than 1 indicates a decline
      */
     public final int getTryProgress() {
-        return latestTryScore - previousTryScore;
-    }
-
-    /**
-     * Signal that a game has started.
-     * 
-     * TODO Complete the implementation of the game timer
-     */
-    private void signalGameStart() {
-        gameStarted = true;
-        latestStartupDate = new Date();
-        Log.d(className, "signalGameStart at " + latestStartupDate.getTime());
+        return game.getTryProgress();
     }
 
     /**
@@ -384,69 +275,36 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The number of MS the game has taken.
      */
     public final long getElapsedTime() {
-        updateElapsedTime();
-        Log.d(className, "getElapsedTime returning " + elapsedMS);
-        return elapsedMS;
-    }
-
-    /**
-     * Update the MS elapsed for the current game.
-     * 
-     * TODO Complete the implementation of the game timer
-     */
-    public final void updateElapsedTime() {
-        Date date;
-
-        if (gameStarted && !isLoser() && !isWinner()) {
-            if (gameStarted && latestStartupDate != null) {
-                date = new Date();
-                elapsedMS += date.getTime() - latestStartupDate.getTime();
-                latestStartupDate = date;
-                Log.d(className, "updateElapsedTime update start time ["
-                        + latestStartupDate.getTime() + "] date.getTime ["
-                        + date.getTime() + "] elapsedMS [" + elapsedMS + "]");
-            } else {
-                if (gameStarted) {
-                    // Probably back from being paused
-                    latestStartupDate = new Date();
-                    Log.d(className, "updateElapsedTime with no start time ["
-                            + latestStartupDate.getTime() + "]");
-                }
-            }
+        long elapsedMS = game.getElapsedTime();
+        if (GameLog.DEBUG) {
+            GameLog.d(className, "getElapsedTime returning {}", elapsedMS);
         }
+        return elapsedMS;
     }
 
     /**
      * Signal that a game has ended.
-     * 
-     * TODO Complete the implementation of the game timer
      */
     public final void signalGameEnd() {
-        Log.d(className, "signalGameEnd");
-        updateElapsedTime();
-        gameStarted = false;
+        GameLog.d(className, "signalGameEnd");
+        game.signalGameEnd();
     }
 
     /**
      * Signal that a game is being paused. Elapsed time will not be counted
      * toward the game.
-     * 
-     * TODO Complete the implementation of the game timer
      */
     public final void signalGamePaused() {
-        Log.d(className, "signalGamePaused");
-        updateElapsedTime();
+        GameLog.d(className, "signalGamePaused");
+        game.signalGamePaused();
     }
 
     /**
      * Signal that a game is being restored.
-     * 
-     * TODO Complete the implementation of the game timer
      */
     public final void signalGameRestored() {
-        latestStartupDate = new Date();
-        Log.d(className, "signalGameRestored latestStartupDate.getTime ["
-                + latestStartupDate.getTime() + "]");
+        GameLog.d(className, "signalGameRestored");
+        game.signalGameRestored();
     }
 
     /**
@@ -458,22 +316,10 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True if there was a spot left in the current try for a guess
      */
     public final boolean addGuess(final int color) {
-        Log.d(className, "addGuess color [" + color + "]");
-        if (!gameStarted) {
-            signalGameStart();
-        }
-
-        updateElapsedTime();
-
-        if (currentTry < MAX_TRYS_ALLOWED 
-                && currentPosit < getSequenceLength()) {
-            guess[currentTry][currentPosit] = color;
-            ++currentPosit;
-            SoundManager.getInstance().play(R.raw.entry);
-            return true;
-        } else {
-            return false;
+        if (GameLog.DEBUG) {
+            GameLog.d(className, "addGuess color [{}]", color);
         }
+        return game.addGuess(color);
     }
 
     /**
@@ -482,16 +328,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True if there was a guess to remove
      */
     public final boolean removeLastGuess() {
-        if (currentTry < MAX_TRYS_ALLOWED && currentPosit > 0) {
-            --currentPosit;
-            guess[currentTry][currentPosit] = UNSELECTED;
-            SoundManager.getInstance().play(R.raw.backout);
-            return true;
-        } else {
-            SoundManager.getInstance().play(R.raw.fewercorrect);
-        }
-
-        return false;
+        return game.removeLastGuess();
     }
 
     /**
@@ -500,137 +337,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True if a full set of guesses was supplied
      */
     public final boolean submitGuess() {
-        if (currentTry < MAX_TRYS_ALLOWED
-                && currentPosit == getSequenceLength()) {
-            calcClues();
-            ++currentTry;
-            currentPosit = 0;
-            SoundManager.getInstance().play(R.raw.guess);
-            if (getTryProgress() < 0) {
-                SoundManager.getInstance().play(R.raw.fewercorrect);
-            }
-            return true;
-        } else {
-            SoundManager.getInstance().play(R.raw.fewercorrect);
-        }
-
-        return false;
-    }
-
-    /**
-     * Calculate the clues for the submitted try.
-     */
-    private void calcClues() {
-        int clueNum;
-        int[] tempGuess;
-        int numberOfCorrectPositionClues;
-
-        clueNum = 0;
-        tempGuess = new int[getSequenceLength()];
-
-        // Tracking whether this try is better (more accurate)
-        // than the last
-        previousTryScore = latestTryScore;
-        latestTryScore = 0;
-
-        for (int copyGuess = 0; copyGuess < getSequenceLength(); ++copyGuess) {
-            tempGuess[copyGuess] = guess[currentTry][copyGuess];
-        }
-
-        for (int check = 0; check < getSequenceLength(); ++check) {
-            if (tempGuess[check] == answer[check]) {
-                clue[currentTry][clueNum][CLUE_METADATA_TYPE] = 
-                    CLUE_POSIT_CORRECT;
-                clue[currentTry][clueNum++][CLUE_METADATA_COLOR] = 
-                    answer[check];
-                tempGuess[check] = UNSELECTED;
-                latestTryScore += SCORING_VALUE_OF_CORRECT_GUESS;
-            }
-        }
-
-        if (clueNum == getSequenceLength()) {
-            updateElapsedTime();
-            signalGameEnd();
-            setWinner(true);
-        } else if (isLoser()) {
-            updateElapsedTime();
-            signalGameEnd();
-        }
-
-        numberOfCorrectPositionClues = clueNum;
-
-        if (!isWinner()) {
-            for (int check = 0; check < getSequenceLength(); ++check) {
-                if (guess[currentTry][check] != answer[check]) {
-                    for (int findMatch = 0; findMatch 
-                            < getSequenceLength(); ++findMatch) {
-                        if (answer[check] == tempGuess[findMatch]) {
-                            clue[currentTry][clueNum][CLUE_METADATA_TYPE] = 
-                                CLUE_POSIT_INCORRECT;
-                            clue[currentTry][clueNum++][CLUE_METADATA_COLOR] = 
-                                answer[check];
-                            tempGuess[findMatch] = UNSELECTED;
-                            latestTryScore++;
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-
-        shuffleClues(numberOfCorrectPositionClues, clueNum);
-    }
-
-    /**
-     * Randomize the order of the clues (keeping each clue type [e.g. position
-     * correct, position incorrect] together). This is necessary to prevent the
-     * player from using the order of the "position correct" clues to figure out
-     * which clue applies to which position.
-     * 
-     * e.g. if the sequence is yellow, red, yellow, green and the clues are
-     * reported back without randomization, then a try of yellow, green, red,
-     * yellow will report yellow and red diamonds (in that order everytime)
-     * followed by a yellow triangle. The fact that the red diamond follows the
-     * yellow diamond would inform the player that it was the first yellow that
-     * was in the correct position (since it is the only yellow before the red
-     * guess). The randomization prevents the player from finding such a pattern
-     * from try to try.
-     * 
-     * @param numberOfCorrectPositionClues
-     *            The number of clues indicating a correct color and position
-     * @param numClues
-     *            The total number of clues
-     */
-    private void shuffleClues(final int numberOfCorrectPositionClues,
-            final int numClues) {
-        List<Integer> temp;
-
-        // Shuffle the correct position clues
-        if (numberOfCorrectPositionClues > 1) {
-            temp = new ArrayList<Integer>();
-            for (int index = 0; index < numberOfCorrectPositionClues; ++index) {
-                temp.add(clue[currentTry][index][CLUE_METADATA_COLOR]);
-            }
-            Collections.shuffle(temp);
-            for (int index = 0; index < numberOfCorrectPositionClues; ++index) {
-                clue[currentTry][index][CLUE_METADATA_COLOR] = temp.get(index);
-            }
-        }
-
-        // Shuffle the incorrect position clues
-        if (numClues - numberOfCorrectPositionClues > 1) {
-            temp = new ArrayList<Integer>();
-            for (int index = numberOfCorrectPositionClues; index 
-                    < numClues; ++index) {
-                temp.add(clue[currentTry][index][CLUE_METADATA_COLOR]);
-            }
-            Collections.shuffle(temp);
-            for (int index = 0; index < temp.size(); ++index) {
-                clue[currentTry][index + numberOfCorrectPositionClues]
-                                 [CLUE_METADATA_COLOR] = temp
-                        .get(index);
-            }
-        }
+        return game.submitGuess();
     }
 
     /**
@@ -639,18 +346,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return Color index values for the correct sequence
      */
     public final String getAnswerValue() {
-        String answerValue;
-
-        answerValue = "";
-
-        for (int posit = 0; posit < getSequenceLength(); ++posit) {
-            if (answerValue.length() > 0) {
-                answerValue += ",";
-            }
-            answerValue += answer[posit];
-        }
-
-        return answerValue;
+        return game.getAnswerValue();
     }
 
     /**
@@ -664,40 +360,20 @@ public class SequenceHuntGameModel implements Serializable {
     public final String getAnswerText(final Context context) {
         String answerText;
         String colorName;
+        int colorIndex;
 
         answerText = "";
 
         for (int posit = 0; posit < getSequenceLength(); ++posit) {
-            switch (answer[posit]) {
-                case COLOR_BLACK:
-                    colorName = context.getResources().getString(
-                            R.string.color_black);
-                    break;
-                case COLOR_BLUE:
-                    colorName = context.getResources().getString(
-                            R.string.color_blue);
-                    break;
-                case COLOR_GREEN:
-                    colorName = context.getResources().getString(
-                            R.string.color_green);
-                    break;
-                case COLOR_RED:
-                    colorName = context.getResources().getString(
-                            R.string.color_red);
-                    break;
-                case COLOR_WHITE:
-                    colorName = context.getResources().getString(
-                            R.string.color_white);
-                    break;
-                case COLOR_YELLOW:
-                    colorName = context.getResources().getString(
-                            R.string.color_yellow);
-                    break;
-                default:
-                    colorName = context.getResources().getString(
-                            R.string.color_unknown)
-                            + " (" + answer[posit] + ")";
-                    break;
+            colorIndex = game.getAnswerColor(posit) 
+                    - SequenceHuntGame.FIRST_COLOR;
+            if (colorIndex < COLOR_NAMES.length) {
+                colorName = context.getResources().getString(
+                        COLOR_NAMES[colorIndex]);
+            } else {
+                colorName = context.getResources().getString(
+                        R.string.color_unknown)
+                        + " (" + game.getAnswerColor(posit) + ")";
             }
             if (answerText.length() > 0) {
                 answerText += ", ";
@@ -714,8 +390,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The length of the sequence
      */
     public final int getSequenceLength() {
-        // Log.d(className, "getSequenceLength returning: " + sequenceLength);
-        return sequenceLength;
+        return game.getSequenceLength();
     }
 
     /**
@@ -729,7 +404,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True of there is a guessed color in the position
      */
     public final boolean hasTryColor(final int row, final int tryNum) {
-        return guess[row][tryNum] != UNSELECTED;
+        return game.hasTryColor(row, tryNum);
     }
 
     /**
@@ -743,8 +418,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return True if the position has a correct color in the wrong place
      */
     public final boolean hasClueIncorrect(final int row, final int clueNum) {
-        return row < currentTry
-                && clue[row][clueNum][CLUE_METADATA_TYPE] == UNSELECTED;
+        return game.hasClueIncorrect(row, clueNum);
     }
 
     /**
@@ -758,9 +432,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The clue type (CLUE_POSIT_* constants)
      */
     public final int getClueMeaning(final int row, final int clueNum) {
-        Log.d("Sequence", "Model getClueMeaning row: " + row + "  clueNum: "
-                + clueNum);
-        return clue[row][clueNum][CLUE_METADATA_TYPE];
+        return game.getClueMeaning(row, clueNum);
     }
 
     /**
@@ -774,33 +446,7 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The color represented by the clue
      */
     public final int getClueColorCode(final int row, final int clueNum) {
-        int color;
-
-        switch (clue[row][clueNum][CLUE_METADATA_COLOR]) {
-            case COLOR_BLACK:
-                color = Color.BLACK;
-                break;
-            case COLOR_BLUE:
-                color = Color.BLUE;
-                break;
-            case COLOR_GREEN:
-                color = Color.GREEN;
-                break;
-            case COLOR_RED:
-                color = Color.RED;
-                break;
-            case COLOR_WHITE:
-                color = Color.WHITE;
-                break;
-            case COLOR_YELLOW:
-                color = Color.YELLOW;
-                break;
-            default:
-                color = Color.GRAY;
-                break;
-        }
-
-        return color;
+        return toDisplayColor(game.getClueColor(row, clueNum));
     }
 
     /**
@@ -814,33 +460,25 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The color guessed at the selected position
      */
     public final int getTryColorCode(final int row, final int tryNum) {
-        int color;
-
-        switch (guess[row][tryNum]) {
-            case COLOR_BLACK:
-                color = Color.BLACK;
-                break;
-            case COLOR_BLUE:
-                color = Color.BLUE;
-                break;
-            case COLOR_GREEN:
-                color = Color.GREEN;
-                break;
-            case COLOR_WHITE:
-                color = Color.WHITE;
-                break;
-            case COLOR_RED:
-                color = Color.RED;
-                break;
-            case COLOR_YELLOW:
-                color = Color.YELLOW;
-                break;
-            default:
-                color = Color.GRAY;
-                break;
-        }
+        return toDisplayColor(game.getTryColor(row, tryNum));
+    }
 
-        return color;
+    /**
+     * Get the rules of the game.
+     * 
+     * @return The game rules
+     */
+    public final GameRules getRules() {
+        return game.getRules();
+    }
+
+    /**
+     * Get the number of colors the sequence is drawn from.
+     * 
+     * @return The number of colors
+     */
+    public final int getNumColors() {
+        return game.getNumColors();
     }
 
     /**
@@ -849,6 +487,34 @@ public class SequenceHuntGameModel implements Serializable {
      * @return The current try number
      */
     public final int getCurrentTry() {
-        return currentTry;
+        return game.getCurrentTry();
+    }
+
+    /**
+     * Get the number of sequences still consistent with the clues.
+     * 
+     * @return The number of sequences, -1 if the game has too many
+     *         sequences to filter them on each try
+     */
+    public final int getNumCandidates() {
+        return game.getNumCandidates();
+    }
+
+    /**
+     * Convert a game color to the Android color used to display it.
+     * 
+     * @param gameColor
+     *            The game color (COLOR_* constants)
+     * 
+     * @return The display color, gray if there is no game color
+     */
+    public static int toDisplayColor(final int gameColor) {
+        int colorIndex = gameColor - SequenceHuntGame.FIRST_COLOR;
+
+        if (colorIndex < 0 || colorIndex >= DISPLAY_COLORS.length) {
+            return Color.GRAY;
+        }
+
+        return DISPLAY_COLORS[colorIndex];
     }
 }
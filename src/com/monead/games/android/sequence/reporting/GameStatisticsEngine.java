@@ -4,8 +4,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-import android.util.Log;
-
+import com.monead.games.android.sequence.log.GameLog;
 import com.monead.games.android.sequence.model.SequenceHuntGameModel;
 
 /**
@@ -136,8 +135,10 @@ public class GameStatisticsEngine implements Serializable {
                 + model.getCurrentTry() + "," + model.getElapsedTime() + ","
                 + model.getAnswerValue() + ",'" + message + "'");
         setStatsAccurate(false);
-        Log.d(className, "Added game: " + gameCount + " gameHistory count="
-                + gameHistory.size());
+        if (GameLog.DEBUG) {
+            GameLog.d(className, "Added game: {} gameHistory count={}",
+                    gameCount, gameHistory.size());
+        }
     }
 
     /**
@@ -181,21 +182,29 @@ public class GameStatisticsEngine implements Serializable {
         String outcome;
         String modeHard;
 
-        Log.d(className, "Calculate statistics with gameHistory length="
-                + gameHistory.size());
+        if (GameLog.DEBUG) {
+            GameLog.d(className,
+                    "Calculate statistics with gameHistory length={}",
+                    gameHistory.size());
+        }
 
         statistics = new GameStatistics();
 
         try {
             for (String record : gameHistory) {
-                Log.d(className, "gameHistory record [" + record + "]");
+                if (GameLog.DEBUG) {
+                    GameLog.d(className, "gameHistory record [{}]", record);
+                }
 
                 // New format ends with a string indicating game result
                 if (record.endsWith("'")) {
                     parsed = record.split(",");
                     numFields = parsed.length;
-                    Log.d(className, "Record was in new format field count="
-                            + numFields);
+                    if (GameLog.DEBUG) {
+                        GameLog.d(className,
+                                "Record was in new format field count={}",
+                                numFields);
+                    }
                     outcome = parsed[numFields - 1].replaceAll("'", "");
                     modeHard = parsed[INDEX_MODE_HARD].replaceAll("'", "");
 
@@ -0,0 +1,44 @@
+package com.monead.games.android.sequence.solver;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Opens the precomputed data shipped with the app (e.g. OpeningBook and
+ * DecisionTree), which on Android are assets.
+ * 
+ * @author David Read
+ *
+ */
+public interface AssetSource {
+    /**
+     * Open an asset for reading from the start.
+     * 
+     * @param name  The asset's name, e.g. OpeningBook.ASSET_NAME
+     * 
+     * @return The asset's content, closed by the caller
+     * 
+     * @throws IOException  If the asset cannot be opened
+     */
+    InputStream open(String name) throws IOException;
+}
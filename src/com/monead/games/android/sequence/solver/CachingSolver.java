@@ -0,0 +1,141 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceCode;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A solver that remembers the decisions of another solver in a
+ * TranspositionCache, so a history it has seen before (up to a relabeling
+ * of the colors, see HistoryKey) is answered without solving again.
+ * 
+ * Decisions are cached with the colors relabeled and mapped back for the
+ * game asking, so a cached suggestion is always an equally good guess,
+ * though it need not be the very guess the solver would have chosen.
+ * Like other solvers this one holds working buffers and is not safe for
+ * concurrent use; the cache itself may be shared.
+ * 
+ * @author David Read
+ *
+ */
+public final class CachingSolver implements Solver {
+    /**
+     * The solver making the decisions.
+     */
+    private final Solver solver;
+
+    /**
+     * The cache of decisions.
+     */
+    private final TranspositionCache cache;
+
+    /**
+     * Whether the solver uses the colors of the clues.
+     */
+    private final boolean clueColors;
+
+    /**
+     * Working buffer: the label of each color in the latest history.
+     */
+    private final int[] colorMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Working buffer: the color of each label in the latest history.
+     */
+    private final int[] labelMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Create a caching solver.
+     * 
+     * @param pSolver  The solver making the decisions
+     * @param pCache  The cache of decisions, which may be shared by solvers
+     *            of the same kind
+     * @param pClueColors  True if the solver uses the colors of the clues as
+     *            well as their counts (e.g. EasyModeSolver)
+     */
+    public CachingSolver(final Solver pSolver,
+            final TranspositionCache pCache, final boolean pClueColors) {
+        solver = pSolver;
+        cache = pCache;
+        clueColors = pClueColors;
+    }
+
+    /**
+     * Determine whether the solver can handle games with a set of rules.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if the wrapped solver can
+     */
+    public boolean supports(final GameRules rules) {
+        return solver.supports(rules);
+    }
+
+    /**
+     * Suggest the next guess, from the cache if the history has been seen.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot) {
+        return suggest(snapshot, SearchLimit.NONE);
+    }
+
+    /**
+     * Suggest the next guess, from the cache if the history has been seen.
+     * A suggestion from a search stopped by the limit is not cached.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot,
+            final SearchLimit limit) {
+        int length = snapshot.getSequenceLength();
+        HistoryKey key = HistoryKey.of(snapshot, clueColors, colorMap);
+        Suggestion decision = cache.get(key);
+
+        if (decision == null) {
+            decision = solver.suggest(snapshot, limit);
+            if (!limit.wasStopped()) {
+                cache.put(key, decision.relabel(length, colorMap));
+            }
+            return decision;
+        }
+
+        HistoryKey.invert(colorMap, snapshot.getRules().getNumColors(),
+                labelMap);
+        return decision.relabel(length, labelMap);
+    }
+
+    /**
+     * Get the cache of decisions, e.g. for its statistics.
+     * 
+     * @return The cache
+     */
+    public TranspositionCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,206 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.CandidateSet;
+import com.monead.games.android.sequence.core.ClueWord;
+import com.monead.games.android.sequence.core.CodeSpace;
+import com.monead.games.android.sequence.core.ColorFeedback;
+import com.monead.games.android.sequence.core.FeedbackTable;
+import com.monead.games.android.sequence.core.GameSnapshot;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The sequences that are still possible answers: those that would have
+ * produced the clues of every submitted try.
+ * 
+ * Candidates are held both as code space indexes and packed sequences, in
+ * index order, so that partition counting can use whichever its scorer
+ * needs without converting. Membership is held in a CandidateSet.
+ * 
+ * @author David Read
+ *
+ */
+public final class Candidates {
+    /**
+     * The code space the candidates are drawn from.
+     */
+    private final CodeSpace space;
+
+    /**
+     * The code space index of each candidate.
+     */
+    final int[] indexes;
+
+    /**
+     * The packed sequence of each candidate.
+     */
+    final long[] codes;
+
+    /**
+     * Membership of each code space index. Never filtered once the
+     * candidates are created.
+     */
+    private final CandidateSet members;
+
+    /**
+     * Create the candidates from the members of a candidate set.
+     * 
+     * @param pMembers  The candidate set, which must not be changed
+     *            afterward
+     */
+    private Candidates(final CandidateSet pMembers) {
+        int candidate = 0;
+
+        space = pMembers.getSpace();
+        members = pMembers;
+        indexes = new int[pMembers.size()];
+        codes = new long[pMembers.size()];
+
+        for (int index = members.nextIndex(0); index >= 0;
+                index = members.nextIndex(index + 1)) {
+            indexes[candidate] = index;
+            codes[candidate++] = space.codeAt(index);
+        }
+    }
+
+    /**
+     * Create the candidates from a candidate set, e.g. one the game keeps.
+     * 
+     * @param set  The candidate set, which is copied
+     * 
+     * @return The candidates
+     */
+    public static Candidates of(final CandidateSet set) {
+        return new Candidates(set.copy());
+    }
+
+    /**
+     * Find the sequences consistent with the clues of a game. The
+     * candidate set published with the snapshot is used if it is for the
+     * same code space, otherwise the space is filtered by each try.
+     * 
+     * @param space  The code space of the game
+     * @param table  The feedback table for the code space, null to score
+     *            without one
+     * @param snapshot  The state of the game
+     * 
+     * @return The candidates
+     */
+    public static Candidates consistentWith(final CodeSpace space,
+            final FeedbackTable table, final GameSnapshot snapshot) {
+        CandidateSet published = snapshot.getCandidates();
+        CandidateSet members;
+
+        if (published != null && published.getSpace().equals(space)) {
+            // Published sets are copies that are never filtered again
+            return new Candidates(published);
+        }
+
+        members = new CandidateSet(space);
+        for (int row = 0; row < snapshot.getCurrentTry(); ++row) {
+            members.filter(snapshot.getTryCode(row),
+                    ClueWord.getFeedback(snapshot.getClueWord(row)), table);
+        }
+
+        return new Candidates(members);
+    }
+
+    /**
+     * Find the sequences consistent with the clue colors of a game, as
+     * easy mode shows them. These are a subset of the sequences consistent
+     * with the clue counts, so the candidate set published with the
+     * snapshot is filtered further if it is for the same code space.
+     * 
+     * @param space  The code space of the game
+     * @param snapshot  The state of the game
+     * 
+     * @return The candidates
+     */
+    public static Candidates consistentWithColors(final CodeSpace space,
+            final GameSnapshot snapshot) {
+        CandidateSet published = snapshot.getCandidates();
+        CandidateSet members;
+
+        if (published != null && published.getSpace().equals(space)) {
+            members = published.copy();
+        } else {
+            members = new CandidateSet(space);
+        }
+
+        for (int row = 0; row < snapshot.getCurrentTry(); ++row) {
+            members.filterColors(snapshot.getTryCode(row),
+                    ColorFeedback.canonical(snapshot.getClueWord(row)));
+        }
+
+        return new Candidates(members);
+    }
+
+    /**
+     * Get the code space the candidates are drawn from.
+     * 
+     * @return The code space
+     */
+    public CodeSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Get the number of candidates.
+     * 
+     * @return The number of candidates
+     */
+    public int size() {
+        return indexes.length;
+    }
+
+    /**
+     * Get the code space index of a candidate.
+     * 
+     * @param candidate  The candidate, from 0 to size() - 1
+     * 
+     * @return The code space index
+     */
+    public int getIndex(final int candidate) {
+        return indexes[candidate];
+    }
+
+    /**
+     * Get the packed sequence of a candidate.
+     * 
+     * @param candidate  The candidate, from 0 to size() - 1
+     * 
+     * @return The packed sequence (see SequenceCode)
+     */
+    public long getCode(final int candidate) {
+        return codes[candidate];
+    }
+
+    /**
+     * Determine whether a sequence is a candidate.
+     * 
+     * @param index  The code space index of the sequence
+     * 
+     * @return True if the sequence matches the clues
+     */
+    public boolean contains(final int index) {
+        return members.contains(index);
+    }
+}
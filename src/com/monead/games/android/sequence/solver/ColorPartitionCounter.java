@@ -0,0 +1,186 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.ColorFeedback;
+import com.monead.games.android.sequence.core.SequenceCode;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Count how a guess would split the candidates by color feedback, the clues
+ * as easy mode shows them (see ColorFeedback).
+ * 
+ * For a given guess, color feedback comes down to the number of exact (e)
+ * and color-only (m) matches of each color in the guess, where e + m is at
+ * most the color's count (g) in the guess. Each color's (e, m) pair is
+ * numbered from 0 to (g + 1)(g + 2) / 2 - 1 and the pairs are combined in
+ * mixed radix, so feedback values are dense: at most 81 for the standard
+ * game. The counts are kept in a buffer owned by the counter and reused for
+ * every guess, so counting allocates nothing once the buffer is large
+ * enough. A counter is not safe for concurrent use.
+ * 
+ * @author David Read
+ *
+ */
+public final class ColorPartitionCounter implements PartitionHistogram {
+    /**
+     * Initial size of the count buffer, enough for the standard game.
+     */
+    private static final int INITIAL_NUM_FEEDBACKS = 81;
+
+    /**
+     * The candidates being split.
+     */
+    private final Candidates candidates;
+
+    /**
+     * The color histogram of each candidate (see SequenceCode.histogram()).
+     */
+    private final long[] histograms;
+
+    /**
+     * The length of the sequences.
+     */
+    private final int sequenceLength;
+
+    /**
+     * The color indexes used by the latest guess.
+     */
+    private final int[] guessColors = new int[SequenceCode.MAX_PEGS];
+
+    /**
+     * The number of times each color in guessColors is used by the guess.
+     */
+    private final int[] guessCounts = new int[SequenceCode.MAX_PEGS];
+
+    /**
+     * The mixed radix weight of each color in guessColors.
+     */
+    private final int[] radixes = new int[SequenceCode.MAX_PEGS];
+
+    /**
+     * The number of candidates giving each feedback value.
+     */
+    private int[] counts = new int[INITIAL_NUM_FEEDBACKS];
+
+    /**
+     * The number of feedback values the latest guess can give.
+     */
+    private int numFeedbacks;
+
+    /**
+     * Create a counter.
+     * 
+     * @param pCandidates  The candidates being split
+     */
+    public ColorPartitionCounter(final Candidates pCandidates) {
+        candidates = pCandidates;
+        sequenceLength = pCandidates.getSpace().getSequenceLength();
+        histograms = new long[pCandidates.size()];
+
+        for (int candidate = 0; candidate < histograms.length; ++candidate) {
+            histograms[candidate] = SequenceCode.histogram(
+                    pCandidates.codes[candidate], sequenceLength);
+        }
+    }
+
+    /**
+     * Count the candidates giving each color feedback value for a guess.
+     * 
+     * @param guessCode  The packed guess (see SequenceCode)
+     * @param guessIndex  The code space index of the guess, unused
+     * 
+     * @return The counts, indexed by feedback value up to
+     *         getNumFeedbacks(). The buffer is reused by the next call.
+     */
+    public int[] count(final long guessCode, final int guessIndex) {
+        long[] codes = candidates.codes;
+        int numGuessColors = setupGuess(guessCode);
+        long exactHistogram;
+        int feedback;
+        int guessCount;
+        int exact;
+
+        for (int candidate = 0; candidate < codes.length; ++candidate) {
+            exactHistogram = ColorFeedback.exactHistogram(guessCode,
+                    codes[candidate], sequenceLength);
+            feedback = 0;
+            for (int color = 0; color < numGuessColors; ++color) {
+                guessCount = guessCounts[color];
+                exact = SequenceCode.getCount(exactHistogram,
+                        guessColors[color]);
+                // Pairs numbered row by row of e, each row holding
+                // m = 0 to g - e
+                feedback += radixes[color]
+                        * (exact * (guessCount + 1) - exact * (exact - 1)
+                                / 2 + Math.min(guessCount, SequenceCode
+                                .getCount(histograms[candidate],
+                                        guessColors[color])) - exact);
+            }
+            ++counts[feedback];
+        }
+
+        return counts;
+    }
+
+    /**
+     * Get the number of color feedback values the latest guess can give.
+     * 
+     * @return The number of counts in use
+     */
+    public int getNumFeedbacks() {
+        return numFeedbacks;
+    }
+
+    /**
+     * Find the colors of a guess and their radixes, and clear the counts.
+     * 
+     * @param guessCode  The packed guess (see SequenceCode)
+     * 
+     * @return The number of colors the guess uses
+     */
+    private int setupGuess(final long guessCode) {
+        long remaining = SequenceCode.histogram(guessCode, sequenceLength);
+        int numGuessColors = 0;
+        int guessCount;
+
+        numFeedbacks = 1;
+        for (int colorIndex = 0; remaining != 0; ++colorIndex) {
+            guessCount = SequenceCode.getCount(remaining, 0);
+            if (guessCount > 0) {
+                guessColors[numGuessColors] = colorIndex;
+                guessCounts[numGuessColors] = guessCount;
+                radixes[numGuessColors++] = numFeedbacks;
+                numFeedbacks *= (guessCount + 1) * (guessCount + 2) / 2;
+            }
+            remaining >>>= SequenceCode.BITS_PER_PEG;
+        }
+
+        if (counts.length < numFeedbacks) {
+            counts = new int[numFeedbacks];
+        } else {
+            for (int feedback = 0; feedback < numFeedbacks; ++feedback) {
+                counts[feedback] = 0;
+            }
+        }
+
+        return numGuessColors;
+    }
+}
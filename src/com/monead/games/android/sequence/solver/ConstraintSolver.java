@@ -0,0 +1,734 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.ClueWord;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.RandomSource;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SplitMixRandom;
+import com.monead.games.android.sequence.core.SwarScorer;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A solver that finds the sequences consistent with the clues by
+ * constraint propagation and backtracking, without enumerating the code
+ * space. Its memory use depends only on the sequence length and the number
+ * of trys, so it handles any rules, e.g. expert games on phones with
+ * little memory.
+ * 
+ * Each position has a domain, the colors it may still hold, and each color
+ * has bounds on how many times it may appear. Each try constrains the
+ * number of positions matching it exactly and the number of colors it
+ * shares with the answer. The search assigns the position with the
+ * smallest domain, then propagates until nothing changes:
+ * <ul>
+ * <li>once a try has all its exact matches, its colors are removed from
+ * the open positions where they would match it; once it needs every
+ * possible exact match, those positions are set to its colors</li>
+ * <li>a try's shared colors must stay between those of the assigned
+ * positions and those the open positions could still add</li>
+ * <li>a color at its upper bound is removed from the open domains, and
+ * the open positions must be able to bring every color to its lower
+ * bound</li>
+ * </ul>
+ * Complete sequences are checked against every try before being accepted.
+ * 
+ * A suggestion collects the first consistent sequences found, starting
+ * each position at a random color so that they are spread over the
+ * candidates, and chooses the one that best splits the others (see
+ * SampleMinimax). count() counts every consistent sequence instead. A
+ * solver is not safe for concurrent use.
+ * 
+ * In very large spaces finding a first consistent sequence can take
+ * seconds. A solver may be given a node budget for that and a fallback
+ * solver, e.g. a GeneticSolver, that suggests a guess with the time left
+ * if the budget or the limit runs out first.
+ * 
+ * @author David Read
+ *
+ */
+public final class ConstraintSolver implements Solver {
+    /**
+     * The default number of consistent sequences to choose a guess from.
+     */
+    public static final int DEFAULT_MAX_SOLUTIONS = 64;
+
+    /**
+     * The default number of search nodes allowed to find a first consistent
+     * sequence before handing over to the fallback solver.
+     */
+    public static final long DEFAULT_MAX_NODES = 1L << 16;
+
+    /**
+     * The number of search nodes between checks of the limit.
+     */
+    private static final int NODES_PER_LIMIT_CHECK = 1024;
+
+    /**
+     * The source of the random starting colors.
+     */
+    private final RandomSource random;
+
+    /**
+     * The number of consistent sequences to choose a guess from.
+     */
+    private final int maxSolutions;
+
+    /**
+     * The number of search nodes allowed to find a first consistent
+     * sequence, 0 for no limit.
+     */
+    private final long maxNodes;
+
+    /**
+     * The solver asked if no consistent sequence is found within the node
+     * budget or the search limit, null to fail instead.
+     */
+    private final Solver fallback;
+
+    /**
+     * Create a solver with the default limits.
+     */
+    public ConstraintSolver() {
+        this(new SplitMixRandom(), DEFAULT_MAX_SOLUTIONS);
+    }
+
+    /**
+     * Create a solver with the default limits that hands over to another
+     * solver if it cannot find a consistent sequence in time.
+     * 
+     * @param pFallback  The solver to ask instead
+     */
+    public ConstraintSolver(final Solver pFallback) {
+        this(new SplitMixRandom(), DEFAULT_MAX_SOLUTIONS, DEFAULT_MAX_NODES,
+                pFallback);
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pRandom  The source of the random starting colors
+     * @param pMaxSolutions  The number of consistent sequences to choose a
+     *            guess from
+     */
+    public ConstraintSolver(final RandomSource pRandom,
+            final int pMaxSolutions) {
+        this(pRandom, pMaxSolutions, 0, null);
+    }
+
+    /**
+     * Create a solver with a fallback.
+     * 
+     * @param pRandom  The source of the random starting colors
+     * @param pMaxSolutions  The number of consistent sequences to choose a
+     *            guess from
+     * @param pMaxNodes  The number of search nodes allowed to find a first
+     *            consistent sequence, 0 for no limit
+     * @param pFallback  The solver asked if no consistent sequence is found
+     *            in time, null to fail instead
+     */
+    public ConstraintSolver(final RandomSource pRandom,
+            final int pMaxSolutions, final long pMaxNodes,
+            final Solver pFallback) {
+        random = pRandom;
+        maxSolutions = pMaxSolutions;
+        maxNodes = pMaxNodes;
+        fallback = pFallback;
+    }
+
+    /**
+     * Determine whether the solver can handle games with a set of rules.
+     * Its memory use does not depend on the code space, so it handles any.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True
+     */
+    public boolean supports(final GameRules rules) {
+        return true;
+    }
+
+    /**
+     * Suggest the next guess, based on the submitted trys and their clues.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot) {
+        return suggest(snapshot, SearchLimit.NONE);
+    }
+
+    /**
+     * Suggest the next guess, collecting fewer consistent sequences if the
+     * limit is reached. If it is reached, or the node budget runs out,
+     * before any is found the fallback solver suggests the guess.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess, with the worst case and number of
+     *         candidates of the consistent sequences collected
+     */
+    public Suggestion suggest(final GameSnapshot snapshot,
+            final SearchLimit limit) {
+        Search search = new Search(snapshot, maxSolutions, maxNodes, limit);
+
+        search.start(random);
+        if (search.numFound == 0) {
+            if (!search.stopped) {
+                throw new IllegalStateException(
+                        "No sequence matches the clues");
+            }
+            if (fallback == null) {
+                throw new IllegalStateException(
+                        "No sequence found within the search limit");
+            }
+            return fallback.suggest(snapshot, limit);
+        }
+
+        return SampleMinimax.choose(search.solutions,
+                (int) search.numFound, snapshot.getSequenceLength());
+    }
+
+    /**
+     * Count the sequences consistent with the clues, without enumerating
+     * the code space.
+     * 
+     * @param snapshot  The state of the game
+     * @param limit  The deadline and cancellation flag for the count; if it
+     *            is reached the count is of the sequences found so far
+     * 
+     * @return The number of consistent sequences
+     */
+    public long count(final GameSnapshot snapshot, final SearchLimit limit) {
+        Search search = new Search(snapshot, 0, 0, limit);
+
+        search.start(null);
+        return search.numFound;
+    }
+
+    /**
+     * The constraints of a game and the backtracking search over them.
+     */
+    private static final class Search {
+        /**
+         * The length of the sequences.
+         */
+        private final int sequenceLength;
+
+        /**
+         * The number of colors.
+         */
+        private final int numColors;
+
+        /**
+         * The packed trys (see SequenceCode).
+         */
+        private final long[] tryCodes;
+
+        /**
+         * The feedback value each try got.
+         */
+        private final int[] feedbacks;
+
+        /**
+         * The exact matches each try got.
+         */
+        private final int[] exacts;
+
+        /**
+         * The colors each try shares with the answer, i.e. its exact plus
+         * color-only matches.
+         */
+        private final int[] shared;
+
+        /**
+         * The number of times each try uses each color.
+         */
+        private final int[][] tryCounts;
+
+        /**
+         * The fewest times each color may appear.
+         */
+        private final int[] minCounts;
+
+        /**
+         * The most times each color may appear.
+         */
+        private final int[] maxCounts;
+
+        /**
+         * The domains at each depth of the search, one bit per color.
+         */
+        private final int[][] domains;
+
+        /**
+         * The first color tried at each position.
+         */
+        private final int[] startColors;
+
+        /**
+         * The positions assigned so far, one bit per position.
+         */
+        private int assigned;
+
+        /**
+         * The number of times each color is assigned.
+         */
+        private final int[] counts;
+
+        /**
+         * The exact matches of the assigned positions with each try.
+         */
+        private final int[] assignedExacts;
+
+        /**
+         * The consistent sequences collected, empty when counting.
+         */
+        private final long[] solutions;
+
+        /**
+         * The number of consistent sequences found.
+         */
+        private long numFound;
+
+        /**
+         * The deadline and cancellation flag.
+         */
+        private final SearchLimit limit;
+
+        /**
+         * Whether the search is counting, so must not stop at the first
+         * solutions.
+         */
+        private final boolean counting;
+
+        /**
+         * The number of search nodes visited.
+         */
+        private long numNodes;
+
+        /**
+         * The number of search nodes allowed to find a first consistent
+         * sequence, 0 for no limit.
+         */
+        private final long maxNodes;
+
+        /**
+         * Whether the search ended early, because of the limit or the node
+         * budget.
+         */
+        private boolean stopped;
+
+        /**
+         * Set up the constraints of a game.
+         * 
+         * @param snapshot  The state of the game
+         * @param maxSolutions  The number of consistent sequences to
+         *            collect, 0 to count them all
+         * @param pMaxNodes  The number of search nodes allowed to find a
+         *            first consistent sequence, 0 for no limit
+         * @param pLimit  The deadline and cancellation flag
+         */
+        Search(final GameSnapshot snapshot, final int maxSolutions,
+                final long pMaxNodes, final SearchLimit pLimit) {
+            GameRules rules = snapshot.getRules();
+            int numTrys = snapshot.getCurrentTry();
+            long word;
+
+            sequenceLength = rules.getSequenceLength();
+            numColors = rules.getNumColors();
+            limit = pLimit;
+            maxNodes = pMaxNodes;
+            counting = maxSolutions == 0;
+            solutions = new long[maxSolutions];
+            tryCodes = new long[numTrys];
+            feedbacks = new int[numTrys];
+            exacts = new int[numTrys];
+            shared = new int[numTrys];
+            tryCounts = new int[numTrys][numColors];
+            assignedExacts = new int[numTrys];
+            counts = new int[numColors];
+            minCounts = new int[numColors];
+            maxCounts = new int[numColors];
+            domains = new int[sequenceLength + 1][sequenceLength];
+            startColors = new int[sequenceLength];
+
+            for (int row = 0; row < numTrys; ++row) {
+                tryCodes[row] = snapshot.getTryCode(row);
+                word = snapshot.getClueWord(row);
+                feedbacks[row] = ClueWord.getFeedback(word);
+                exacts[row] = ClueWord.getExact(word);
+                shared[row] = exacts[row] + ClueWord.getColorOnly(word);
+                for (int posit = 0; posit < sequenceLength; ++posit) {
+                    ++tryCounts[row][SequenceCode.getColorIndex(
+                            tryCodes[row], posit)];
+                }
+            }
+
+            for (int colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+                maxCounts[colorIndex] = rules.isUniqueColors() ? 1
+                        : sequenceLength;
+                for (int row = 0; row < numTrys; ++row) {
+                    bound(colorIndex, row);
+                }
+            }
+
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                domains[0][posit] = (1 << numColors) - 1;
+            }
+        }
+
+        /**
+         * Narrow a color's count bounds by a try's shared colors, which
+         * sum, over the colors, the lesser of the answer's and the try's
+         * counts.
+         * 
+         * @param colorIndex  The color
+         * @param row  The try
+         */
+        private void bound(final int colorIndex, final int row) {
+            int tryCount = tryCounts[row][colorIndex];
+
+            if (tryCount == 0) {
+                maxCounts[colorIndex] = Math.min(maxCounts[colorIndex],
+                        sequenceLength - shared[row]);
+            } else if (tryCount > shared[row]) {
+                maxCounts[colorIndex] = Math.min(maxCounts[colorIndex],
+                        shared[row]);
+            }
+
+            // The other colors share at most the rest of the try
+            minCounts[colorIndex] = Math.max(minCounts[colorIndex],
+                    Math.min(tryCount, shared[row] - sequenceLength
+                            + tryCount));
+        }
+
+        /**
+         * Run the search.
+         * 
+         * @param source  The source of the random starting colors, null to
+         *            start every position at the first color
+         */
+        void start(final RandomSource source) {
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                startColors[posit] = source == null ? 0 : source
+                        .nextInt(numColors);
+            }
+
+            if (propagate(domains[0])) {
+                search(0, 0);
+            }
+        }
+
+        /**
+         * Assign the open position with the smallest domain each way its
+         * domain allows, and search on from each consistent assignment.
+         * 
+         * @param depth  The number of positions assigned
+         * @param code  The packed assigned colors
+         * 
+         * @return True if the search should end
+         */
+        private boolean search(final int depth, final long code) {
+            int[] domain = domains[depth];
+            int[] next;
+            int posit = -1;
+            int colorIndex;
+            boolean stop = false;
+
+            if (depth == sequenceLength) {
+                return accept(code);
+            }
+
+            if (++numNodes % NODES_PER_LIMIT_CHECK == 0
+                    && (limit.shouldStop() || (numFound == 0
+                            && maxNodes > 0 && numNodes >= maxNodes))) {
+                stopped = true;
+                return true;
+            }
+
+            for (int open = 0; open < sequenceLength; ++open) {
+                if ((assigned & (1 << open)) == 0
+                        && (posit < 0 || Integer.bitCount(domain[open])
+                                < Integer.bitCount(domain[posit]))) {
+                    posit = open;
+                }
+            }
+
+            for (int step = 0; step < numColors && !stop; ++step) {
+                colorIndex = (startColors[posit] + step) % numColors;
+                if ((domain[posit] & (1 << colorIndex)) == 0) {
+                    continue;
+                }
+
+                next = domains[depth + 1];
+                System.arraycopy(domain, 0, next, 0, sequenceLength);
+                next[posit] = 1 << colorIndex;
+                assign(posit, colorIndex, 1);
+                if (propagate(next)) {
+                    stop = search(depth + 1, SequenceCode.setColorIndex(
+                            code, posit, colorIndex));
+                }
+                assign(posit, colorIndex, -1);
+            }
+
+            return stop;
+        }
+
+        /**
+         * Assign a color to a position, or undo the assignment.
+         * 
+         * @param posit  The position
+         * @param colorIndex  The color
+         * @param change  1 to assign, -1 to undo
+         */
+        private void assign(final int posit, final int colorIndex,
+                final int change) {
+            assigned ^= 1 << posit;
+            counts[colorIndex] += change;
+            for (int row = 0; row < tryCodes.length; ++row) {
+                if (SequenceCode.getColorIndex(tryCodes[row], posit)
+                        == colorIndex) {
+                    assignedExacts[row] += change;
+                }
+            }
+        }
+
+        /**
+         * Check a complete sequence against every try, and record it if it
+         * is consistent.
+         * 
+         * @param code  The packed sequence
+         * 
+         * @return True if enough consistent sequences have been collected
+         */
+        private boolean accept(final long code) {
+            for (int row = 0; row < tryCodes.length; ++row) {
+                if (SwarScorer.score(tryCodes[row], code, sequenceLength)
+                        != feedbacks[row]) {
+                    return false;
+                }
+            }
+
+            if (!counting) {
+                solutions[(int) numFound] = code;
+            }
+
+            return ++numFound == solutions.length && !counting;
+        }
+
+        /**
+         * Narrow the domains of the open positions until the constraints
+         * change nothing more.
+         * 
+         * @param domain  The domains, narrowed in place
+         * 
+         * @return False if the constraints cannot be met
+         */
+        private boolean propagate(final int[] domain) {
+            boolean changed = true;
+
+            while (changed) {
+                changed = false;
+                for (int row = 0; row < tryCodes.length; ++row) {
+                    switch (propagateExacts(domain, row)) {
+                        case -1:
+                            return false;
+                        case 1:
+                            changed = true;
+                            break;
+                        default:
+                            break;
+                    }
+
+                    if (!isSharedPossible(domain, row)) {
+                        return false;
+                    }
+                }
+
+                switch (propagateCounts(domain)) {
+                    case -1:
+                        return false;
+                    case 1:
+                        changed = true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Apply a try's exact matches to the open positions.
+         * 
+         * @param domain  The domains, narrowed in place
+         * @param row  The try
+         * 
+         * @return -1 if the exact matches cannot be met, 1 if a domain was
+         *         narrowed, 0 otherwise
+         */
+        private int propagateExacts(final int[] domain, final int row) {
+            int possible = 0;
+            int result = 0;
+            int tryBit;
+
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                if ((assigned & (1 << posit)) == 0
+                        && (domain[posit] & tryBit(row, posit)) != 0) {
+                    ++possible;
+                }
+            }
+
+            if (assignedExacts[row] > exacts[row]
+                    || assignedExacts[row] + possible < exacts[row]) {
+                return -1;
+            }
+
+            if (possible == 0
+                    || (assignedExacts[row] != exacts[row]
+                    && assignedExacts[row] + possible != exacts[row])) {
+                return 0;
+            }
+
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                tryBit = tryBit(row, posit);
+                if ((assigned & (1 << posit)) != 0
+                        || (domain[posit] & tryBit) == 0) {
+                    continue;
+                }
+
+                if (assignedExacts[row] == exacts[row]) {
+                    domain[posit] &= ~tryBit;
+                    if (domain[posit] == 0) {
+                        return -1;
+                    }
+                    result = 1;
+                } else if (domain[posit] != tryBit) {
+                    domain[posit] = tryBit;
+                    result = 1;
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Determine whether the open positions can still give a try the
+         * number of colors it shares with the answer.
+         * 
+         * @param domain  The domains
+         * @param row  The try
+         * 
+         * @return True if the shared colors are within reach
+         */
+        private boolean isSharedPossible(final int[] domain, final int row) {
+            int numOpen = sequenceLength - Integer.bitCount(assigned);
+            int least = 0;
+            int most = 0;
+            int available;
+
+            for (int colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+                available = 0;
+                for (int posit = 0; posit < sequenceLength; ++posit) {
+                    if ((assigned & (1 << posit)) == 0
+                            && (domain[posit] & (1 << colorIndex)) != 0) {
+                        ++available;
+                    }
+                }
+
+                least += Math.min(counts[colorIndex],
+                        tryCounts[row][colorIndex]);
+                most += Math.min(counts[colorIndex] + available,
+                        tryCounts[row][colorIndex]);
+            }
+
+            return least <= shared[row]
+                    && shared[row] <= Math.min(most, least + numOpen);
+        }
+
+        /**
+         * Apply the color count bounds to the open positions.
+         * 
+         * @param domain  The domains, narrowed in place
+         * 
+         * @return -1 if the bounds cannot be met, 1 if a domain was
+         *         narrowed, 0 otherwise
+         */
+        private int propagateCounts(final int[] domain) {
+            int numOpen = sequenceLength - Integer.bitCount(assigned);
+            int needed = 0;
+            int result = 0;
+            int available;
+            int colorBit;
+
+            for (int colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+                colorBit = 1 << colorIndex;
+                available = 0;
+                for (int posit = 0; posit < sequenceLength; ++posit) {
+                    if ((assigned & (1 << posit)) == 0
+                            && (domain[posit] & colorBit) != 0) {
+                        ++available;
+                    }
+                }
+
+                if (counts[colorIndex] > maxCounts[colorIndex]
+                        || counts[colorIndex] + available
+                                < minCounts[colorIndex]) {
+                    return -1;
+                }
+                needed += Math.max(0, minCounts[colorIndex]
+                        - counts[colorIndex]);
+
+                if (counts[colorIndex] == maxCounts[colorIndex]
+                        && available > 0) {
+                    for (int posit = 0; posit < sequenceLength; ++posit) {
+                        if ((assigned & (1 << posit)) == 0) {
+                            domain[posit] &= ~colorBit;
+                            if (domain[posit] == 0) {
+                                return -1;
+                            }
+                        }
+                    }
+                    result = 1;
+                }
+            }
+
+            return needed > numOpen ? -1 : result;
+        }
+
+        /**
+         * Get the bit of a try's color at a position.
+         * 
+         * @param row  The try
+         * @param posit  The position
+         * 
+         * @return The color's bit in a domain
+         */
+        private int tryBit(final int row, final int posit) {
+            return 1 << SequenceCode.getColorIndex(tryCodes[row], posit);
+        }
+    }
+}
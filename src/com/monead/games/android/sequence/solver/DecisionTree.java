@@ -0,0 +1,406 @@
+package com.monead.games.android.sequence.solver;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceCode;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A complete strategy for the standard game (4 positions, 6 colors), held
+ * as a tree of guesses: each node is the guess to make, with a child for
+ * each clue it can receive other than a win. The strategy shipped is the
+ * one needing the fewest guesses on average, computed offline by the
+ * OptimalStrategyGenerator tool, and serves both as the hard mode hint and
+ * as a reference for grading play.
+ * 
+ * The tree is array encoded, one entry per node in breadth first order.
+ * Each node has a 64 bit mask of the clues it has children for, bit
+ * exact * (length + 1) + colorOnly, and the index of its first child; the
+ * child for a clue is found in constant time by counting the mask bits
+ * below the clue's bit.
+ * 
+ * Guesses are held with the colors labeled in order of first use in the
+ * history leading to the node and the guess itself (see HistoryKey), so a
+ * game whose trys are a relabeling of a path through the tree follows that
+ * path too.
+ * 
+ * The file is big endian (see DataInput): MAGIC, VERSION, the sequence
+ * length, the number of colors and the number of nodes, then each node
+ * array in turn: guesses (int), candidates (int), total guesses (int),
+ * whether the guess is a candidate (boolean), child masks (long) and first
+ * children (int).
+ * 
+ * @author David Read
+ *
+ */
+public final class DecisionTree {
+    /**
+     * The name of the tree in the app's assets.
+     */
+    public static final String ASSET_NAME = "book/optimal_4x6.bin";
+
+    /**
+     * The sequence length the shipped tree is for.
+     */
+    public static final int SEQUENCE_LENGTH = 4;
+
+    /**
+     * The first int of a tree file ("SHDT").
+     */
+    static final int MAGIC = 0x53484454;
+
+    /**
+     * The version of the file format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The root node.
+     */
+    public static final int ROOT = 0;
+
+    /**
+     * Mask of a guess read as an int.
+     */
+    private static final long GUESS_MASK = 0xFFFFFFFFL;
+
+    /**
+     * The length of the sequences.
+     */
+    private final int sequenceLength;
+
+    /**
+     * The number of colors.
+     */
+    private final int numColors;
+
+    /**
+     * The guess of each node, in the node's color labels.
+     */
+    private final int[] guesses;
+
+    /**
+     * The number of sequences still possible at each node.
+     */
+    private final int[] numCandidates;
+
+    /**
+     * The guesses needed, from each node on, to solve every sequence still
+     * possible there.
+     */
+    private final int[] totalGuesses;
+
+    /**
+     * Whether each node's guess is one of its candidates.
+     */
+    private final boolean[] candidates;
+
+    /**
+     * The clues each node has children for.
+     */
+    private final long[] childMasks;
+
+    /**
+     * The index of each node's first child.
+     */
+    private final int[] firstChildren;
+
+    /**
+     * Create a tree from its arrays, which become owned by the tree.
+     * 
+     * @param pSequenceLength  The length of the sequences
+     * @param pNumColors  The number of colors
+     * @param pGuesses  The guess of each node, in its color labels
+     * @param pNumCandidates  The number of candidates at each node
+     * @param pTotalGuesses  The guesses needed from each node on
+     * @param pCandidates  Whether each node's guess is a candidate
+     * @param pChildMasks  The clues each node has children for
+     * @param pFirstChildren  The index of each node's first child
+     */
+    DecisionTree(final int pSequenceLength, final int pNumColors,
+            final int[] pGuesses, final int[] pNumCandidates,
+            final int[] pTotalGuesses, final boolean[] pCandidates,
+            final long[] pChildMasks, final int[] pFirstChildren) {
+        sequenceLength = pSequenceLength;
+        numColors = pNumColors;
+        guesses = pGuesses;
+        numCandidates = pNumCandidates;
+        totalGuesses = pTotalGuesses;
+        candidates = pCandidates;
+        childMasks = pChildMasks;
+        firstChildren = pFirstChildren;
+    }
+
+    /**
+     * Read a tree.
+     * 
+     * @param in  The tree's content
+     * 
+     * @return The tree
+     * 
+     * @throws IOException  If the tree cannot be read
+     */
+    public static DecisionTree read(final DataInput in) throws IOException {
+        int sequenceLength;
+        int numColors;
+        int numNodes;
+        int[] guesses;
+        int[] numCandidates;
+        int[] totalGuesses;
+        boolean[] candidates;
+        long[] childMasks;
+        int[] firstChildren;
+
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION
+                    + " decision tree");
+        }
+
+        sequenceLength = in.readInt();
+        numColors = in.readInt();
+        numNodes = in.readInt();
+        guesses = new int[numNodes];
+        numCandidates = new int[numNodes];
+        totalGuesses = new int[numNodes];
+        candidates = new boolean[numNodes];
+        childMasks = new long[numNodes];
+        firstChildren = new int[numNodes];
+
+        for (int node = 0; node < numNodes; ++node) {
+            guesses[node] = in.readInt();
+        }
+        for (int node = 0; node < numNodes; ++node) {
+            numCandidates[node] = in.readInt();
+        }
+        for (int node = 0; node < numNodes; ++node) {
+            totalGuesses[node] = in.readInt();
+        }
+        for (int node = 0; node < numNodes; ++node) {
+            candidates[node] = in.readBoolean();
+        }
+        for (int node = 0; node < numNodes; ++node) {
+            childMasks[node] = in.readLong();
+        }
+        for (int node = 0; node < numNodes; ++node) {
+            firstChildren[node] = in.readInt();
+        }
+
+        return new DecisionTree(sequenceLength, numColors, guesses,
+                numCandidates, totalGuesses, candidates, childMasks,
+                firstChildren);
+    }
+
+    /**
+     * Write the tree.
+     * 
+     * @param out  Receives the tree's content
+     * 
+     * @throws IOException  If the tree cannot be written
+     */
+    void write(final DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sequenceLength);
+        out.writeInt(numColors);
+        out.writeInt(guesses.length);
+
+        for (int guess : guesses) {
+            out.writeInt(guess);
+        }
+        for (int count : numCandidates) {
+            out.writeInt(count);
+        }
+        for (int total : totalGuesses) {
+            out.writeInt(total);
+        }
+        for (boolean candidate : candidates) {
+            out.writeBoolean(candidate);
+        }
+        for (long mask : childMasks) {
+            out.writeLong(mask);
+        }
+        for (int first : firstChildren) {
+            out.writeInt(first);
+        }
+    }
+
+    /**
+     * Get the bit of a clue in a child mask.
+     * 
+     * @param length  The length of the sequences
+     * @param feedback  The feedback value (see SequenceCode.getExact() and
+     *            SequenceCode.getColorOnly())
+     * 
+     * @return The bit number
+     */
+    static int childBit(final int length, final int feedback) {
+        return SequenceCode.getExact(feedback) * (length + 1)
+                + SequenceCode.getColorOnly(feedback);
+    }
+
+    /**
+     * Determine whether the tree is a strategy for a set of rules.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if the tree covers games with the rules
+     */
+    public boolean supports(final GameRules rules) {
+        return rules.getSequenceLength() == sequenceLength
+                && rules.getNumColors() == numColors
+                && !rules.isUniqueColors();
+    }
+
+    /**
+     * Get the number of nodes.
+     * 
+     * @return The number of nodes
+     */
+    public int size() {
+        return guesses.length;
+    }
+
+    /**
+     * Get the child of a node for a clue.
+     * 
+     * @param node  The node
+     * @param feedback  The feedback value its guess received
+     * 
+     * @return The child, -1 if the clue is a win or cannot occur
+     */
+    public int getChild(final int node, final int feedback) {
+        long mask = childMasks[node];
+        int bit = childBit(sequenceLength, feedback);
+
+        if (bit >= Long.SIZE || (mask & (1L << bit)) == 0) {
+            return -1;
+        }
+
+        return firstChildren[node] + Long.bitCount(mask & ((1L << bit) - 1));
+    }
+
+    /**
+     * Find the node for a game's try history, following the tree through
+     * the trys as relabeled by HistoryKey.
+     * 
+     * @param snapshot  The state of the game, with supported rules
+     * @param colorMap  Filled with the label given to each color index
+     * 
+     * @return The node, -1 if the trys left the tree
+     */
+    public int find(final GameSnapshot snapshot, final int[] colorMap) {
+        long[] words = HistoryKey.of(snapshot, false, colorMap).getWords();
+        int node = ROOT;
+
+        for (int row = 0; row < snapshot.getCurrentTry() && node >= 0;
+                ++row) {
+            if (words[1 + 2 * row] != getGuess(node)) {
+                return -1;
+            }
+            node = getChild(node, (int) words[2 + 2 * row]);
+        }
+
+        return node;
+    }
+
+    /**
+     * Get the guess of a node.
+     * 
+     * @param node  The node
+     * 
+     * @return The packed guess (see SequenceCode), in the node's color
+     *         labels
+     */
+    public long getGuess(final int node) {
+        return guesses[node] & GUESS_MASK;
+    }
+
+    /**
+     * Get the number of sequences still possible at a node.
+     * 
+     * @param node  The node
+     * 
+     * @return The number of candidates
+     */
+    public int getNumCandidates(final int node) {
+        return numCandidates[node];
+    }
+
+    /**
+     * Determine whether a node's guess is one of its candidates.
+     * 
+     * @param node  The node
+     * 
+     * @return True if the guess may win
+     */
+    public boolean isCandidate(final int node) {
+        return candidates[node];
+    }
+
+    /**
+     * Get the most sequences that can remain after a node's guess.
+     * 
+     * @param node  The node
+     * 
+     * @return The number of candidates of the largest child, 1 if the only
+     *         other outcome is a win
+     */
+    public int getWorstCase(final int node) {
+        int worstCase = candidates[node] ? 1 : 0;
+        int numChildren = Long.bitCount(childMasks[node]);
+
+        for (int child = 0; child < numChildren; ++child) {
+            worstCase = Math.max(worstCase,
+                    numCandidates[firstChildren[node] + child]);
+        }
+
+        return worstCase;
+    }
+
+    /**
+     * Get the average number of guesses the strategy needs from a node on,
+     * e.g. to grade a player's position against it.
+     * 
+     * @param node  The node
+     * 
+     * @return The expected number of further guesses, counting the node's
+     */
+    public double getExpectedGuesses(final int node) {
+        return (double) totalGuesses[node] / numCandidates[node];
+    }
+
+    /**
+     * Get the total guesses the strategy needs from a node on to solve
+     * every sequence still possible there.
+     * 
+     * @param node  The node
+     * 
+     * @return The total guesses
+     */
+    public int getTotalGuesses(final int node) {
+        return totalGuesses[node];
+    }
+}
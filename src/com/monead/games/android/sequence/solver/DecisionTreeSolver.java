@@ -0,0 +1,174 @@
+package com.monead.games.android.sequence.solver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.log.GameLog;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A solver that follows the optimal strategy of a DecisionTree while the
+ * game stays on it, and leaves other games, and games whose trys leave the
+ * tree, to another solver. Each move is a constant time step down the
+ * tree. The tree is read from the assets the first time it is needed; if
+ * it cannot be read, the other solver is used throughout.
+ * 
+ * @author David Read
+ *
+ */
+public final class DecisionTreeSolver implements Solver {
+    /**
+     * The name of this class, for logging.
+     */
+    private String className = this.getClass().getName();
+
+    /**
+     * The solver for games off the tree.
+     */
+    private final Solver solver;
+
+    /**
+     * Opens the tree's asset.
+     */
+    private final AssetSource source;
+
+    /**
+     * The tree, null until read or if it cannot be read.
+     */
+    private DecisionTree tree;
+
+    /**
+     * Whether reading the tree has been attempted.
+     */
+    private boolean treeRead;
+
+    /**
+     * Working buffer: the label of each color in the latest history.
+     */
+    private final int[] colorMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Working buffer: the color of each label in the latest history.
+     */
+    private final int[] labelMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Create a decision tree solver.
+     * 
+     * @param pSolver  The solver for games off the tree
+     * @param pSource  Opens the tree's asset (DecisionTree.ASSET_NAME)
+     */
+    public DecisionTreeSolver(final Solver pSolver,
+            final AssetSource pSource) {
+        solver = pSolver;
+        source = pSource;
+    }
+
+    /**
+     * Determine whether the solver can handle games with a set of rules.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if the solver for games off the tree can
+     */
+    public boolean supports(final GameRules rules) {
+        return solver.supports(rules);
+    }
+
+    /**
+     * Suggest the next guess, from the tree if the game is on it.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot) {
+        return suggest(snapshot, SearchLimit.NONE);
+    }
+
+    /**
+     * Suggest the next guess, from the tree if the game is on it.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for a search off the
+     *            tree
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot,
+            final SearchLimit limit) {
+        DecisionTree strategy = getTree();
+        int node;
+
+        if (strategy != null && strategy.supports(snapshot.getRules())) {
+            node = strategy.find(snapshot, colorMap);
+            if (node >= 0) {
+                HistoryKey.invert(colorMap, snapshot.getRules()
+                        .getNumColors(), labelMap);
+                return new Suggestion(HistoryKey.relabel(strategy
+                        .getGuess(node), snapshot.getSequenceLength(),
+                        labelMap), strategy.getWorstCase(node), strategy
+                        .getNumCandidates(node), strategy.isCandidate(node));
+            }
+        }
+
+        return solver.suggest(snapshot, limit);
+    }
+
+    /**
+     * Get the tree, reading it the first time.
+     * 
+     * @return The tree, null if it cannot be read
+     */
+    public synchronized DecisionTree getTree() {
+        DataInputStream in = null;
+
+        if (!treeRead) {
+            treeRead = true;
+            try {
+                in = new DataInputStream(new BufferedInputStream(source
+                        .open(DecisionTree.ASSET_NAME)));
+                tree = DecisionTree.read(in);
+            }
+            catch (Throwable throwable) {
+                GameLog.w(className, "Cannot read the decision tree",
+                        throwable);
+            }
+            finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    }
+                    catch (Throwable throwable) {
+                        GameLog.w(className,
+                                "Cannot close the decision tree", throwable);
+                    }
+                }
+            }
+        }
+
+        return tree;
+    }
+}
@@ -0,0 +1,86 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.CodeSpace;
+import com.monead.games.android.sequence.core.FeedbackTable;
+import com.monead.games.android.sequence.core.GameSnapshot;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * An entropy solver for easy mode, where each clue is drawn in the color it
+ * matched. It uses the colors as well as the counts of the clues: the
+ * candidates are the sequences that would have given the same clue colors
+ * (see ColorFeedback), and guesses are judged by how they split the
+ * candidates by color feedback. This finds the answer in fewer guesses
+ * than a solver that sees only the counts.
+ * 
+ * @author David Read
+ *
+ */
+public class EasyModeSolver extends EntropySolver {
+    /**
+     * Create a solver with the default limits, suitable for a phone.
+     */
+    public EasyModeSolver() {
+        super();
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pMaxCodes  The largest code space the solver will work in
+     * @param pMaxEvaluations  The most guess and candidate pairs to score for
+     *            one suggestion
+     */
+    public EasyModeSolver(final int pMaxCodes, final long pMaxEvaluations) {
+        super(pMaxCodes, pMaxEvaluations);
+    }
+
+    /**
+     * Find the sequences consistent with the clue colors.
+     * 
+     * @param space  The code space of the game
+     * @param table  The feedback table for the code space, unused
+     * @param snapshot  The state of the game
+     * 
+     * @return The candidates
+     */
+    @Override
+    protected Candidates findCandidates(final CodeSpace space,
+            final FeedbackTable table, final GameSnapshot snapshot) {
+        return Candidates.consistentWithColors(space, snapshot);
+    }
+
+    /**
+     * Create the counter used to split the candidates by the color feedback
+     * of a guess.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, unused
+     * 
+     * @return A counter of the color feedback
+     */
+    @Override
+    PartitionHistogram createHistogram(final Candidates candidates,
+            final FeedbackTable table) {
+        return new ColorPartitionCounter(candidates);
+    }
+}
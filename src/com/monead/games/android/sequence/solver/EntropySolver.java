@@ -0,0 +1,174 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.FeedbackTable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * An entropy solver: suggest the guess whose partition of the candidates
+ * carries the most information, so that on average the fewest sequences
+ * remain after its clues. Ties go to a guess that is itself a candidate (it
+ * may win), then to the guess searched first.
+ * 
+ * The entropy of a partition of N candidates into parts of n(i) is
+ * log2(N) - sum(n(i) log2 n(i)) / N, so the guess with the smallest sum of
+ * n log2 n is the best. The n log2 n values are looked up in a table made
+ * once per suggestion, in fixed point so that sums are exact and ties are
+ * found reliably. Evaluating a guess allocates nothing.
+ * 
+ * Guesses are chosen within the evaluation budget (see Guesses). Unlike
+ * minimax, a guess cannot be dropped early, so every guess is scored
+ * against every candidate.
+ * 
+ * @author David Read
+ *
+ */
+public class EntropySolver extends PartitionSolver {
+    /**
+     * The default largest code space, 6 positions of 6 colors fit.
+     */
+    public static final int DEFAULT_MAX_CODES = 1 << 16;
+
+    /**
+     * The default evaluation budget, enough for the whole standard code
+     * space against every candidate (1296 x 1296).
+     */
+    public static final long DEFAULT_MAX_EVALUATIONS = 2000000L;
+
+    /**
+     * The fixed point scale of the n log2 n table, 20 fraction bits.
+     */
+    private static final double WEIGHT_SCALE = 1 << 20;
+
+    /**
+     * Create a solver with the default limits, suitable for a phone.
+     */
+    public EntropySolver() {
+        this(DEFAULT_MAX_CODES, DEFAULT_MAX_EVALUATIONS);
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pMaxCodes  The largest code space the solver will work in
+     * @param pMaxEvaluations  The most guess and candidate pairs to score for
+     *            one suggestion
+     */
+    public EntropySolver(final int pMaxCodes, final long pMaxEvaluations) {
+        super(pMaxCodes, pMaxEvaluations);
+    }
+
+    /**
+     * Choose the guess with the greatest entropy.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * @param guesses  The guesses to choose from
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    @Override
+    protected Suggestion choose(final Candidates candidates,
+            final FeedbackTable table, final Guesses guesses,
+            final SearchLimit limit) {
+        PartitionHistogram counter = createHistogram(candidates, table);
+        long[] weights = createWeights(candidates.size());
+        long bestGuess = 0;
+        long bestWeight = Long.MAX_VALUE;
+        int bestWorstCase = 0;
+        boolean bestIsCandidate = false;
+        int[] counts;
+        int index;
+        long guess;
+        boolean candidate;
+        long weight;
+        int worstCase;
+        int count;
+
+        for (int order = 0; order < guesses.size(); ++order) {
+            if (order > 0 && limit.shouldStop()) {
+                break;
+            }
+
+            index = guesses.getIndex(order);
+            guess = guesses.getCode(order);
+
+            counts = counter.count(guess, index);
+            weight = 0;
+            worstCase = 0;
+            for (int feedback = 0; feedback < counter.getNumFeedbacks();
+                    ++feedback) {
+                count = counts[feedback];
+                weight += weights[count];
+                if (count > worstCase) {
+                    worstCase = count;
+                }
+            }
+
+            candidate = candidates.contains(index);
+            if (weight < bestWeight
+                    || (weight == bestWeight && candidate
+                            && !bestIsCandidate)) {
+                bestGuess = guess;
+                bestWeight = weight;
+                bestWorstCase = worstCase;
+                bestIsCandidate = candidate;
+            }
+        }
+
+        return new Suggestion(bestGuess, bestWorstCase, candidates.size(),
+                bestIsCandidate);
+    }
+
+    /**
+     * Create the counter used to split the candidates by the feedback of a
+     * guess.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * 
+     * @return A counter of the exact and color-only feedback
+     */
+    PartitionHistogram createHistogram(final Candidates candidates,
+            final FeedbackTable table) {
+        return new PartitionCounter(candidates, table);
+    }
+
+    /**
+     * Create the table of n log2 n in fixed point.
+     * 
+     * @param numCandidates  The largest n needed
+     * 
+     * @return The table, indexed by n
+     */
+    static long[] createWeights(final int numCandidates) {
+        long[] weights = new long[numCandidates + 1];
+        double scale = WEIGHT_SCALE / Math.log(2);
+
+        // 0 log 0 and 1 log 1 are both 0
+        for (int n = 2; n <= numCandidates; ++n) {
+            weights[n] = Math.round(n * Math.log(n) * scale);
+        }
+
+        return weights;
+    }
+}
@@ -0,0 +1,721 @@
+package com.monead.games.android.sequence.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.monead.games.android.sequence.core.ClueWord;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.RandomSource;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SplitMixRandom;
+import com.monead.games.android.sequence.core.SwarScorer;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A genetic algorithm solver for code spaces too large to enumerate (e.g.
+ * 8 or more positions of 10 or more colors). Instead of filtering every
+ * sequence, it evolves a population of sequences toward consistency with
+ * the try history, so its memory use depends only on the population size.
+ * 
+ * The fitness of a sequence is how far the clues it would have given the
+ * trys are from the clues they got: the sum, over the trys, of the
+ * differences in exact and color-only matches. A fitness of 0 means the
+ * sequence could be the answer (it is eligible). Each generation breeds a
+ * new population by tournament selection, one or two point crossover and
+ * occasional mutation, permutation and inversion, keeping the fittest
+ * sequence of the last generation. Eligible sequences are collected until
+ * there are enough of them, or the generations run out; the one guess
+ * chosen is the eligible sequence that best splits the others (see
+ * SampleMinimax). If none is found, the population is restarted, and once
+ * the search must end the fittest sequence is suggested instead.
+ * 
+ * Breeding and scoring the new population are split across workers, each
+ * with its own random source, writing its own range of the offspring. The
+ * population buffers and workers are reused for every generation of a
+ * suggestion. A solver is not safe for concurrent use.
+ * 
+ * @author David Read
+ *
+ */
+public final class GeneticSolver implements Solver {
+    /**
+     * The default number of sequences in the population.
+     */
+    public static final int DEFAULT_POPULATION_SIZE = 150;
+
+    /**
+     * The default number of generations to search before suggesting a
+     * guess, or restarting if no eligible sequence has been found.
+     */
+    public static final int DEFAULT_MAX_GENERATIONS = 100;
+
+    /**
+     * The default number of eligible sequences to collect.
+     */
+    public static final int DEFAULT_MAX_ELIGIBLE = 60;
+
+    /**
+     * The most times the population is restarted for one suggestion.
+     */
+    private static final int MAX_RESTARTS = 50;
+
+    /**
+     * The number of sequences competing to be a parent.
+     */
+    private static final int TOURNAMENT_SIZE = 3;
+
+    /**
+     * The chance, in percent, of a child having a position's color changed.
+     */
+    private static final int MUTATION_PERCENT = 3;
+
+    /**
+     * The chance, in percent, of a child having two positions swapped.
+     */
+    private static final int PERMUTATION_PERCENT = 3;
+
+    /**
+     * The chance, in percent, of a child having positions reversed.
+     */
+    private static final int INVERSION_PERCENT = 2;
+
+    /**
+     * The chance, in percent, of a crossover using one point instead of two.
+     */
+    private static final int ONE_POINT_PERCENT = 50;
+
+    /**
+     * Percent, i.e. the bound for percentage chances.
+     */
+    private static final int PERCENT = 100;
+
+    /**
+     * The executor shared by solvers created with the defaults, null until
+     * needed or if there is only one processor.
+     */
+    private static ExecutorService sharedExecutor;
+
+    /**
+     * Runs the workers, null to run them on the calling thread.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The number of workers each generation is split across.
+     */
+    private final int numWorkers;
+
+    /**
+     * The source of the random choices.
+     */
+    private final RandomSource random;
+
+    /**
+     * The number of sequences in the population.
+     */
+    private final int populationSize;
+
+    /**
+     * The number of generations to search before suggesting a guess.
+     */
+    private final int maxGenerations;
+
+    /**
+     * The number of eligible sequences to collect.
+     */
+    private final int maxEligible;
+
+    /**
+     * Create a solver with the default limits, with a worker for each
+     * processor, using an executor shared by such solvers.
+     */
+    public GeneticSolver() {
+        this(getSharedExecutor(), Runtime.getRuntime().availableProcessors(),
+                new SplitMixRandom(), DEFAULT_POPULATION_SIZE,
+                DEFAULT_MAX_GENERATIONS, DEFAULT_MAX_ELIGIBLE);
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pExecutor  Runs the workers, null to run them on the calling
+     *            thread
+     * @param pNumWorkers  The number of workers each generation is split
+     *            across
+     * @param pRandom  The source of the random choices
+     * @param pPopulationSize  The number of sequences in the population
+     * @param pMaxGenerations  The number of generations to search before
+     *            suggesting a guess
+     * @param pMaxEligible  The number of eligible sequences to collect
+     */
+    public GeneticSolver(final ExecutorService pExecutor,
+            final int pNumWorkers, final RandomSource pRandom,
+            final int pPopulationSize, final int pMaxGenerations,
+            final int pMaxEligible) {
+        executor = pExecutor;
+        numWorkers = pNumWorkers;
+        random = pRandom;
+        populationSize = pPopulationSize;
+        maxGenerations = pMaxGenerations;
+        maxEligible = pMaxEligible;
+    }
+
+    /**
+     * Get the executor shared by solvers created with the defaults, a
+     * daemon thread for each processor, creating it the first time.
+     * 
+     * @return The executor, null if there is only one processor, in which
+     *         case the workers run on the calling thread
+     */
+    private static synchronized ExecutorService getSharedExecutor() {
+        int numThreads = Runtime.getRuntime().availableProcessors();
+
+        if (sharedExecutor == null && numThreads > 1) {
+            sharedExecutor = Executors.newFixedThreadPool(numThreads,
+                    new ThreadFactory() {
+                        public Thread newThread(final Runnable runnable) {
+                            Thread thread = new Thread(runnable,
+                                    "GeneticSolver");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+
+        return sharedExecutor;
+    }
+
+    /**
+     * Determine whether the solver can handle games with a set of rules.
+     * Its memory use does not depend on the rules, so it handles any.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True
+     */
+    public boolean supports(final GameRules rules) {
+        return true;
+    }
+
+    /**
+     * Suggest the next guess, based on the submitted trys and their clues.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot) {
+        return suggest(snapshot, SearchLimit.NONE);
+    }
+
+    /**
+     * Suggest the next guess, ending the evolution early if a limit is
+     * reached.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess: an eligible sequence if one was found,
+     *         otherwise the fittest, with a worst case and number of
+     *         candidates of 0
+     */
+    public Suggestion suggest(final GameSnapshot snapshot,
+            final SearchLimit limit) {
+        return new Search(snapshot, limit).run();
+    }
+
+    /**
+     * The evolution for one suggestion.
+     */
+    private final class Search {
+        /**
+         * The length of the sequences.
+         */
+        private final int sequenceLength;
+
+        /**
+         * The number of colors.
+         */
+        private final int numColors;
+
+        /**
+         * Whether a color may appear only once in a sequence.
+         */
+        private final boolean uniqueColors;
+
+        /**
+         * The packed trys (see SequenceCode).
+         */
+        private final long[] tryCodes;
+
+        /**
+         * The exact matches each try got.
+         */
+        private final int[] exacts;
+
+        /**
+         * The color-only matches each try got.
+         */
+        private final int[] colorOnlys;
+
+        /**
+         * The current generation.
+         */
+        private long[] population;
+
+        /**
+         * The fitness of each of the current generation.
+         */
+        private int[] fitness;
+
+        /**
+         * The next generation, bred by the workers.
+         */
+        private long[] offspring;
+
+        /**
+         * The fitness of each of the next generation.
+         */
+        private int[] offspringFitness;
+
+        /**
+         * The workers, each breeding a range of the next generation.
+         */
+        private final List<Breeder> breeders = new ArrayList<Breeder>();
+
+        /**
+         * The deadline and cancellation flag, also checked by the breeders
+         * so that a generation does not overrun the deadline.
+         */
+        private final SearchLimit limit;
+
+        /**
+         * The eligible sequences found.
+         */
+        private final long[] eligible = new long[maxEligible];
+
+        /**
+         * The number of eligible sequences found.
+         */
+        private int numEligible;
+
+        /**
+         * The index of the fittest sequence of the current generation.
+         */
+        private int fittest;
+
+        /**
+         * Set up the evolution for a game.
+         * 
+         * @param snapshot  The state of the game
+         * @param pLimit  The deadline and cancellation flag
+         */
+        Search(final GameSnapshot snapshot, final SearchLimit pLimit) {
+            int numTrys = snapshot.getCurrentTry();
+            int perWorker = (populationSize - 1 + numWorkers - 1)
+                    / numWorkers;
+            int from = 1;
+            long word;
+
+            limit = pLimit;
+            sequenceLength = snapshot.getSequenceLength();
+            numColors = snapshot.getRules().getNumColors();
+            uniqueColors = snapshot.getRules().isUniqueColors();
+            tryCodes = new long[numTrys];
+            exacts = new int[numTrys];
+            colorOnlys = new int[numTrys];
+
+            for (int row = 0; row < numTrys; ++row) {
+                tryCodes[row] = snapshot.getTryCode(row);
+                word = snapshot.getClueWord(row);
+                exacts[row] = ClueWord.getExact(word);
+                colorOnlys[row] = ClueWord.getColorOnly(word);
+            }
+
+            population = new long[populationSize];
+            fitness = new int[populationSize];
+            offspring = new long[populationSize];
+            offspringFitness = new int[populationSize];
+
+            // Slot 0 of each generation holds the fittest of the last
+            while (from < populationSize) {
+                breeders.add(new Breeder(random.split(), from, Math.min(
+                        from + perWorker, populationSize)));
+                from += perWorker;
+            }
+        }
+
+        /**
+         * Evolve the population and choose a guess.
+         * 
+         * @return The suggested guess
+         */
+        Suggestion run() {
+            int generation = 0;
+            int restarts = 0;
+            long[] swapCodes;
+            int[] swapFitness;
+
+            seed();
+            collect();
+            while (numEligible < maxEligible && !limit.shouldStop()) {
+                if (generation == maxGenerations) {
+                    if (numEligible > 0 || ++restarts == MAX_RESTARTS) {
+                        break;
+                    }
+                    generation = 0;
+                    seed();
+                    collect();
+                    continue;
+                }
+
+                offspring[0] = population[fittest];
+                offspringFitness[0] = fitness[fittest];
+                breed();
+                if (limit.shouldStop()) {
+                    // The breeders may have left the generation unfinished
+                    break;
+                }
+
+                swapCodes = population;
+                population = offspring;
+                offspring = swapCodes;
+                swapFitness = fitness;
+                fitness = offspringFitness;
+                offspringFitness = swapFitness;
+
+                collect();
+                ++generation;
+            }
+
+            return choose();
+        }
+
+        /**
+         * Fill the population with random sequences.
+         */
+        private void seed() {
+            for (int member = 0; member < populationSize; ++member) {
+                population[member] = randomCode(random);
+                fitness[member] = fitness(population[member]);
+            }
+        }
+
+        /**
+         * Breed the next generation, with the workers in parallel if there
+         * is an executor.
+         */
+        private void breed() {
+            if (executor == null) {
+                for (Breeder breeder : breeders) {
+                    breeder.call();
+                }
+                return;
+            }
+
+            try {
+                for (Future<Void> result : executor.invokeAll(breeders)) {
+                    result.get();
+                }
+            }
+            catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while breeding",
+                        interrupted);
+            }
+            catch (ExecutionException failed) {
+                throw new IllegalStateException("Breeding failed", failed
+                        .getCause());
+            }
+        }
+
+        /**
+         * Add the population's eligible sequences to those found, and find
+         * its fittest sequence.
+         */
+        private void collect() {
+            fittest = 0;
+            for (int member = 0; member < populationSize; ++member) {
+                if (fitness[member] < fitness[fittest]) {
+                    fittest = member;
+                }
+
+                if (fitness[member] == 0 && numEligible < maxEligible
+                        && !isEligible(population[member])) {
+                    eligible[numEligible++] = population[member];
+                }
+            }
+        }
+
+        /**
+         * Determine whether a sequence has already been found eligible.
+         * 
+         * @param code  The packed sequence
+         * 
+         * @return True if the sequence is among those found
+         */
+        private boolean isEligible(final long code) {
+            for (int found = 0; found < numEligible; ++found) {
+                if (eligible[found] == code) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Choose the eligible sequence that best splits the others (see
+         * SampleMinimax), or the fittest if none was found.
+         * 
+         * @return The suggested guess
+         */
+        private Suggestion choose() {
+            if (numEligible == 0) {
+                return new Suggestion(population[fittest], 0, 0, false);
+            }
+
+            return SampleMinimax.choose(eligible, numEligible,
+                    sequenceLength);
+        }
+
+        /**
+         * Measure how far a sequence is from consistency with the trys.
+         * 
+         * @param code  The packed sequence
+         * 
+         * @return The total difference in exact and color-only matches, 0
+         *         if the sequence could be the answer
+         */
+        private int fitness(final long code) {
+            int distance = 0;
+            int feedback;
+
+            for (int row = 0; row < tryCodes.length; ++row) {
+                feedback = SwarScorer.score(tryCodes[row], code,
+                        sequenceLength);
+                distance += Math.abs(SequenceCode.getExact(feedback)
+                        - exacts[row])
+                        + Math.abs(SequenceCode.getColorOnly(feedback)
+                                - colorOnlys[row]);
+            }
+
+            return distance;
+        }
+
+        /**
+         * Create a random sequence allowed by the rules.
+         * 
+         * @param source  The source of the random choices
+         * 
+         * @return The packed sequence
+         */
+        private long randomCode(final RandomSource source) {
+            long code = 0;
+
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                code = SequenceCode.setColorIndex(code, posit, source
+                        .nextInt(numColors));
+            }
+
+            return repair(code, source);
+        }
+
+        /**
+         * Select a parent: the fittest of a few random members of the
+         * population.
+         * 
+         * @param source  The source of the random choices
+         * 
+         * @return The packed parent
+         */
+        private long select(final RandomSource source) {
+            int winner = source.nextInt(populationSize);
+            int challenger;
+
+            for (int round = 1; round < TOURNAMENT_SIZE; ++round) {
+                challenger = source.nextInt(populationSize);
+                if (fitness[challenger] < fitness[winner]) {
+                    winner = challenger;
+                }
+            }
+
+            return population[winner];
+        }
+
+        /**
+         * Breed a child from two selected parents.
+         * 
+         * @param source  The source of the random choices
+         * 
+         * @return The packed child
+         */
+        private long breedChild(final RandomSource source) {
+            long mother = select(source);
+            long father = select(source);
+            int cut = 1 + source.nextInt(Math.max(1, sequenceLength - 1));
+            long mask = (1L << (cut * SequenceCode.BITS_PER_PEG)) - 1;
+            long child;
+            int posit;
+            int other;
+
+            if (source.nextInt(PERCENT) >= ONE_POINT_PERCENT) {
+                cut = cut + source.nextInt(sequenceLength - cut + 1);
+                mask ^= (1L << (cut * SequenceCode.BITS_PER_PEG)) - 1;
+            }
+            child = (mother & mask) | (father & ~mask);
+
+            if (source.nextInt(PERCENT) < MUTATION_PERCENT) {
+                child = SequenceCode.setColorIndex(child, source
+                        .nextInt(sequenceLength), source.nextInt(numColors));
+            }
+
+            if (source.nextInt(PERCENT) < PERMUTATION_PERCENT) {
+                posit = source.nextInt(sequenceLength);
+                other = source.nextInt(sequenceLength);
+                child = swap(child, posit, other);
+            }
+
+            if (source.nextInt(PERCENT) < INVERSION_PERCENT) {
+                posit = source.nextInt(sequenceLength);
+                other = source.nextInt(sequenceLength);
+                while (posit < other) {
+                    child = swap(child, posit++, other--);
+                }
+            }
+
+            return repair(child, source);
+        }
+
+        /**
+         * Swap the colors of two positions.
+         * 
+         * @param code  The packed sequence
+         * @param posit  One position
+         * @param other  The other position
+         * 
+         * @return The packed sequence with the colors swapped
+         */
+        private long swap(final long code, final int posit,
+                final int other) {
+            int color = SequenceCode.getColorIndex(code, posit);
+
+            return SequenceCode.setColorIndex(SequenceCode.setColorIndex(
+                    code, posit, SequenceCode.getColorIndex(code, other)),
+                    other, color);
+        }
+
+        /**
+         * Replace repeated colors with random unused ones, if the rules
+         * forbid repeats. Each replacement is drawn from the colors not yet
+         * used, so a single draw always succeeds.
+         * 
+         * @param code  The packed sequence
+         * @param source  The source of the random choices
+         * 
+         * @return The packed sequence, allowed by the rules
+         */
+        private long repair(final long code, final RandomSource source) {
+            long repaired = code;
+            int used = 0;
+            int colorIndex;
+            int skip;
+
+            if (!uniqueColors) {
+                return code;
+            }
+
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                colorIndex = SequenceCode.getColorIndex(repaired, posit);
+                if ((used & (1 << colorIndex)) != 0) {
+                    // Take the skip'th of the numColors - posit unused colors
+                    skip = source.nextInt(numColors - posit);
+                    colorIndex = 0;
+                    while ((used & (1 << colorIndex)) != 0 || skip-- > 0) {
+                        ++colorIndex;
+                    }
+                }
+                used |= 1 << colorIndex;
+                repaired = SequenceCode.setColorIndex(repaired, posit,
+                        colorIndex);
+            }
+
+            return repaired;
+        }
+
+        /**
+         * A worker breeding and scoring a range of the next generation.
+         */
+        private final class Breeder implements Callable<Void> {
+            /**
+             * The worker's own source of random choices.
+             */
+            private final RandomSource source;
+
+            /**
+             * The first member of the range.
+             */
+            private final int from;
+
+            /**
+             * The member after the range.
+             */
+            private final int to;
+
+            /**
+             * Create a worker.
+             * 
+             * @param pSource  The worker's own source of random choices
+             * @param pFrom  The first member of the range
+             * @param pTo  The member after the range
+             */
+            Breeder(final RandomSource pSource, final int pFrom,
+                    final int pTo) {
+                source = pSource;
+                from = pFrom;
+                to = pTo;
+            }
+
+            /**
+             * Breed and score the range.
+             * 
+             * @return Nothing
+             */
+            public Void call() {
+                for (int member = from; member < to
+                        && !limit.shouldStop(); ++member) {
+                    offspring[member] = breedChild(source);
+                    offspringFitness[member] = fitness(offspring[member]);
+                }
+
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.CodeSpace;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The guesses a partition solver evaluates for one suggestion, in the
+ * order they are searched, so that ties go to the guess searched first.
+ * 
+ * Every sequence in the code space is a guess, not just the candidates,
+ * while that is within the evaluation budget (guesses times candidates).
+ * Otherwise only candidates are guesses, as many as the budget allows.
+ * Either way only one guess of each set of equivalent guesses is kept (see
+ * SymmetryReducer), which is what lets the whole space be searched early
+ * in games with long sequences.
+ * 
+ * @author David Read
+ *
+ */
+public final class Guesses {
+    /**
+     * The initial capacity of the guess arrays, grown as needed.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The code space index of each guess.
+     */
+    private int[] indexes = new int[INITIAL_CAPACITY];
+
+    /**
+     * The packed sequence of each guess.
+     */
+    private long[] codes = new long[INITIAL_CAPACITY];
+
+    /**
+     * The number of guesses.
+     */
+    private int size;
+
+    /**
+     * Whether the guesses are drawn from the whole code space.
+     */
+    private final boolean wholeSpace;
+
+    /**
+     * Create an empty list of guesses.
+     * 
+     * @param pWholeSpace  Whether the guesses are drawn from the whole space
+     */
+    private Guesses(final boolean pWholeSpace) {
+        wholeSpace = pWholeSpace;
+    }
+
+    /**
+     * Select the guesses to evaluate within an evaluation budget.
+     * 
+     * @param candidates  The candidates
+     * @param symmetry  The symmetries of the game's trys
+     * @param maxEvaluations  The most guess and candidate pairs to score
+     * 
+     * @return The guesses
+     */
+    public static Guesses select(final Candidates candidates,
+            final SymmetryReducer symmetry, final long maxEvaluations) {
+        return select(candidates, symmetry, maxEvaluations, candidates
+                .size());
+    }
+
+    /**
+     * Select the guesses to evaluate within an evaluation budget, when each
+     * guess is scored against only some of the candidates (e.g. a sample).
+     * 
+     * @param candidates  The candidates
+     * @param symmetry  The symmetries of the game's trys
+     * @param maxEvaluations  The most guess and candidate pairs to score
+     * @param numScored  The number of candidates each guess is scored
+     *            against
+     * 
+     * @return The guesses
+     */
+    public static Guesses select(final Candidates candidates,
+            final SymmetryReducer symmetry, final long maxEvaluations,
+            final int numScored) {
+        long limit = maxEvaluations / numScored;
+        Guesses guesses = selectFromSpace(candidates.getSpace(), symmetry,
+                limit);
+
+        if (guesses == null) {
+            guesses = selectFromCandidates(candidates, symmetry,
+                    Math.max(1, limit));
+        }
+
+        return guesses;
+    }
+
+    /**
+     * Select every distinct guess from the whole code space.
+     * 
+     * @param space  The code space
+     * @param symmetry  The symmetries of the game's trys
+     * @param limit  The most guesses allowed
+     * 
+     * @return The guesses, null if there are more than the limit
+     */
+    private static Guesses selectFromSpace(final CodeSpace space,
+            final SymmetryReducer symmetry, final long limit) {
+        Guesses guesses = new Guesses(true);
+        long code;
+
+        for (int index = 0; index < space.size(); ++index) {
+            code = space.codeAt(index);
+            if (symmetry.isCanonical(code)) {
+                if (guesses.size == limit) {
+                    return null;
+                }
+                guesses.add(index, code);
+            }
+        }
+
+        return guesses;
+    }
+
+    /**
+     * Select distinct guesses from the candidates, in candidate order.
+     * 
+     * @param candidates  The candidates
+     * @param symmetry  The symmetries of the game's trys
+     * @param limit  The most guesses allowed
+     * 
+     * @return The guesses
+     */
+    private static Guesses selectFromCandidates(final Candidates candidates,
+            final SymmetryReducer symmetry, final long limit) {
+        Guesses guesses = new Guesses(false);
+
+        for (int candidate = 0; guesses.size < limit
+                && candidate < candidates.size(); ++candidate) {
+            if (symmetry.isCanonical(candidates.getCode(candidate))) {
+                guesses.add(candidates.getIndex(candidate),
+                        candidates.getCode(candidate));
+            }
+        }
+
+        return guesses;
+    }
+
+    /**
+     * Add a guess, growing the arrays if they are full.
+     * 
+     * @param index  The code space index of the guess
+     * @param code  The packed guess
+     */
+    private void add(final int index, final long code) {
+        int[] grownIndexes;
+        long[] grownCodes;
+
+        if (size == indexes.length) {
+            grownIndexes = new int[size * 2];
+            grownCodes = new long[size * 2];
+            System.arraycopy(indexes, 0, grownIndexes, 0, size);
+            System.arraycopy(codes, 0, grownCodes, 0, size);
+            indexes = grownIndexes;
+            codes = grownCodes;
+        }
+
+        indexes[size] = index;
+        codes[size++] = code;
+    }
+
+    /**
+     * Get the number of guesses.
+     * 
+     * @return The number of guesses
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the code space index of a guess.
+     * 
+     * @param order  The guess, from 0 to size() - 1
+     * 
+     * @return The code space index
+     */
+    public int getIndex(final int order) {
+        return indexes[order];
+    }
+
+    /**
+     * Get the packed sequence of a guess.
+     * 
+     * @param order  The guess, from 0 to size() - 1
+     * 
+     * @return The packed sequence (see SequenceCode)
+     */
+    public long getCode(final int order) {
+        return codes[order];
+    }
+
+    /**
+     * Determine whether the guesses are drawn from the whole code space
+     * rather than only the candidates.
+     * 
+     * @return True if every distinct sequence is a guess
+     */
+    public boolean isWholeSpace() {
+        return wholeSpace;
+    }
+}
@@ -0,0 +1,171 @@
+package com.monead.games.android.sequence.solver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SystemTimeSource;
+import com.monead.games.android.sequence.core.TimeSource;
+import com.monead.games.android.sequence.log.GameLog;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Runs solvers in the background so the UI thread never waits on a search.
+ * 
+ * Each request searches within a time budget, after which the solver
+ * suggests the best guess it has evaluated (see SearchLimit). A new request
+ * cancels the one before it, as does cancel(), e.g. when the player submits
+ * a try. Results are delivered to a listener on the runner's thread; a UI
+ * should hand them to its own thread (e.g. View.post()) and check there
+ * that the request was not cancelled meanwhile.
+ * 
+ * Requests run one at a time on a single daemon thread, so the solvers
+ * given to a runner are never used concurrently by it.
+ * 
+ * @author David Read
+ *
+ */
+public final class HintRunner {
+    /**
+     * Receives the results of requests.
+     */
+    public interface Listener {
+        /**
+         * Called, on the runner's thread, when a request's search ends. Not
+         * called for a request cancelled before its search ended.
+         * 
+         * @param hint  The suggested guess, null if the solver failed
+         * @param limit  The request's limit: wasStopped() tells whether the
+         *            time ran out, isCancelled() whether the request has
+         *            been cancelled since
+         */
+        void hintFound(Suggestion hint, SearchLimit limit);
+    }
+
+    /**
+     * The name of this class, for logging.
+     */
+    private String className = this.getClass().getName();
+
+    /**
+     * Runs the searches.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The source of the time for the budgets.
+     */
+    private final TimeSource timeSource;
+
+    /**
+     * The limit of the latest request, null if none is pending.
+     */
+    private SearchLimit pending;
+
+    /**
+     * Create a runner with its own background thread.
+     */
+    public HintRunner() {
+        this(Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "HintRunner");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), SystemTimeSource.getInstance());
+    }
+
+    /**
+     * Create a runner.
+     * 
+     * @param pExecutor  Runs the searches; must run them one at a time if
+     *            the solvers are to be reused between requests
+     * @param pTimeSource  The source of the time for the budgets
+     */
+    public HintRunner(final ExecutorService pExecutor,
+            final TimeSource pTimeSource) {
+        executor = pExecutor;
+        timeSource = pTimeSource;
+    }
+
+    /**
+     * Request a suggestion, cancelling any pending request.
+     * 
+     * @param solver  The solver, which must support the game's rules
+     * @param snapshot  The state of the game, which must not be over
+     * @param budgetMillis  The time the search may take, in milliseconds,
+     *            counted from now
+     * @param listener  Receives the result
+     * 
+     * @return The request's limit, which can be used to cancel it
+     */
+    public synchronized SearchLimit request(final Solver solver,
+            final GameSnapshot snapshot, final long budgetMillis,
+            final Listener listener) {
+        final SearchLimit limit = new SearchLimit(timeSource, budgetMillis);
+
+        cancel();
+        pending = limit;
+        executor.execute(new Runnable() {
+            public void run() {
+                Suggestion hint = null;
+
+                if (limit.isCancelled()) {
+                    return;
+                }
+
+                try {
+                    hint = solver.suggest(snapshot, limit);
+                }
+                catch (Throwable throwable) {
+                    GameLog.w(className, "Hint search failed", throwable);
+                }
+
+                if (!limit.isCancelled()) {
+                    listener.hintFound(hint, limit);
+                }
+            }
+        });
+
+        return limit;
+    }
+
+    /**
+     * Cancel the pending request, if any.
+     */
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancel the pending request and stop the background thread. The
+     * runner cannot be used afterward.
+     */
+    public synchronized void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,292 @@
+package com.monead.games.android.sequence.solver;
+
+import java.util.Arrays;
+
+import com.monead.games.android.sequence.core.ClueWord;
+import com.monead.games.android.sequence.core.ColorFeedback;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceCode;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A key identifying a game's try history up to a relabeling of the colors,
+ * for caching solver decisions (see TranspositionCache).
+ * 
+ * Colors are relabeled in the order they first appear in the trys (row by
+ * row, position by position), with colors not yet used following in
+ * ascending order. Histories that differ only by which colors were used
+ * then have the same key, and a guess chosen for one can be mapped to the
+ * other through the relabeling. The key holds the relabeled trys and their
+ * clues, so equal keys always mean equivalent histories; a 64 bit hash of
+ * them is kept for fast lookup.
+ * 
+ * @author David Read
+ *
+ */
+public final class HistoryKey {
+    /**
+     * Shift of the number of colors in the rules word.
+     */
+    private static final int COLORS_SHIFT = 8;
+
+    /**
+     * Flag in the rules word for games without repeated colors.
+     */
+    private static final long UNIQUE_COLORS_FLAG = 1L << 16;
+
+    /**
+     * Flag in the rules word for keys that include the clue colors.
+     */
+    private static final long CLUE_COLORS_FLAG = 1L << 17;
+
+    /**
+     * Odd multiplier used to combine the words into the hash.
+     */
+    private static final long HASH_MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The rules, then each relabeled try followed by its clues.
+     */
+    private final long[] words;
+
+    /**
+     * The hash of the words.
+     */
+    private final long hash;
+
+    /**
+     * Create a key.
+     * 
+     * @param pWords  The words of the key, owned by the key
+     */
+    private HistoryKey(final long[] pWords) {
+        long mixed = 0;
+
+        words = pWords;
+        for (long word : words) {
+            mixed = mix64((mixed + word) * HASH_MULTIPLIER);
+        }
+        hash = mixed;
+    }
+
+    /**
+     * Create the key for the submitted trys of a game.
+     * 
+     * @param snapshot  The state of the game
+     * @param clueColors  True to key on the colors of the clues as well as
+     *            their counts, for solvers that use them (e.g.
+     *            EasyModeSolver)
+     * @param colorMap  Filled with the label given to each color index; at
+     *            least as long as the number of colors
+     * 
+     * @return The key
+     */
+    public static HistoryKey of(final GameSnapshot snapshot,
+            final boolean clueColors, final int[] colorMap) {
+        GameRules rules = snapshot.getRules();
+        int numTrys = snapshot.getCurrentTry();
+        int length = rules.getSequenceLength();
+        long[] words = new long[1 + 2 * numTrys];
+        long word;
+
+        fillColorMap(snapshot, colorMap);
+
+        words[0] = length | (rules.getNumColors() << COLORS_SHIFT)
+                | (rules.isUniqueColors() ? UNIQUE_COLORS_FLAG : 0)
+                | (clueColors ? CLUE_COLORS_FLAG : 0);
+
+        for (int row = 0; row < numTrys; ++row) {
+            words[1 + 2 * row] = relabel(snapshot.getTryCode(row), length,
+                    colorMap);
+            word = snapshot.getClueWord(row);
+            if (clueColors) {
+                words[2 + 2 * row] = ColorFeedback.canonical(relabelClues(
+                        word, colorMap));
+            } else {
+                words[2 + 2 * row] = ClueWord.getFeedback(word);
+            }
+        }
+
+        return new HistoryKey(words);
+    }
+
+    /**
+     * Create a key from the words of another key, e.g. one read from the
+     * opening book.
+     * 
+     * @param words  The words (see getWords()), owned by the key
+     * 
+     * @return The key
+     */
+    static HistoryKey fromWords(final long[] words) {
+        return new HistoryKey(words);
+    }
+
+    /**
+     * Label the colors in order of their first use in the trys, then the
+     * unused colors in ascending order.
+     * 
+     * @param snapshot  The state of the game
+     * @param colorMap  Filled with the label given to each color index
+     */
+    private static void fillColorMap(final GameSnapshot snapshot,
+            final int[] colorMap) {
+        int numColors = snapshot.getRules().getNumColors();
+        int nextLabel = 0;
+        int colorIndex;
+
+        for (colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+            colorMap[colorIndex] = -1;
+        }
+
+        for (int row = 0; row < snapshot.getCurrentTry(); ++row) {
+            for (int posit = 0; posit < snapshot.getSequenceLength();
+                    ++posit) {
+                colorIndex = SequenceCode.getColorIndex(snapshot
+                        .getTryCode(row), posit);
+                if (colorMap[colorIndex] < 0) {
+                    colorMap[colorIndex] = nextLabel++;
+                }
+            }
+        }
+
+        for (colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+            if (colorMap[colorIndex] < 0) {
+                colorMap[colorIndex] = nextLabel++;
+            }
+        }
+    }
+
+    /**
+     * Replace the colors of a sequence through a color map.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * @param length  The length of the sequence
+     * @param colorMap  The new color index for each color index
+     * 
+     * @return The packed relabeled sequence
+     */
+    public static long relabel(final long code, final int length,
+            final int[] colorMap) {
+        long relabeled = 0;
+
+        for (int posit = 0; posit < length; ++posit) {
+            relabeled = SequenceCode.setColorIndex(relabeled, posit,
+                    colorMap[SequenceCode.getColorIndex(code, posit)]);
+        }
+
+        return relabeled;
+    }
+
+    /**
+     * Invert a color map, giving the color index for each label.
+     * 
+     * @param colorMap  The label of each color index
+     * @param numColors  The number of colors
+     * @param labelMap  Filled with the color index of each label
+     */
+    static void invert(final int[] colorMap, final int numColors,
+            final int[] labelMap) {
+        for (int colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+            labelMap[colorMap[colorIndex]] = colorIndex;
+        }
+    }
+
+    /**
+     * Replace the colors of the clues in a clue word through a color map.
+     * 
+     * @param word  The clue word (see ClueWord)
+     * @param colorMap  The new color index for each color index
+     * 
+     * @return The relabeled clue word
+     */
+    private static long relabelClues(final long word, final int[] colorMap) {
+        int matches = ClueWord.getExact(word) + ClueWord.getColorOnly(word);
+        long relabeled = word;
+
+        for (int slot = 0; slot < matches; ++slot) {
+            relabeled = ClueWord.setColorIndex(relabeled, slot,
+                    colorMap[ClueWord.getColorIndex(word, slot)]);
+        }
+
+        return relabeled;
+    }
+
+    /**
+     * Get the words of the key: the rules, then each relabeled try followed
+     * by its clues. The array is owned by the key and must not be changed.
+     * 
+     * @return The words
+     */
+    long[] getWords() {
+        return words;
+    }
+
+    /**
+     * Get the 64 bit hash of the key.
+     * 
+     * @return The hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Compare to another key.
+     * 
+     * @param other  The object to compare to
+     * 
+     * @return True if the other object is a key for an equivalent history
+     */
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof HistoryKey
+                && hash == ((HistoryKey) other).hash
+                && Arrays.equals(words, ((HistoryKey) other).words);
+    }
+
+    /**
+     * Get a hash code consistent with equals().
+     * 
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> Integer.SIZE));
+    }
+
+    /**
+     * Mix a value into a 64 bit hash (the SplitMix64 finalizer).
+     * 
+     * @param value  The value
+     * 
+     * @return The mixed value
+     */
+    private static long mix64(final long value) {
+        long mixed = value;
+
+        mixed = (mixed ^ (mixed >>> 30)) * 0xbf58476d1ce4e5b9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94d049bb133111ebL;
+        return mixed ^ (mixed >>> 31);
+    }
+}
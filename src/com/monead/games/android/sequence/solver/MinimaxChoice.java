@@ -0,0 +1,108 @@
+package com.monead.games.android.sequence.solver;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The best guess found by a minimax search over part of the guesses.
+ * 
+ * Choices from separate parts of a search can be merged with isBetterThan(),
+ * giving the same guess as searching all of the guesses in order.
+ * 
+ * @author David Read
+ *
+ */
+final class MinimaxChoice {
+    /**
+     * The guess.
+     */
+    private final long guess;
+
+    /**
+     * The guess's position in the order guesses are searched.
+     */
+    private final int order;
+
+    /**
+     * The guess's largest partition.
+     */
+    private final int worstCase;
+
+    /**
+     * Whether the guess is a candidate.
+     */
+    private final boolean candidate;
+
+    /**
+     * Create a choice.
+     * 
+     * @param pGuess  The guess (packed, see SequenceCode)
+     * @param pOrder  The guess's position in the search order
+     * @param pWorstCase  The guess's largest partition
+     * @param pCandidate  Whether the guess is a candidate
+     */
+    MinimaxChoice(final long pGuess, final int pOrder, final int pWorstCase,
+            final boolean pCandidate) {
+        guess = pGuess;
+        order = pOrder;
+        worstCase = pWorstCase;
+        candidate = pCandidate;
+    }
+
+    /**
+     * Get the largest partition the guess leaves.
+     * 
+     * @return The worst case
+     */
+    int getWorstCase() {
+        return worstCase;
+    }
+
+    /**
+     * Compare to another choice: the smaller worst case is better, then a
+     * candidate, then the guess searched first.
+     * 
+     * @param other  The other choice, may be null
+     * 
+     * @return True if this choice is better than the other
+     */
+    boolean isBetterThan(final MinimaxChoice other) {
+        if (other == null || worstCase != other.worstCase) {
+            return other == null || worstCase < other.worstCase;
+        }
+
+        if (candidate != other.candidate) {
+            return candidate;
+        }
+
+        return order < other.order;
+    }
+
+    /**
+     * Convert to a suggestion.
+     * 
+     * @param numCandidates  The number of candidates
+     * 
+     * @return The suggestion
+     */
+    Suggestion toSuggestion(final int numCandidates) {
+        return new Suggestion(guess, worstCase, numCandidates, candidate);
+    }
+}
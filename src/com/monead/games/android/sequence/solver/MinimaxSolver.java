@@ -0,0 +1,140 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.FeedbackTable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Knuth's minimax solver: suggest the guess whose largest partition of the
+ * candidates is smallest, so the fewest sequences can remain whatever the
+ * clues turn out to be. Ties go to a guess that is itself a candidate (it
+ * may win), then to the guess searched first.
+ * 
+ * Guesses are chosen within the evaluation budget (see Guesses). A guess
+ * is dropped as soon as one of its partitions grows past the best worst
+ * case found so far.
+ * 
+ * The defaults return in well under 100 ms for the standard game (4
+ * positions, 6 colors) on a phone.
+ * 
+ * @author David Read
+ *
+ */
+public class MinimaxSolver extends PartitionSolver {
+    /**
+     * The default largest code space, 6 positions of 6 colors fit.
+     */
+    public static final int DEFAULT_MAX_CODES = 1 << 16;
+
+    /**
+     * The default evaluation budget, enough for the whole standard code
+     * space against every candidate (1296 x 1296).
+     */
+    public static final long DEFAULT_MAX_EVALUATIONS = 2000000L;
+
+    /**
+     * Create a solver with the default limits, suitable for a phone.
+     */
+    public MinimaxSolver() {
+        this(DEFAULT_MAX_CODES, DEFAULT_MAX_EVALUATIONS);
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pMaxCodes  The largest code space the solver will work in
+     * @param pMaxEvaluations  The most guess and candidate pairs to score for
+     *            one suggestion
+     */
+    public MinimaxSolver(final int pMaxCodes, final long pMaxEvaluations) {
+        super(pMaxCodes, pMaxEvaluations);
+    }
+
+    /**
+     * Choose the guess with the smallest worst case.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * @param guesses  The guesses to choose from
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    @Override
+    protected Suggestion choose(final Candidates candidates,
+            final FeedbackTable table, final Guesses guesses,
+            final SearchLimit limit) {
+        return searchGuesses(candidates, table,
+                new PartitionCounter(candidates, table), guesses, 0,
+                guesses.size(), Integer.MAX_VALUE, limit).toSuggestion(
+                candidates.size());
+    }
+
+    /**
+     * Search a range of the guesses for the one with the smallest worst
+     * case.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * @param counter  The partition counter to use
+     * @param guesses  The guesses
+     * @param from  The first guess to search
+     * @param to  The guess after the last one to search
+     * @param bound  A worst case already found elsewhere; guesses with a
+     *            larger worst case are not of interest
+     * @param limit  The deadline and cancellation flag; the search stops
+     *            once it is reached and a guess within the bound is known
+     * 
+     * @return The best guess in the range, null if every guess searched
+     *         exceeded the bound
+     */
+    final MinimaxChoice searchGuesses(final Candidates candidates,
+            final FeedbackTable table, final PartitionCounter counter,
+            final Guesses guesses, final int from, final int to,
+            final int bound, final SearchLimit limit) {
+        MinimaxChoice best = null;
+        MinimaxChoice choice;
+        int bestWorstCase = bound;
+        int index;
+        long guess;
+        int worstCase;
+
+        for (int order = from; order < to; ++order) {
+            if (bestWorstCase < Integer.MAX_VALUE && limit.shouldStop()) {
+                break;
+            }
+
+            index = guesses.getIndex(order);
+            guess = guesses.getCode(order);
+            worstCase = counter.maxPartition(guess, index, bestWorstCase);
+            if (worstCase <= bestWorstCase) {
+                choice = new MinimaxChoice(guess, order, worstCase,
+                        candidates.contains(index));
+                if (choice.isBetterThan(best)) {
+                    best = choice;
+                    bestWorstCase = worstCase;
+                }
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,322 @@
+package com.monead.games.android.sequence.solver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.log.GameLog;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Precomputed hints for the opening of a game: the first guess and, for
+ * each clue the first guess can receive, the second guess. These are the
+ * most expensive hints to compute, and the same in every game with the
+ * same rules.
+ * 
+ * The book is built offline by the OpeningBookGenerator tool and shipped as
+ * the asset ASSET_NAME. It holds a section per set of rules and clue mode,
+ * each a map from HistoryKey to the suggestion, with the guess in the
+ * key's color labels. A section is read the first time a game with its
+ * rules asks, skipping the others, so only what is used is kept in memory.
+ * A missing or unreadable book is logged and treated as empty.
+ * 
+ * The file is big endian (see DataInput): the header (MAGIC, VERSION and the
+ * number of sections), then each section: its rules word (the first word
+ * of its keys), its number of entries and its size in bytes. Each entry is
+ * the number of key words after the rules word (a byte), those words, then
+ * the suggestion: guess (long), worst case (int), number of candidates
+ * (int) and whether the guess is a candidate (boolean).
+ * 
+ * @author David Read
+ *
+ */
+public final class OpeningBook {
+    /**
+     * The name of the book in the app's assets.
+     */
+    public static final String ASSET_NAME = "book/opening.bin";
+
+    /**
+     * The most submitted trys a history in the book has.
+     */
+    public static final int MAX_TRYS = 1;
+
+    /**
+     * The first int of a book file ("SHOB").
+     */
+    static final int MAGIC = 0x53484f42;
+
+    /**
+     * The version of the file format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Bytes of an entry other than its key words.
+     */
+    private static final int ENTRY_FIXED_BYTES = 1 + 8 + 4 + 4 + 1;
+
+    /**
+     * Bytes of a key word.
+     */
+    private static final int WORD_BYTES = 8;
+
+    /**
+     * The name of this class, for logging.
+     */
+    private String className = this.getClass().getName();
+
+    /**
+     * Opens the book's content.
+     */
+    private final AssetSource source;
+
+    /**
+     * The sections read so far, by rules word. A section missing from the
+     * book is held as an empty map.
+     */
+    private final Map<Long, Map<HistoryKey, Suggestion>> sections =
+            new HashMap<Long, Map<HistoryKey, Suggestion>>();
+
+    /**
+     * Working buffer: the label of each color in the latest history.
+     */
+    private final int[] colorMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Working buffer: the color of each label in the latest history.
+     */
+    private final int[] labelMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Create a book. Nothing is read until a hint is looked up.
+     * 
+     * @param pSource  Opens the book's content
+     */
+    public OpeningBook(final AssetSource pSource) {
+        source = pSource;
+    }
+
+    /**
+     * Look up the hint for a game.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param clueColors  True for the hints of a solver using the colors of
+     *            the clues (EasyModeSolver), false for MinimaxSolver
+     * 
+     * @return The suggested guess, null if the book has none for the game
+     */
+    public synchronized Suggestion lookup(final GameSnapshot snapshot,
+            final boolean clueColors) {
+        HistoryKey key;
+        Long rulesWord;
+        Map<HistoryKey, Suggestion> section;
+        Suggestion entry;
+
+        if (snapshot.getCurrentTry() > MAX_TRYS) {
+            return null;
+        }
+
+        key = HistoryKey.of(snapshot, clueColors, colorMap);
+        rulesWord = key.getWords()[0];
+        section = sections.get(rulesWord);
+        if (section == null) {
+            section = readSection(rulesWord);
+            sections.put(rulesWord, section);
+        }
+
+        entry = section.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        HistoryKey.invert(colorMap, snapshot.getRules().getNumColors(),
+                labelMap);
+        return entry.relabel(snapshot.getSequenceLength(), labelMap);
+    }
+
+    /**
+     * Read the section of the book for a rules word.
+     * 
+     * @param rulesWord  The rules word
+     * 
+     * @return The section's entries, empty if the book has no such section
+     *         or cannot be read
+     */
+    private Map<HistoryKey, Suggestion> readSection(final long rulesWord) {
+        Map<HistoryKey, Suggestion> section =
+                new HashMap<HistoryKey, Suggestion>();
+        DataInputStream in = null;
+        int numSections;
+        long sectionRules;
+        int numEntries;
+        int numBytes;
+
+        try {
+            in = new DataInputStream(new BufferedInputStream(source
+                    .open(ASSET_NAME)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION
+                        + " opening book");
+            }
+
+            numSections = in.readInt();
+            for (int sectionNum = 0; sectionNum < numSections; ++sectionNum) {
+                sectionRules = in.readLong();
+                numEntries = in.readInt();
+                numBytes = in.readInt();
+                if (sectionRules == rulesWord) {
+                    for (int entry = 0; entry < numEntries; ++entry) {
+                        readEntry(in, rulesWord, section);
+                    }
+                    break;
+                }
+                skipFully(in, numBytes);
+            }
+        }
+        catch (Throwable throwable) {
+            GameLog.w(className, "Cannot read the opening book", throwable);
+            section.clear();
+        }
+        finally {
+            if (in != null) {
+                try {
+                    in.close();
+                }
+                catch (Throwable throwable) {
+                    GameLog.w(className, "Cannot close the opening book",
+                            throwable);
+                }
+            }
+        }
+
+        return section;
+    }
+
+    /**
+     * Skip over part of the book.
+     * 
+     * @param in  The book
+     * @param numBytes  The number of bytes to skip
+     * 
+     * @throws IOException  If the book ends first
+     */
+    private static void skipFully(final DataInputStream in,
+            final int numBytes) throws IOException {
+        int remaining = numBytes;
+        int skipped;
+
+        while (remaining > 0) {
+            skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                // Nothing skipped; reading a byte either progresses or
+                // throws at the end of the book
+                in.readByte();
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Read an entry of a section.
+     * 
+     * @param in  The book, positioned at the entry
+     * @param rulesWord  The section's rules word
+     * @param section  The section's entries, to which the entry is added
+     * 
+     * @throws IOException  If the entry cannot be read
+     */
+    private static void readEntry(final DataInput in, final long rulesWord,
+            final Map<HistoryKey, Suggestion> section) throws IOException {
+        long[] words = new long[1 + in.readUnsignedByte()];
+
+        words[0] = rulesWord;
+        for (int word = 1; word < words.length; ++word) {
+            words[word] = in.readLong();
+        }
+
+        section.put(HistoryKey.fromWords(words), new Suggestion(in
+                .readLong(), in.readInt(), in.readInt(), in.readBoolean()));
+    }
+
+    /**
+     * Write the header of a book.
+     * 
+     * @param out  The book
+     * @param numSections  The number of sections that will follow
+     * 
+     * @throws IOException  If the header cannot be written
+     */
+    static void writeHeader(final DataOutput out, final int numSections)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(numSections);
+    }
+
+    /**
+     * Write a section of a book. Every key must have the same rules word.
+     * 
+     * @param out  The book, after the header or the previous section
+     * @param entries  The suggestion for each history, with the guess in the
+     *            key's color labels
+     * 
+     * @throws IOException  If the section cannot be written
+     */
+    static void writeSection(final DataOutput out,
+            final Map<HistoryKey, Suggestion> entries) throws IOException {
+        long rulesWord = 0;
+        int numBytes = 0;
+        long[] words;
+        Suggestion suggestion;
+
+        for (HistoryKey key : entries.keySet()) {
+            rulesWord = key.getWords()[0];
+            numBytes += ENTRY_FIXED_BYTES
+                    + (key.getWords().length - 1) * WORD_BYTES;
+        }
+
+        out.writeLong(rulesWord);
+        out.writeInt(entries.size());
+        out.writeInt(numBytes);
+
+        for (Map.Entry<HistoryKey, Suggestion> entry : entries.entrySet()) {
+            words = entry.getKey().getWords();
+            suggestion = entry.getValue();
+            out.writeByte(words.length - 1);
+            for (int word = 1; word < words.length; ++word) {
+                out.writeLong(words[word]);
+            }
+            out.writeLong(suggestion.getGuess());
+            out.writeInt(suggestion.getWorstCase());
+            out.writeInt(suggestion.getNumCandidates());
+            out.writeBoolean(suggestion.isCandidate());
+        }
+    }
+}
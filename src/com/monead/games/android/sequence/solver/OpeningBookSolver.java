@@ -0,0 +1,104 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A solver that answers the opening of a game from an OpeningBook, and
+ * leaves the rest of the game to another solver.
+ * 
+ * @author David Read
+ *
+ */
+public final class OpeningBookSolver implements Solver {
+    /**
+     * The solver for histories not in the book.
+     */
+    private final Solver solver;
+
+    /**
+     * The precomputed opening hints.
+     */
+    private final OpeningBook book;
+
+    /**
+     * Whether the book's hints for a solver using the clue colors are used.
+     */
+    private final boolean clueColors;
+
+    /**
+     * Create an opening book solver.
+     * 
+     * @param pSolver  The solver for histories not in the book
+     * @param pBook  The precomputed opening hints
+     * @param pClueColors  True if the solver uses the colors of the clues
+     *            (EasyModeSolver), false for MinimaxSolver
+     */
+    public OpeningBookSolver(final Solver pSolver, final OpeningBook pBook,
+            final boolean pClueColors) {
+        solver = pSolver;
+        book = pBook;
+        clueColors = pClueColors;
+    }
+
+    /**
+     * Determine whether the solver can handle games with a set of rules.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if the solver for histories not in the book can
+     */
+    public boolean supports(final GameRules rules) {
+        return solver.supports(rules);
+    }
+
+    /**
+     * Suggest the next guess, from the book if the history is in it.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot) {
+        return suggest(snapshot, SearchLimit.NONE);
+    }
+
+    /**
+     * Suggest the next guess, from the book if the history is in it.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    public Suggestion suggest(final GameSnapshot snapshot,
+            final SearchLimit limit) {
+        Suggestion suggestion = book.lookup(snapshot, clueColors);
+
+        if (suggestion == null) {
+            suggestion = solver.suggest(snapshot, limit);
+        }
+
+        return suggestion;
+    }
+}
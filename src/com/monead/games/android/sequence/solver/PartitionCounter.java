@@ -0,0 +1,138 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.FeedbackTable;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SwarScorer;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Count how a guess would split the candidates: the number of candidates
+ * that would give each feedback value.
+ * 
+ * The counts are kept in a buffer owned by the counter and reused for every
+ * guess, so counting allocates nothing. A counter is not safe for
+ * concurrent use.
+ * 
+ * @author David Read
+ *
+ */
+public final class PartitionCounter implements PartitionHistogram {
+    /**
+     * The number of candidates giving each feedback value.
+     */
+    private final int[] counts = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+
+    /**
+     * The candidates being split.
+     */
+    private final Candidates candidates;
+
+    /**
+     * The feedback table for the code space, null to score without one.
+     */
+    private final FeedbackTable table;
+
+    /**
+     * The length of the sequences.
+     */
+    private final int sequenceLength;
+
+    /**
+     * Create a counter.
+     * 
+     * @param pCandidates  The candidates being split
+     * @param pTable  The feedback table for the candidates' code space, null
+     *            to score without one
+     */
+    public PartitionCounter(final Candidates pCandidates,
+            final FeedbackTable pTable) {
+        candidates = pCandidates;
+        table = pTable;
+        sequenceLength = pCandidates.getSpace().getSequenceLength();
+    }
+
+    /**
+     * Count the candidates giving each feedback value for a guess.
+     * 
+     * @param guessCode  The packed guess (see SequenceCode)
+     * @param guessIndex  The code space index of the guess
+     * 
+     * @return The counts, indexed by feedback value. The buffer is reused by
+     *         the next call.
+     */
+    public int[] count(final long guessCode, final int guessIndex) {
+        maxPartition(guessCode, guessIndex, Integer.MAX_VALUE);
+        return counts;
+    }
+
+    /**
+     * Get the number of feedback values counted, every packed exact and
+     * color-only value.
+     * 
+     * @return The number of counts
+     */
+    public int getNumFeedbacks() {
+        return counts.length;
+    }
+
+    /**
+     * Find the size of the largest partition a guess leaves, giving up as
+     * soon as it is known to be larger than a bound.
+     * 
+     * @param guessCode  The packed guess (see SequenceCode)
+     * @param guessIndex  The code space index of the guess
+     * @param bound  The size beyond which the exact result is not needed
+     * 
+     * @return The largest partition size, or a value greater than the bound
+     *         if the largest partition is larger than the bound
+     */
+    public int maxPartition(final long guessCode, final int guessIndex,
+            final int bound) {
+        int[] indexes = candidates.indexes;
+        long[] codes = candidates.codes;
+        int max = 0;
+        int count;
+
+        for (int feedback = 0; feedback < counts.length; ++feedback) {
+            counts[feedback] = 0;
+        }
+
+        for (int candidate = 0; candidate < indexes.length; ++candidate) {
+            if (table != null) {
+                count = ++counts[table.score(guessIndex,
+                        indexes[candidate])];
+            } else {
+                count = ++counts[SwarScorer.score(guessCode,
+                        codes[candidate], sequenceLength)];
+            }
+
+            if (count > max) {
+                max = count;
+                if (max > bound) {
+                    return max;
+                }
+            }
+        }
+
+        return max;
+    }
+}
@@ -0,0 +1,49 @@
+package com.monead.games.android.sequence.solver;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Counts how a guess would split the candidates, by some kind of feedback.
+ * Feedback values are numbered densely from 0, and the counts are kept in a
+ * buffer reused for every guess.
+ * 
+ * @author David Read
+ *
+ */
+interface PartitionHistogram {
+    /**
+     * Count the candidates giving each feedback value for a guess.
+     * 
+     * @param guessCode  The packed guess (see SequenceCode)
+     * @param guessIndex  The code space index of the guess
+     * 
+     * @return The counts, indexed by feedback value up to
+     *         getNumFeedbacks(). The buffer is reused by the next call.
+     */
+    int[] count(long guessCode, int guessIndex);
+
+    /**
+     * Get the number of feedback values the latest guess counted.
+     * 
+     * @return The number of counts in use
+     */
+    int getNumFeedbacks();
+}
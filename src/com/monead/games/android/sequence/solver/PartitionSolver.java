@@ -0,0 +1,174 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.CodeSpace;
+import com.monead.games.android.sequence.core.FeedbackTable;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The base for solvers that choose a guess by how it partitions the
+ * candidates (the sequences still possible given the clues).
+ * 
+ * This class finds the candidates and handles the trivial cases; subclasses
+ * decide which guess splits the candidates best.
+ * 
+ * The guesses considered are selected within an evaluation budget, one from
+ * each set of guesses the try history makes equivalent (see Guesses).
+ * 
+ * @author David Read
+ *
+ */
+public abstract class PartitionSolver implements Solver {
+    /**
+     * The largest code space the solver will work in.
+     */
+    private final int maxCodes;
+
+    /**
+     * The most guess and candidate pairs to score for one suggestion.
+     */
+    private final long maxEvaluations;
+
+    /**
+     * Create the solver.
+     * 
+     * @param pMaxCodes  The largest code space the solver will work in, which
+     *            bounds its memory use
+     * @param pMaxEvaluations  The most guess and candidate pairs to score for
+     *            one suggestion, which bounds its time
+     */
+    protected PartitionSolver(final int pMaxCodes,
+            final long pMaxEvaluations) {
+        maxCodes = pMaxCodes;
+        maxEvaluations = pMaxEvaluations;
+    }
+
+    /**
+     * Determine whether the solver can handle games with a set of rules.
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if the rules' code space is no larger than the limit
+     */
+    public final boolean supports(final GameRules rules) {
+        return rules.getNumSequences() <= maxCodes;
+    }
+
+    /**
+     * Suggest the next guess, based on the submitted trys and their clues.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    public final Suggestion suggest(final GameSnapshot snapshot) {
+        return suggest(snapshot, SearchLimit.NONE);
+    }
+
+    /**
+     * Suggest the next guess, stopping the search of guesses early if a
+     * limit is reached.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    public final Suggestion suggest(final GameSnapshot snapshot,
+            final SearchLimit limit) {
+        GameRules rules = snapshot.getRules();
+        CodeSpace space;
+        FeedbackTable table;
+        Candidates candidates;
+
+        if (!supports(rules)) {
+            throw new IllegalArgumentException("Too many sequences for "
+                    + getClass().getSimpleName() + ": " + rules);
+        }
+
+        space = CodeSpace.forRules(rules);
+        table = FeedbackTable.supports(rules) ? FeedbackTable
+                .forSpace(space) : null;
+        candidates = findCandidates(space, table, snapshot);
+
+        if (candidates.size() == 0) {
+            throw new IllegalStateException(
+                    "No sequence matches the clues");
+        }
+
+        // With one or two candidates guessing either is best
+        if (candidates.size() <= 2) {
+            return new Suggestion(candidates.getCode(0), 1,
+                    candidates.size(), true);
+        }
+
+        return choose(candidates, table, Guesses.select(candidates,
+                new SymmetryReducer(snapshot), maxEvaluations,
+                getNumScored(candidates)), limit);
+    }
+
+    /**
+     * Get the number of candidates each guess will be scored against, which
+     * sets how many guesses fit the evaluation budget. By default this is
+     * every candidate.
+     * 
+     * @param candidates  The candidates
+     * 
+     * @return The number of candidates scored per guess
+     */
+    protected int getNumScored(final Candidates candidates) {
+        return candidates.size();
+    }
+
+    /**
+     * Find the sequences that are still possible answers. By default these
+     * are the sequences consistent with the clue counts.
+     * 
+     * @param space  The code space of the game
+     * @param table  The feedback table for the code space, null if the space
+     *            is too large to have one
+     * @param snapshot  The state of the game
+     * 
+     * @return The candidates
+     */
+    protected Candidates findCandidates(final CodeSpace space,
+            final FeedbackTable table, final GameSnapshot snapshot) {
+        return Candidates.consistentWith(space, table, snapshot);
+    }
+
+    /**
+     * Choose the guess that best splits the candidates. There are always at
+     * least three candidates.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, null if the space
+     *            is too large to have one
+     * @param guesses  The guesses to choose from
+     * @param limit  The deadline and cancellation flag; once it is reached
+     *            the best guess evaluated so far is chosen
+     * 
+     * @return The suggested guess
+     */
+    protected abstract Suggestion choose(Candidates candidates,
+            FeedbackTable table, Guesses guesses, SearchLimit limit);
+}
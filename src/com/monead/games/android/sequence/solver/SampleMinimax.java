@@ -0,0 +1,79 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SwarScorer;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Chooses a guess from a sample of the candidates, for solvers that cannot
+ * enumerate them all: the sample member whose largest part, when it splits
+ * the other members by feedback, is smallest (as MinimaxSolver judges the
+ * full set of candidates).
+ * 
+ * @author David Read
+ *
+ */
+final class SampleMinimax {
+    /**
+     * No instances.
+     */
+    private SampleMinimax() {
+    }
+
+    /**
+     * Choose the sample member that best splits the others.
+     * 
+     * @param sample  The packed candidates (see SequenceCode)
+     * @param size  The number of candidates in the sample, at least one
+     * @param sequenceLength  The length of the sequences
+     * 
+     * @return The suggested guess, with the worst case and number of
+     *         candidates of the sample
+     */
+    static Suggestion choose(final long[] sample, final int size,
+            final int sequenceLength) {
+        int[] counts = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+        int bestWorstCase = Integer.MAX_VALUE;
+        int best = 0;
+        int worstCase;
+
+        for (int guess = 0; guess < size; ++guess) {
+            worstCase = 0;
+            for (int other = 0; other < size; ++other) {
+                worstCase = Math.max(worstCase, ++counts[SwarScorer.score(
+                        sample[guess], sample[other], sequenceLength)]);
+            }
+
+            for (int other = 0; other < size; ++other) {
+                counts[SwarScorer.score(sample[guess], sample[other],
+                        sequenceLength)] = 0;
+            }
+
+            if (worstCase < bestWorstCase) {
+                bestWorstCase = worstCase;
+                best = guess;
+            }
+        }
+
+        return new Suggestion(sample[best], bestWorstCase, size, true);
+    }
+}
@@ -0,0 +1,390 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.CandidateSet;
+import com.monead.games.android.sequence.core.FeedbackTable;
+import com.monead.games.android.sequence.core.RandomSource;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SplitMixRandom;
+import com.monead.games.android.sequence.core.SwarScorer;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A solver for games whose candidates are too many to score every guess
+ * against (e.g. the hundreds of thousands left early in games with 7 or 8
+ * positions). Each guess is scored against a random sample of the
+ * candidates instead, so the time per guess is bounded whatever the size
+ * of the game.
+ * 
+ * A guess is judged by the expected number of candidates left after it,
+ * the sum of the squared part sizes over the number of candidates, i.e.
+ * the number of candidates times the chance that two of them share a
+ * part. That chance is estimated from the pairs of sampled candidates,
+ * with a confidence bound of CONFIDENCE_Z standard errors, narrowed by
+ * the finite population correction so the bound is 0 once the sample is
+ * every candidate. Ties go to a guess that is itself a candidate.
+ * 
+ * The sample adapts to the time budget. The first round scores every
+ * guess against INITIAL_SAMPLE_SIZE candidates; each later round doubles
+ * the sample and rescores only the guesses whose bounds still overlap the
+ * best guess's. Rounds end once one guess is left, the sample reaches its
+ * limit or every candidate, or the limit is reached, in which case the
+ * last complete round decides. The sample is drawn once per suggestion,
+ * by reservoir sampling with the solver's random source, then shuffled so
+ * that every round's sample, a prefix of it, is uniform.
+ * 
+ * A solver is not safe for concurrent use.
+ * 
+ * @author David Read
+ *
+ */
+public class SampledSolver extends PartitionSolver {
+    /**
+     * The default largest code space, every sequence length of the
+     * standard six colors fits.
+     */
+    public static final int DEFAULT_MAX_CODES = CandidateSet.MAX_CODES;
+
+    /**
+     * The default evaluation budget.
+     */
+    public static final long DEFAULT_MAX_EVALUATIONS = 2000000L;
+
+    /**
+     * The default largest sample.
+     */
+    public static final int DEFAULT_MAX_SAMPLE_SIZE = 4096;
+
+    /**
+     * The sample size of the first round.
+     */
+    public static final int INITIAL_SAMPLE_SIZE = 256;
+
+    /**
+     * The number of standard errors in a confidence bound, 95% two sided.
+     */
+    public static final double CONFIDENCE_Z = 1.96;
+
+    /**
+     * The source of the random samples.
+     */
+    private final RandomSource random;
+
+    /**
+     * The largest sample.
+     */
+    private final int maxSampleSize;
+
+    /**
+     * The expected candidates left by the latest suggestion, estimated.
+     */
+    private double expectedRemaining;
+
+    /**
+     * The confidence bound of expectedRemaining.
+     */
+    private double remainingBound;
+
+    /**
+     * The sample size that decided the latest suggestion.
+     */
+    private int sampleSize;
+
+    /**
+     * Create a solver with the default limits, suitable for a phone.
+     */
+    public SampledSolver() {
+        this(DEFAULT_MAX_CODES, DEFAULT_MAX_EVALUATIONS,
+                DEFAULT_MAX_SAMPLE_SIZE, new SplitMixRandom());
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pMaxCodes  The largest code space the solver will work in
+     * @param pMaxEvaluations  The most guess and sampled candidate pairs to
+     *            score for one round of a suggestion
+     * @param pMaxSampleSize  The largest sample, trading time for accuracy
+     * @param pRandom  The source of the random samples; a seeded source
+     *            makes the suggestions reproducible
+     */
+    public SampledSolver(final int pMaxCodes, final long pMaxEvaluations,
+            final int pMaxSampleSize, final RandomSource pRandom) {
+        super(pMaxCodes, pMaxEvaluations);
+        maxSampleSize = pMaxSampleSize;
+        random = pRandom;
+    }
+
+    /**
+     * Get the number of candidates each guess is scored against at most.
+     * 
+     * @param candidates  The candidates
+     * 
+     * @return The largest sample size for the candidates
+     */
+    @Override
+    protected int getNumScored(final Candidates candidates) {
+        return Math.min(candidates.size(), maxSampleSize);
+    }
+
+    /**
+     * Choose the guess with the smallest estimated expected number of
+     * candidates left.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * @param guesses  The guesses to choose from
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess, its worst case scaled up from the sample
+     */
+    @Override
+    protected Suggestion choose(final Candidates candidates,
+            final FeedbackTable table, final Guesses guesses,
+            final SearchLimit limit) {
+        int numCandidates = candidates.size();
+        int maxSize = getNumScored(candidates);
+        int[] sample = drawSample(numCandidates, maxSize);
+        int[] counts = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+        int[] contenders = new int[guesses.size()];
+        double[] means = new double[guesses.size()];
+        double[] errors = new double[guesses.size()];
+        int[] worstCases = new int[guesses.size()];
+        int[] sizes = new int[guesses.size()];
+        int numContenders = guesses.size();
+        int size = Math.min(INITIAL_SAMPLE_SIZE, maxSize);
+        int best = -1;
+        int roundBest;
+        int kept;
+        int order;
+
+        for (order = 0; order < numContenders; ++order) {
+            contenders[order] = order;
+        }
+
+        while (true) {
+            roundBest = -1;
+            for (int contender = 0; contender < numContenders; ++contender) {
+                if ((roundBest >= 0 || best >= 0) && limit.shouldStop()) {
+                    break;
+                }
+
+                order = contenders[contender];
+                score(candidates, table, guesses, order, sample, size,
+                        counts, means, errors, worstCases, sizes);
+                if (roundBest < 0 || isBetter(candidates, guesses, order,
+                        roundBest, means)) {
+                    roundBest = order;
+                }
+            }
+
+            if (limit.wasStopped()) {
+                if (best < 0) {
+                    best = roundBest;
+                }
+                break;
+            }
+
+            best = roundBest;
+            if (numContenders == 1 || size == maxSize) {
+                break;
+            }
+
+            // Keep the guesses that may still be at least as good
+            kept = 0;
+            for (int contender = 0; contender < numContenders; ++contender) {
+                order = contenders[contender];
+                if (means[order] - errors[order] <= means[best]
+                        + errors[best]) {
+                    contenders[kept++] = order;
+                }
+            }
+            numContenders = kept;
+            size = Math.min(size * 2, maxSize);
+        }
+
+        // A round cut short may have rescored the best guess already
+        sampleSize = sizes[best];
+        expectedRemaining = means[best] * numCandidates;
+        remainingBound = errors[best] * numCandidates;
+        return new Suggestion(guesses.getCode(best), Math.max(1,
+                (int) Math.round((double) worstCases[best] * numCandidates
+                        / sampleSize)), numCandidates, candidates
+                .contains(guesses.getIndex(best)));
+    }
+
+    /**
+     * Draw a uniform random sample of the candidates, ordered so that
+     * every prefix is a uniform sample too.
+     * 
+     * @param numCandidates  The number of candidates
+     * @param size  The sample size
+     * 
+     * @return The candidate numbers (from 0 to numCandidates - 1) sampled
+     */
+    private int[] drawSample(final int numCandidates, final int size) {
+        int[] sample = new int[size];
+        int slot;
+        int swap;
+
+        for (int candidate = 0; candidate < numCandidates; ++candidate) {
+            if (candidate < size) {
+                sample[candidate] = candidate;
+            } else {
+                slot = random.nextInt(candidate + 1);
+                if (slot < size) {
+                    sample[slot] = candidate;
+                }
+            }
+        }
+
+        for (int last = size - 1; last > 0; --last) {
+            slot = random.nextInt(last + 1);
+            swap = sample[slot];
+            sample[slot] = sample[last];
+            sample[last] = swap;
+        }
+
+        return sample;
+    }
+
+    /**
+     * Score a guess against a prefix of the sample, estimating the
+     * fraction of candidates it leaves and the confidence bound.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * @param guesses  The guesses
+     * @param order  The guess to score
+     * @param sample  The sampled candidate numbers
+     * @param size  The number of sampled candidates to score against
+     * @param counts  Working buffer, all 0, left all 0
+     * @param means  Receives the guess's estimated fraction left
+     * @param errors  Receives the guess's confidence bound
+     * @param worstCases  Receives the guess's largest part in the sample
+     * @param sizes  Receives the sample size the guess was scored against
+     */
+    private static void score(final Candidates candidates,
+            final FeedbackTable table, final Guesses guesses,
+            final int order, final int[] sample, final int size,
+            final int[] counts, final double[] means,
+            final double[] errors, final int[] worstCases,
+            final int[] sizes) {
+        int sequenceLength = candidates.getSpace().getSequenceLength();
+        int numCandidates = candidates.size();
+        long guess = guesses.getCode(order);
+        int guessIndex = guesses.getIndex(order);
+        double squares = 0;
+        double cubes = 0;
+        int worstCase = 0;
+        double mean;
+        double variance;
+        int count;
+
+        for (int member = 0; member < size; ++member) {
+            if (table != null) {
+                ++counts[table.score(guessIndex,
+                        candidates.indexes[sample[member]])];
+            } else {
+                ++counts[SwarScorer.score(guess,
+                        candidates.codes[sample[member]], sequenceLength)];
+            }
+        }
+
+        for (int feedback = 0; feedback < counts.length; ++feedback) {
+            count = counts[feedback];
+            if (count > 0) {
+                squares += (double) count * count;
+                cubes += (double) count * count * count;
+                worstCase = Math.max(worstCase, count);
+                counts[feedback] = 0;
+            }
+        }
+
+        // The fraction left is the chance two candidates share a part,
+        // estimated over the sampled pairs; its standard error is twice
+        // that of the mean part fraction seen by each sampled candidate
+        mean = squares / ((double) size * size);
+        variance = Math.max(0, cubes / ((double) size * size * size) - mean
+                * mean);
+        if (size < numCandidates) {
+            mean = (squares - size) / ((double) size * (size - 1));
+        }
+        means[order] = mean;
+        errors[order] = 2 * CONFIDENCE_Z * Math.sqrt(variance / size)
+                * (numCandidates > 1 ? Math.sqrt((double) (numCandidates
+                        - size) / (numCandidates - 1)) : 0);
+        worstCases[order] = worstCase;
+        sizes[order] = size;
+    }
+
+    /**
+     * Determine whether one guess's estimate beats another's.
+     * 
+     * @param candidates  The candidates
+     * @param guesses  The guesses
+     * @param order  The guess
+     * @param other  The guess to beat
+     * @param means  The estimated fraction each guess leaves
+     * 
+     * @return True if the guess leaves fewer candidates, or as many and is
+     *         a candidate when the other is not
+     */
+    private static boolean isBetter(final Candidates candidates,
+            final Guesses guesses, final int order, final int other,
+            final double[] means) {
+        return means[order] < means[other]
+                || (means[order] == means[other]
+                        && candidates.contains(guesses.getIndex(order))
+                        && !candidates.contains(guesses.getIndex(other)));
+    }
+
+    /**
+     * Get the estimated expected number of candidates the latest
+     * suggestion's guess leaves.
+     * 
+     * @return The estimate
+     */
+    public double getExpectedRemaining() {
+        return expectedRemaining;
+    }
+
+    /**
+     * Get the confidence bound of the latest estimate: the expected number
+     * left is within this of getExpectedRemaining(), with 95% confidence.
+     * The bound does not allow for the choice itself, which favors guesses
+     * the sample happened to flatter.
+     * 
+     * @return The bound, 0 if every candidate was scored
+     */
+    public double getRemainingBound() {
+        return remainingBound;
+    }
+
+    /**
+     * Get the sample size that decided the latest suggestion.
+     * 
+     * @return The number of candidates each guess was scored against
+     */
+    public int getSampleSize() {
+        return sampleSize;
+    }
+}
@@ -0,0 +1,120 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.TimeSource;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A deadline and cancellation flag for a solver's search. A solver given a
+ * limit checks it between guesses; once it is reached the solver stops and
+ * suggests the best guess found so far, having always evaluated at least
+ * one. A limit may be cancelled from any thread.
+ * 
+ * @author David Read
+ *
+ */
+public final class SearchLimit {
+    /**
+     * A limit that is never reached and cannot be cancelled.
+     */
+    public static final SearchLimit NONE = new SearchLimit(null, 0);
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * The source of the time, null if there is no deadline.
+     */
+    private final TimeSource timeSource;
+
+    /**
+     * The reading of the time source at which the search must stop.
+     */
+    private final long deadline;
+
+    /**
+     * Whether the search has been cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Whether a search was stopped by the limit before it finished.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Create a limit starting now.
+     * 
+     * @param pTimeSource  The source of the time, null for no deadline
+     * @param budgetMillis  The time the search may take, in milliseconds
+     */
+    public SearchLimit(final TimeSource pTimeSource,
+            final long budgetMillis) {
+        timeSource = pTimeSource;
+        deadline = pTimeSource == null ? 0 : pTimeSource.nanoTime()
+                + budgetMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Cancel the search. Has no effect on NONE.
+     */
+    public void cancel() {
+        if (this != NONE) {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Determine whether the search has been cancelled.
+     * 
+     * @return True if cancel() has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Determine whether a search must stop now, noting it if so. Solvers
+     * call this between guesses.
+     * 
+     * @return True if the search has been cancelled or its time is up
+     */
+    public boolean shouldStop() {
+        if (cancelled || (timeSource != null
+                && timeSource.nanoTime() - deadline >= 0)) {
+            stopped = true;
+        }
+
+        return stopped;
+    }
+
+    /**
+     * Determine whether a search was stopped before it finished, so its
+     * suggestion may not be the solver's best.
+     * 
+     * @return True if shouldStop() has returned true
+     */
+    public boolean wasStopped() {
+        return stopped;
+    }
+}
@@ -0,0 +1,66 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Suggest the next guess for a game in progress.
+ * 
+ * A solver works from a snapshot, so it can run on any thread while the
+ * game continues to be played. Solvers may hold working buffers and are
+ * not safe for concurrent use; give each thread its own.
+ * 
+ * @author David Read
+ *
+ */
+public interface Solver {
+    /**
+     * Determine whether the solver can handle games with a set of rules
+     * (e.g. within its memory and time limits).
+     * 
+     * @param rules  The game rules
+     * 
+     * @return True if suggest() can be used for games with the rules
+     */
+    boolean supports(GameRules rules);
+
+    /**
+     * Suggest the next guess, based on the submitted trys and their clues.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * 
+     * @return The suggested guess
+     */
+    Suggestion suggest(GameSnapshot snapshot);
+
+    /**
+     * Suggest the next guess, stopping early if a limit is reached. A
+     * stopped search suggests the best guess it has evaluated.
+     * 
+     * @param snapshot  The state of the game, which must not be over
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    Suggestion suggest(GameSnapshot snapshot, SearchLimit limit);
+}
@@ -0,0 +1,142 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SequenceHuntGame;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A guess suggested by a solver, with what is known about its outcome.
+ * 
+ * @author David Read
+ *
+ */
+public final class Suggestion {
+    /**
+     * The suggested guess.
+     */
+    private final long guess;
+
+    /**
+     * The most sequences that can remain after the guess is scored.
+     */
+    private final int worstCase;
+
+    /**
+     * The number of sequences that matched the clues when the guess was
+     * chosen.
+     */
+    private final int numCandidates;
+
+    /**
+     * Whether the guess itself matches the clues, so it may win.
+     */
+    private final boolean candidate;
+
+    /**
+     * Create a suggestion.
+     * 
+     * @param pGuess  The suggested guess (packed, see SequenceCode)
+     * @param pWorstCase  The most sequences that can remain after the guess
+     * @param pNumCandidates  The number of sequences matching the clues
+     * @param pCandidate  Whether the guess matches the clues
+     */
+    public Suggestion(final long pGuess, final int pWorstCase,
+            final int pNumCandidates, final boolean pCandidate) {
+        guess = pGuess;
+        worstCase = pWorstCase;
+        numCandidates = pNumCandidates;
+        candidate = pCandidate;
+    }
+
+    /**
+     * Get the suggested guess.
+     * 
+     * @return The packed guess (see SequenceCode)
+     */
+    public long getGuess() {
+        return guess;
+    }
+
+    /**
+     * Get the color suggested for a position.
+     * 
+     * @param posit  The position
+     * 
+     * @return The color (COLOR_* constants of SequenceHuntGame)
+     */
+    public int getColor(final int posit) {
+        return SequenceCode.getColorIndex(guess, posit)
+                + SequenceHuntGame.FIRST_COLOR;
+    }
+
+    /**
+     * Get the most sequences that can remain after the guess is scored.
+     * 
+     * @return The size of the largest partition the guess leaves
+     */
+    public int getWorstCase() {
+        return worstCase;
+    }
+
+    /**
+     * Get the number of sequences that matched the clues.
+     * 
+     * @return The number of candidate sequences
+     */
+    public int getNumCandidates() {
+        return numCandidates;
+    }
+
+    /**
+     * Whether the guess itself matches the clues, so it may win.
+     * 
+     * @return True if the guess is a candidate
+     */
+    public boolean isCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Create the same suggestion with the colors of the guess relabeled.
+     * 
+     * @param length  The length of the guess
+     * @param colorMap  The new color index for each color index
+     * 
+     * @return The relabeled suggestion
+     */
+    Suggestion relabel(final int length, final int[] colorMap) {
+        return new Suggestion(HistoryKey.relabel(guess, length, colorMap),
+                worstCase, numCandidates, candidate);
+    }
+
+    /**
+     * Describe the suggestion.
+     * 
+     * @return A description of the suggestion
+     */
+    @Override
+    public String toString() {
+        return "Suggestion [guess=" + Long.toHexString(guess)
+                + ", worstCase=" + worstCase + ", numCandidates="
+                + numCandidates + ", candidate=" + candidate + "]";
+    }
+}
@@ -0,0 +1,344 @@
+package com.monead.games.android.sequence.solver;
+
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.SequenceCode;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * The symmetries of a game's try history, used to search only one guess
+ * from each set of equivalent guesses.
+ * 
+ * Two kinds of symmetry are tracked. Colors that no submitted try has used
+ * are interchangeable (free colors). Positions that have held the same
+ * color in every submitted try are interchangeable (a position class).
+ * Relabeling free colors and permuting positions within their classes
+ * leaves every try, and so the set of candidates, unchanged. Guesses
+ * related by these symmetries therefore split the candidates into
+ * partitions of the same sizes, and only one of them needs evaluating.
+ * Before the first try every color is free and every position is in one
+ * class, so the 1296 guesses of the standard game come down to 5 (AAAA,
+ * AAAB, AABB, AABC and ABCD).
+ * 
+ * The representative of a guess is found by relabeling its free colors in
+ * order of how they are spread over the position classes, then sorting
+ * the colors within each class. A reducer holds working buffers and is not
+ * safe for concurrent use.
+ * 
+ * @author David Read
+ * 
+ */
+public final class SymmetryReducer {
+    /**
+     * Bits for one position class's count in a free color's signature.
+     */
+    private static final int SIGNATURE_BITS = 4;
+
+    /**
+     * The length of the sequences.
+     */
+    private final int sequenceLength;
+
+    /**
+     * The class of each position, numbered in order of first position.
+     */
+    private final int[] positionClasses;
+
+    /**
+     * The positions, grouped by class, ascending within each class.
+     */
+    private final int[] classPositions;
+
+    /**
+     * The start of each class in classPositions, plus the end of the last.
+     */
+    private final int[] classStarts;
+
+    /**
+     * The number of position classes.
+     */
+    private final int numClasses;
+
+    /**
+     * The free colors (indexes), ascending.
+     */
+    private final int[] freeColors;
+
+    /**
+     * The number of free colors.
+     */
+    private final int numFreeColors;
+
+    /**
+     * Whether each color (index) is free.
+     */
+    private final boolean[] free;
+
+    /**
+     * Working buffer: the signature of each free color in a guess, i.e. its
+     * count in each position class, the first class most significant.
+     */
+    private final long[] signatures = new long[SequenceCode.MAX_COLORS];
+
+    /**
+     * Working buffer: the free colors used by a guess.
+     */
+    private final int[] usedColors = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Working buffer: the color each color of a guess is relabeled to.
+     */
+    private final int[] colorMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Working buffer: the colors of one position class.
+     */
+    private final int[] classColors = new int[SequenceCode.MAX_PEGS];
+
+    /**
+     * Find the symmetries of the submitted trys of a game.
+     * 
+     * @param snapshot  The state of the game
+     */
+    public SymmetryReducer(final GameSnapshot snapshot) {
+        this(snapshot.getSequenceLength(), snapshot.getRules()
+                .getNumColors(), getTryCodes(snapshot));
+    }
+
+    /**
+     * Find the symmetries of a list of trys, e.g. a path searched by an
+     * offline tool.
+     * 
+     * @param pSequenceLength  The length of the sequences
+     * @param numColors  The number of colors
+     * @param tryCodes  The packed trys (see SequenceCode)
+     */
+    public SymmetryReducer(final int pSequenceLength, final int numColors,
+            final long[] tryCodes) {
+        int classes = 0;
+        int numFree = 0;
+        int position = 0;
+
+        sequenceLength = pSequenceLength;
+        positionClasses = new int[sequenceLength];
+        classPositions = new int[sequenceLength];
+        classStarts = new int[sequenceLength + 1];
+        freeColors = new int[numColors];
+        free = new boolean[numColors];
+
+        // Positions with the same colors in every try share a class
+        for (int posit = 0; posit < sequenceLength; ++posit) {
+            positionClasses[posit] = classes;
+            for (int earlier = 0; earlier < posit; ++earlier) {
+                if (isSameInEveryTry(tryCodes, posit, earlier)) {
+                    positionClasses[posit] = positionClasses[earlier];
+                    break;
+                }
+            }
+
+            if (positionClasses[posit] == classes) {
+                ++classes;
+            }
+        }
+        numClasses = classes;
+
+        for (int positClass = 0; positClass < numClasses; ++positClass) {
+            classStarts[positClass] = position;
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                if (positionClasses[posit] == positClass) {
+                    classPositions[position++] = posit;
+                }
+            }
+        }
+        classStarts[numClasses] = position;
+
+        for (int colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+            free[colorIndex] = true;
+        }
+        for (long tryCode : tryCodes) {
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                free[SequenceCode.getColorIndex(tryCode, posit)] = false;
+            }
+        }
+
+        for (int colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+            colorMap[colorIndex] = colorIndex;
+            if (free[colorIndex]) {
+                freeColors[numFree++] = colorIndex;
+            }
+        }
+        numFreeColors = numFree;
+    }
+
+    /**
+     * Get the submitted trys of a game.
+     * 
+     * @param snapshot  The state of the game
+     * 
+     * @return The packed trys
+     */
+    private static long[] getTryCodes(final GameSnapshot snapshot) {
+        long[] tryCodes = new long[snapshot.getCurrentTry()];
+
+        for (int row = 0; row < tryCodes.length; ++row) {
+            tryCodes[row] = snapshot.getTryCode(row);
+        }
+
+        return tryCodes;
+    }
+
+    /**
+     * Determine whether two positions held the same color in every try.
+     * 
+     * @param tryCodes  The packed trys
+     * @param posit  One position
+     * @param other  The other position
+     * 
+     * @return True if the positions are interchangeable
+     */
+    private static boolean isSameInEveryTry(final long[] tryCodes,
+            final int posit, final int other) {
+        for (long tryCode : tryCodes) {
+            if (SequenceCode.getColorIndex(tryCode, posit)
+                    != SequenceCode.getColorIndex(tryCode, other)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine whether the history has any symmetry left. Once it has
+     * none, every guess is its own representative.
+     * 
+     * @return True if some guesses are equivalent
+     */
+    public boolean hasSymmetry() {
+        return numClasses < sequenceLength || numFreeColors > 1;
+    }
+
+    /**
+     * Get the number of position classes.
+     * 
+     * @return The number of sets of interchangeable positions
+     */
+    public int getNumPositionClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Get the number of free colors.
+     * 
+     * @return The number of colors no submitted try has used
+     */
+    public int getNumFreeColors() {
+        return numFreeColors;
+    }
+
+    /**
+     * Determine whether a guess is the representative of its equivalent
+     * guesses.
+     * 
+     * @param code  The packed guess (see SequenceCode)
+     * 
+     * @return True if the guess should be evaluated
+     */
+    public boolean isCanonical(final long code) {
+        return !hasSymmetry() || canonical(code) == code;
+    }
+
+    /**
+     * Find the representative of a guess's equivalent guesses.
+     * 
+     * @param code  The packed guess (see SequenceCode)
+     * 
+     * @return The packed representative, the same for every equivalent
+     *         guess
+     */
+    public long canonical(final long code) {
+        int numUsed = 0;
+        long representative = 0;
+        int colorIndex;
+        int numColors;
+        long signature;
+        int insert;
+
+        for (int freeColor = 0; freeColor < numFreeColors; ++freeColor) {
+            signatures[freeColors[freeColor]] = 0;
+        }
+
+        for (int posit = 0; posit < sequenceLength; ++posit) {
+            colorIndex = SequenceCode.getColorIndex(code, posit);
+            if (free[colorIndex]) {
+                signatures[colorIndex] += 1L << (SIGNATURE_BITS
+                        * (numClasses - 1 - positionClasses[posit]));
+            }
+        }
+
+        // Used free colors ordered by descending signature; equal
+        // signatures are interchangeable so their order does not matter
+        for (int freeColor = 0; freeColor < numFreeColors; ++freeColor) {
+            colorIndex = freeColors[freeColor];
+            signature = signatures[colorIndex];
+            if (signature != 0) {
+                insert = numUsed++;
+                while (insert > 0
+                        && signatures[usedColors[insert - 1]] < signature) {
+                    usedColors[insert] = usedColors[insert - 1];
+                    --insert;
+                }
+                usedColors[insert] = colorIndex;
+            }
+        }
+
+        for (int used = 0; used < numUsed; ++used) {
+            colorMap[usedColors[used]] = freeColors[used];
+        }
+
+        for (int positClass = 0; positClass < numClasses; ++positClass) {
+            numColors = 0;
+            for (int member = classStarts[positClass];
+                    member < classStarts[positClass + 1]; ++member) {
+                colorIndex = colorMap[SequenceCode.getColorIndex(code,
+                        classPositions[member])];
+                insert = numColors++;
+                while (insert > 0 && classColors[insert - 1] > colorIndex) {
+                    classColors[insert] = classColors[insert - 1];
+                    --insert;
+                }
+                classColors[insert] = colorIndex;
+            }
+
+            for (int member = 0; member < numColors; ++member) {
+                representative = SequenceCode.setColorIndex(representative,
+                        classPositions[classStarts[positClass] + member],
+                        classColors[member]);
+            }
+        }
+
+        for (int used = 0; used < numUsed; ++used) {
+            colorMap[usedColors[used]] = usedColors[used];
+        }
+
+        return representative;
+    }
+}
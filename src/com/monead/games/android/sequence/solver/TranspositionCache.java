@@ -0,0 +1,223 @@
+package com.monead.games.android.sequence.solver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * A bounded cache of solver decisions, keyed by the history of the game
+ * they were made for (see HistoryKey). When full, the least recently used
+ * decision is evicted. Hits, misses and evictions are counted so the
+ * cache's size can be tuned.
+ * 
+ * Games played by the same solver keep reaching the same early histories,
+ * so simulations and repeated hints avoid most of the solver's work. The
+ * cache may be shared between threads.
+ * 
+ * @author David Read
+ *
+ */
+public final class TranspositionCache {
+    /**
+     * The default number of decisions held, enough for the first three
+     * guesses of the standard game.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * The most decisions held.
+     */
+    private final int capacity;
+
+    /**
+     * The decisions, least recently used first.
+     */
+    private final DecisionMap decisions;
+
+    /**
+     * The number of lookups that found a decision.
+     */
+    private long hits;
+
+    /**
+     * The number of lookups that found no decision.
+     */
+    private long misses;
+
+    /**
+     * The number of decisions evicted to make room.
+     */
+    private long evictions;
+
+    /**
+     * Create a cache with the default capacity.
+     */
+    public TranspositionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a cache.
+     * 
+     * @param pCapacity  The most decisions to hold, at least 1
+     */
+    public TranspositionCache(final int pCapacity) {
+        if (pCapacity < 1) {
+            throw new IllegalArgumentException(
+                    "Cache capacity must be at least 1: " + pCapacity);
+        }
+
+        capacity = pCapacity;
+        decisions = new DecisionMap();
+    }
+
+    /**
+     * Look up the decision made for a history.
+     * 
+     * @param key  The history
+     * 
+     * @return The decision, null if none is cached
+     */
+    public synchronized Suggestion get(final HistoryKey key) {
+        Suggestion decision = decisions.get(key);
+
+        if (decision == null) {
+            ++misses;
+        } else {
+            ++hits;
+        }
+
+        return decision;
+    }
+
+    /**
+     * Cache the decision made for a history.
+     * 
+     * @param key  The history
+     * @param decision  The decision
+     */
+    public synchronized void put(final HistoryKey key,
+            final Suggestion decision) {
+        decisions.put(key, decision);
+    }
+
+    /**
+     * Remove every decision. The statistics are kept.
+     */
+    public synchronized void clear() {
+        decisions.clear();
+    }
+
+    /**
+     * Get the most decisions held.
+     * 
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of decisions held.
+     * 
+     * @return The number of decisions
+     */
+    public synchronized int size() {
+        return decisions.size();
+    }
+
+    /**
+     * Get the number of lookups that found a decision.
+     * 
+     * @return The hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that found no decision.
+     * 
+     * @return The miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of decisions evicted to make room.
+     * 
+     * @return The eviction count
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Describe the cache and its statistics.
+     * 
+     * @return A description of the cache
+     */
+    @Override
+    public synchronized String toString() {
+        return "TranspositionCache [size=" + decisions.size()
+                + ", capacity=" + capacity + ", hits=" + hits + ", misses="
+                + misses + ", evictions=" + evictions + "]";
+    }
+
+    /**
+     * The decisions in access order, evicting the least recently used one
+     * when over capacity.
+     */
+    private final class DecisionMap extends
+            LinkedHashMap<HistoryKey, Suggestion> {
+        /**
+         * Serial Id, required since maps are serializable.
+         */
+        private static final long serialVersionUID = -7160364209946715371L;
+
+        /**
+         * Create the map in access order.
+         */
+        DecisionMap() {
+            super(Math.min(capacity, DEFAULT_CAPACITY), 0.75f, true);
+        }
+
+        /**
+         * Evict the least recently used decision when over capacity.
+         * 
+         * @param eldest  The least recently used decision
+         * 
+         * @return True if it should be evicted
+         */
+        @Override
+        protected boolean removeEldestEntry(
+                final Map.Entry<HistoryKey, Suggestion> eldest) {
+            if (size() > capacity) {
+                ++evictions;
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The solver package for the android-based Sequence Hunt game. Solvers
+ * suggest guesses from the trys and clues of a game in progress. Nothing in
+ * this package depends on Android.
+ */
+package com.monead.games.android.sequence.solver;
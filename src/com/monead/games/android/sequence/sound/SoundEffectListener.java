@@ -0,0 +1,107 @@
+package com.monead.games.android.sequence.sound;
+
+import com.monead.games.android.sequence.R;
+import com.monead.games.android.sequence.core.GameEventListener;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Plays the sound effects for moves made in a game.
+ * 
+ * The win and lose sounds are played when the matching dialog
+ * is shown, so they are not played here.
+ * 
+ * @author David Read
+ * 
+ */
+public final class SoundEffectListener implements GameEventListener {
+    /**
+     * The sound manager used to play the effects.
+     */
+    private final SoundManager soundManager;
+
+    /**
+     * Create a listener playing sounds through the sound manager.
+     */
+    public SoundEffectListener() {
+        soundManager = SoundManager.getInstance();
+    }
+
+    /**
+     * Play the color entry sound.
+     * 
+     * @param color The added color
+     */
+    @Override
+    public void notifyGuessAdded(final int color) {
+        soundManager.play(R.raw.entry);
+    }
+
+    /**
+     * Play the color backout sound.
+     */
+    @Override
+    public void notifyGuessRemoved() {
+        soundManager.play(R.raw.backout);
+    }
+
+    /**
+     * Play the try submitted sound.
+     * 
+     * @param tryNum The try that was submitted
+     */
+    @Override
+    public void notifyTrySubmitted(final int tryNum) {
+        soundManager.play(R.raw.guess);
+    }
+
+    /**
+     * Play the fewer correct sound.
+     */
+    @Override
+    public void notifyTryGotWorse() {
+        soundManager.play(R.raw.fewercorrect);
+    }
+
+    /**
+     * No sound, the win dialog plays it.
+     */
+    @Override
+    public void notifyGameWon() {
+        // Played by the win dialog
+    }
+
+    /**
+     * No sound, the lose dialog plays it.
+     */
+    @Override
+    public void notifyGameLost() {
+        // Played by the lose dialog
+    }
+
+    /**
+     * Play the fewer correct sound, used to signal an invalid move.
+     */
+    @Override
+    public void notifyMoveRejected() {
+        soundManager.play(R.raw.fewercorrect);
+    }
+}
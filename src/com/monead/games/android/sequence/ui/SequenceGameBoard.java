@@ -1,14 +1,37 @@
 package com.monead.games.android.sequence.ui;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.monead.games.android.sequence.R;
+import com.monead.games.android.sequence.core.CandidateSet;
+import com.monead.games.android.sequence.core.GameEventListener;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
 import com.monead.games.android.sequence.event.ColorChoiceListener;
 import com.monead.games.android.sequence.model.SequenceHuntGameModel;
 import com.monead.games.android.sequence.reporting.GameStatisticsEngine;
+import com.monead.games.android.sequence.solver.AssetSource;
+import com.monead.games.android.sequence.solver.CachingSolver;
+import com.monead.games.android.sequence.solver.ConstraintSolver;
+import com.monead.games.android.sequence.solver.DecisionTreeSolver;
+import com.monead.games.android.sequence.solver.EasyModeSolver;
+import com.monead.games.android.sequence.solver.GeneticSolver;
+import com.monead.games.android.sequence.solver.HintRunner;
+import com.monead.games.android.sequence.solver.MinimaxSolver;
+import com.monead.games.android.sequence.solver.OpeningBook;
+import com.monead.games.android.sequence.solver.OpeningBookSolver;
+import com.monead.games.android.sequence.solver.SampledSolver;
+import com.monead.games.android.sequence.solver.SearchLimit;
+import com.monead.games.android.sequence.solver.Solver;
+import com.monead.games.android.sequence.solver.Suggestion;
+import com.monead.games.android.sequence.solver.TranspositionCache;
+import com.monead.games.android.sequence.sound.SoundEffectListener;
 import com.monead.games.android.sequence.ui.shape.DiamondShape;
 import com.monead.games.android.sequence.ui.shape.TriangleShape;
 import com.monead.games.android.sequence.util.Formatter;
@@ -16,6 +39,7 @@ import com.monead.games.android.sequence.util.Formatter;
 import android.view.MotionEvent;
 import android.view.View;
 import android.content.Context;
+import android.content.res.AssetManager;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -68,6 +92,11 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     private static final int TIMER_TEXT_FONT_SIZE = 16;
 
+    /**
+     * Size for text used to display the number of sequences remaining.
+     */
+    private static final int REMAINING_TEXT_FONT_SIZE = 12;
+
     /**
      * The number of degrees in the arc used to draw the try submit
      * icon.
@@ -145,6 +174,24 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     private static final int CLUES_PER_GUESS_SPACE = 4;
 
+    /**
+     * A hinted color is drawn inset from the edge of its position by this
+     * fraction (1/n) of the position's size.
+     */
+    private static final int HINT_INSET_DIVISOR = 3;
+
+    /**
+     * The number of hints remembered per difficulty, so the opening hints
+     * of later games are not solved again.
+     */
+    private static final int HINT_CACHE_CAPACITY = 256;
+
+    /**
+     * The time a hint search may take before the best guess found so far is
+     * shown, in milliseconds.
+     */
+    private static final long HINT_TIME_BUDGET_MILLIS = 2000;
+
     /**
      * An array depicting the touch-screen input images.
      * 
@@ -163,6 +210,60 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     private SequenceHuntGameModel gameModel;
 
+    /**
+     * Plays the sounds for moves made in the current game.
+     */
+    private GameEventListener soundEffects = new SoundEffectListener();
+
+    /**
+     * The precomputed opening hints, read from the app's assets.
+     */
+    private OpeningBook openingBook;
+
+    /**
+     * Suggests guesses when the player asks for a hint in hard mode: the
+     * optimal strategy for the standard game, otherwise minimax.
+     */
+    private Solver hintSolver;
+
+    /**
+     * Suggests guesses when the player asks for a hint in easy mode, using
+     * the colors shown by the clues.
+     */
+    private Solver easyHintSolver;
+
+    /**
+     * Suggests guesses for games too large for the hint solvers, once the
+     * opening book has none, from samples of the candidates.
+     */
+    private Solver sampledSolver = new SampledSolver();
+
+    /**
+     * Suggests guesses for games too large to list the candidates of, by
+     * constraint search, handing over to the genetic solver when no
+     * consistent sequence is found quickly.
+     */
+    private Solver largeGameSolver = new ConstraintSolver(
+            new GeneticSolver());
+
+    /**
+     * Runs the hint solvers off the UI thread. Created when first needed and
+     * shut down when the board leaves the screen, so that boards replaced
+     * e.g. by a rotation do not keep their worker threads.
+     */
+    private HintRunner hintRunner;
+
+    /**
+     * The hint being shown, null if none.
+     */
+    private Suggestion hint;
+
+    /**
+     * The try the hint was given for. The hint is only shown while that try
+     * is being entered.
+     */
+    private int hintTry;
+
     /**
      * Whether the difficulty is set to hard.
      */
@@ -173,6 +274,11 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     private int sequenceLength;
 
+    /**
+     * Whether new games forbid repeated colors.
+     */
+    private boolean uniqueColors;
+
     /**
      * Information collected as the game board is setup and used.
      */
@@ -191,6 +297,22 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
             final int pSequenceLength) {
         super(context);
 
+        final AssetManager assets = context.getAssets();
+        AssetSource assetSource = new AssetSource() {
+            public InputStream open(final String name) throws IOException {
+                return assets.open(name);
+            }
+        };
+
+        openingBook = new OpeningBook(assetSource);
+        hintSolver = new CachingSolver(new DecisionTreeSolver(
+                new OpeningBookSolver(new MinimaxSolver(), openingBook,
+                        false), assetSource),
+                new TranspositionCache(HINT_CACHE_CAPACITY), false);
+        easyHintSolver = new CachingSolver(new OpeningBookSolver(
+                new EasyModeSolver(), openingBook, true),
+                new TranspositionCache(HINT_CACHE_CAPACITY), true);
+
         // gameModel = new SequenceHuntGameModel();
         // this.gameStatistics = gameStatistics;
         setSequenceLength(pSequenceLength);
@@ -201,7 +323,9 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * Start a new game, losing any prior game model.
      */
     public final void newGame() {
-        gameModel = new SequenceHuntGameModel(sequenceLength);
+        gameModel = new SequenceHuntGameModel(createRules());
+        gameModel.addGameEventListener(soundEffects);
+        clearHint();
         // gameStatistics.addGame(gameModel);
         invalidate();
     }
@@ -222,6 +346,8 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     public final void setModel(final SequenceHuntGameModel model) {
         gameModel = model;
+        gameModel.addGameEventListener(soundEffects);
+        clearHint();
         // gameStatistics.deleteLastGame();
         invalidate();
     }
@@ -268,6 +394,134 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         return sequenceLength;
     }
 
+    /**
+     * Set whether colors may be repeated. If there is no current game or if
+     * this changes the rules of the current game, a new game is started.
+     * 
+     * Sequences longer than the number of colors need repeats, so for them
+     * the setting is remembered but has no effect.
+     * 
+     * @param pUniqueColors True if a color may appear only once
+     */
+    public final void setUniqueColors(final boolean pUniqueColors) {
+        this.uniqueColors = pUniqueColors;
+        if (getModel() == null
+                || !getModel().getRules().equals(createRules())) {
+            newGame();
+        }
+    }
+
+    /**
+     * Get whether colors may be repeated.
+     * 
+     * @return True if new games forbid repeated colors
+     */
+    public final boolean isUniqueColors() {
+        return uniqueColors;
+    }
+
+    /**
+     * Create the rules for a new game from the current settings.
+     * 
+     * @return The game rules
+     */
+    private GameRules createRules() {
+        return new GameRules(sequenceLength, GameRules.DEFAULT_NUM_COLORS,
+                GameRules.DEFAULT_MAX_TRYS, uniqueColors
+                        && sequenceLength <= GameRules.DEFAULT_NUM_COLORS);
+    }
+
+    /**
+     * Show the hint solver's suggested guess in the empty positions of the
+     * current try. The search runs in the background and the hint appears
+     * when it ends, within HINT_TIME_BUDGET_MILLIS.
+     * 
+     * @return True if a hint is shown or being searched for, false if the
+     *         game is over
+     */
+    public final boolean showHint() {
+        GameSnapshot snapshot = gameModel.getSnapshot();
+        Solver solver = difficultyIsHard ? hintSolver : easyHintSolver;
+
+        clearHint();
+        if (snapshot.isWinner() || snapshot.isLoser()) {
+            return false;
+        }
+
+        hintTry = snapshot.getCurrentTry();
+
+        // Sequences too long to solve exactly on the device get opening
+        // hints, then sampled hints, then constraint search, falling back
+        // to the genetic solver in the largest spaces. The book is read in
+        // the background too, since its first lookup loads it.
+        if (!solver.supports(snapshot.getRules())) {
+            solver = new OpeningBookSolver(
+                    sampledSolver.supports(snapshot.getRules())
+                            ? sampledSolver : largeGameSolver,
+                    openingBook, !difficultyIsHard);
+        }
+
+        if (hintRunner == null) {
+            hintRunner = new HintRunner();
+        }
+
+        hintRunner.request(solver, snapshot, HINT_TIME_BUDGET_MILLIS,
+                new HintRunner.Listener() {
+                    public void hintFound(final Suggestion found,
+                            final SearchLimit limit) {
+                        post(new Runnable() {
+                            public void run() {
+                                showFoundHint(found, limit);
+                            }
+                        });
+                    }
+                });
+
+        return true;
+    }
+
+    /**
+     * Show a hint found in the background, unless its request has been
+     * cancelled. Called on the UI thread.
+     * 
+     * @param found  The suggested guess, null if the search failed
+     * @param limit  The limit of the hint's request
+     */
+    private void showFoundHint(final Suggestion found,
+            final SearchLimit limit) {
+        if (!limit.isCancelled()) {
+            hint = found;
+            runtimeInformation.put("last hint", found
+                    + (limit.wasStopped() ? " (time limit)" : ""));
+            invalidate();
+        }
+    }
+
+    /**
+     * Remove the hint and cancel any search for one, e.g. because the
+     * try it was for has been changed or submitted.
+     */
+    private void clearHint() {
+        if (hintRunner != null) {
+            hintRunner.cancel();
+        }
+        hint = null;
+    }
+
+    /**
+     * Cancel any hint search and stop the search thread when the board
+     * leaves the screen. A new thread is started if the board returns and
+     * another hint is asked for.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        if (hintRunner != null) {
+            hintRunner.shutdown();
+            hintRunner = null;
+        }
+        super.onDetachedFromWindow();
+    }
+
     /**
      * Get an array of string reporting runtime information for the game board.
      * This is mostly environment and calculation information used to layout the
@@ -331,24 +585,61 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
                         .getWidth() / 2, circleArea / 2, paint);
     }
 
+    /**
+     * Display the number of sequences still consistent with the clues, in
+     * the area at the top of the canvas, while the game is being played.
+     * Nothing is shown for games too large to keep their candidates.
+     * 
+     * @param canvas
+     *            The canvas being updated
+     * @param snapshot
+     *            The game state to draw
+     * @param circleArea
+     *            The height of the area that is available at the top of the
+     *            canvas
+     * @param vertSpacing The spacing between vertical rows
+     */
+    private void drawSequencesRemaining(final Canvas canvas,
+            final GameSnapshot snapshot, final int circleArea,
+            final int vertSpacing) {
+        Paint paint;
+        CandidateSet candidates = snapshot.getCandidates();
+
+        if (snapshot.isWinner() || snapshot.isLoser() || candidates == null) {
+            return;
+        }
+
+        paint = new Paint();
+        paint.setTextAlign(Align.CENTER);
+        paint.setTextSize(Math.min(REMAINING_TEXT_FONT_SIZE,
+                circleArea - vertSpacing));
+        paint.setColor(Color.LTGRAY);
+
+        canvas.drawText(getContext().getString(
+                R.string.message_sequences_remain, candidates.size()),
+                canvas.getWidth() / 2, (circleArea - vertSpacing) / 2
+                        + paint.getTextSize() / 2, paint);
+    }
+
     /**
      * Layout the game board on the supplied canvas.
      * 
      * @param canvas The canvas to update
      */
     private void configView(final Canvas canvas) {
+        GameSnapshot snapshot = gameModel.getSnapshot();
         int canvasWidth = canvas.getWidth();
         int canvasHeight = canvas.getHeight();
         int numberOfClueSpacesNeeded = 
-                (gameModel.getSequenceLength() + (CLUES_PER_GUESS_SPACE - 1))
+                (snapshot.getSequenceLength() + (CLUES_PER_GUESS_SPACE - 1))
                 / CLUES_PER_GUESS_SPACE;
 
         int viewWidth = getWidth();
         int viewHeight = getHeight();
 
         int availWidth = getWidth()
-                / (gameModel.getSequenceLength() + numberOfClueSpacesNeeded);
-        int availHeight = getHeight() / (gameModel.getMaxTrys() + 2);
+                / (snapshot.getSequenceLength() + numberOfClueSpacesNeeded);
+        int availHeight = getHeight() / (snapshot.getMaxTrys() + 2);
 
         int horizSpacing; // = availWidth / 5;
         int vertSpacing; // = availHeight / 12;
@@ -370,7 +661,7 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
 
         int circleArea = Math.min(availWidth, availHeight);
 
-        int xPadding = (getWidth() - ((circleArea + horizSpacing) * (gameModel
+        int xPadding = (getWidth() - ((circleArea + horizSpacing) * (snapshot
                 .getSequenceLength() + numberOfClueSpacesNeeded))) / 2;
 
         runtimeInformation.put("cv circleArea", "" + circleArea);
@@ -388,14 +679,15 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         drawable.draw(canvas);
 
         // drawTimer(canvas, circleArea, vertSpacing);
+        drawSequencesRemaining(canvas, snapshot, circleArea, vertSpacing);
 
-        for (int row = 0; row < gameModel.getMaxTrys(); ++row) {
-            drawRow(canvas, row, xPadding, circleArea, horizSpacing,
-                    vertSpacing, numberOfClueSpacesNeeded);
+        for (int row = 0; row < snapshot.getMaxTrys(); ++row) {
+            drawRow(canvas, snapshot, row, xPadding, circleArea, 
+                    horizSpacing, vertSpacing, numberOfClueSpacesNeeded);
         }
 
         configInput(canvas, circleArea, (horizSpacing + circleArea)
-                * (gameModel.getMaxTrys() + 1));
+                * (snapshot.getMaxTrys() + 1));
     }
 
     /**
@@ -403,6 +695,8 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * 
      * @param canvas
      *            The canvas to draw on
+     * @param snapshot
+     *            The game state to draw
      * @param row
      *            The row to draw
      * @param xPadding
@@ -416,19 +710,20 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * @param numberOfClueSpacesNeeded
      *            The number of guess spaces occupied by the clues
      */
-    private void drawRow(final Canvas canvas, final int row, 
-            final int xPadding, final int circleArea,
+    private void drawRow(final Canvas canvas, final GameSnapshot snapshot,
+            final int row, final int xPadding, final int circleArea,
             final int horizSpacing, final int vertSpacing, 
             final int numberOfClueSpacesNeeded) {
-        for (int clue = 0; row < gameModel.getCurrentTry()
-                && clue < gameModel.getSequenceLength(); ++clue) {
-            configClue(canvas, row, xPadding, clue, circleArea, vertSpacing,
-                    numberOfClueSpacesNeeded);
+        for (int clue = 0; row < snapshot.getCurrentTry()
+                && clue < snapshot.getSequenceLength(); ++clue) {
+            configClue(canvas, snapshot, row, xPadding, clue, circleArea,
+                    vertSpacing, numberOfClueSpacesNeeded);
         }
 
-        for (int tryNum = 0; tryNum < gameModel.getSequenceLength(); ++tryNum) {
-            configTry(canvas, row, xPadding, tryNum, circleArea, horizSpacing,
-                    vertSpacing, numberOfClueSpacesNeeded);
+        for (int tryNum = 0; tryNum < snapshot.getSequenceLength(); 
+                ++tryNum) {
+            configTry(canvas, snapshot, row, xPadding, tryNum, circleArea,
+                    horizSpacing, vertSpacing, numberOfClueSpacesNeeded);
         }
     }
 
@@ -439,6 +734,8 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * 
      * @param canvas
      *            The canvas to draw on
+     * @param snapshot
+     *            The game state to draw
      * @param row
      *            The row to draw
      * @param xPadding
@@ -452,7 +749,8 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * @param numberOfClueSpacesNeeded
      *            The number of guess spaces occupied by the clues
      */
-    private void configClue(final Canvas canvas, final int row, 
+    private void configClue(final Canvas canvas, 
+            final GameSnapshot snapshot, final int row, 
             final int xPadding, final int clueNum,
             final int availArea, final int vertSpacing, 
             final int numberOfClueSpacesNeeded) {
@@ -464,15 +762,15 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         runtimeInformation.put("cc circleArea", "" + circleArea);
 
         int x = circleArea
-                * (clueNum % ((gameModel.getSequenceLength() + 1) / 2));
+                * (clueNum % ((snapshot.getSequenceLength() + 1) / 2));
         if (x > 0) {
-            x = x + (clueNum % ((gameModel.getSequenceLength() + 1) / 2));
+            x = x + (clueNum % ((snapshot.getSequenceLength() + 1) / 2));
         }
         x += xPadding;
 
         int y = (availArea + vertSpacing) * row;
         y += availArea;
-        if (clueNum > ((gameModel.getSequenceLength() - 1) / 2)) {
+        if (clueNum > ((snapshot.getSequenceLength() - 1) / 2)) {
             y += circleArea + 1;
         }
 
@@ -480,12 +778,12 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         int height = circleArea;
 
         // Correct Guess (color and position)
-        if (gameModel.getClueMeaning(row, clueNum) 
+        if (snapshot.getClueMeaning(row, clueNum) 
                 == SequenceHuntGameModel.CLUE_POSIT_CORRECT) {
             mDrawable = new ShapeDrawable(new DiamondShape());
             hasBorder = true;
             // Correct color, incorrect position
-        } else if (gameModel.getClueMeaning(row, clueNum) 
+        } else if (snapshot.getClueMeaning(row, clueNum) 
                 == SequenceHuntGameModel.CLUE_POSIT_INCORRECT) {
             mDrawable = new ShapeDrawable(new TriangleShape());
             hasBorder = true;
@@ -507,17 +805,18 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         }
 
         if (difficultyIsHard
-                || gameModel.getClueMeaning(row, clueNum) 
+                || snapshot.getClueMeaning(row, clueNum) 
                 == SequenceHuntGameModel.CLUE_COMPLETELY_INCORRECT) {
             mDrawable.getPaint().setColor(Color.LTGRAY);
         } else {
             mDrawable.getPaint().setColor(
-                    gameModel.getClueColorCode(row, clueNum));
+                    SequenceHuntGameModel.toDisplayColor(
+                            snapshot.getClueColor(row, clueNum)));
         }
         mDrawable.setBounds(x, y, x + width, y + height);
         mDrawable.draw(canvas);
 
-        if (gameModel.hasClueIncorrect(row, clueNum)) {
+        if (snapshot.hasClueIncorrect(row, clueNum)) {
             mDrawable.getPaint().setColor(Color.BLACK);
             canvas.drawLine(x, y, x + width, y + width, mDrawable.getPaint());
             canvas.drawLine(x, y + width, x + width, y, mDrawable.getPaint());
@@ -529,6 +828,8 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * 
      * @param canvas
      *            The canvas to draw on
+     * @param snapshot
+     *            The game state to draw
      * @param row
      *            The row to report
      * @param xPadding
@@ -544,7 +845,8 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      * @param numberOfClueSpacesNeeded
      *            The number of guess spaces occupied by the clues
      */
-    private void configTry(final Canvas canvas, final int row, 
+    private void configTry(final Canvas canvas, 
+            final GameSnapshot snapshot, final int row, 
             final int xPadding, final int tryNum,
             final int availArea, final int horizSpacing, final int vertSpacing,
             final int numberOfClueSpacesNeeded) {
@@ -559,7 +861,7 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         int width = availArea;
         int height = availArea;
 
-        if (gameModel.hasTryColor(row, tryNum)) {
+        if (snapshot.hasTryColor(row, tryNum)) {
             mDrawable = new ShapeDrawable(new OvalShape());
             mDrawable.getPaint().setColor(Color.WHITE);
             mDrawable.setBounds(x, y, x + width, y + height);
@@ -571,9 +873,23 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         }
 
         mDrawable = new ShapeDrawable(new OvalShape());
-        mDrawable.getPaint().setColor(gameModel.getTryColorCode(row, tryNum));
+        mDrawable.getPaint().setColor(SequenceHuntGameModel.toDisplayColor(
+                snapshot.getTryColor(row, tryNum)));
         mDrawable.setBounds(x, y, x + width, y + height);
         mDrawable.draw(canvas);
+
+        // A hinted color is a smaller circle inside the empty position
+        if (hint != null && row == hintTry 
+                && row == snapshot.getCurrentTry()
+                && !snapshot.hasTryColor(row, tryNum)) {
+            mDrawable.getPaint().setColor(SequenceHuntGameModel
+                    .toDisplayColor(hint.getColor(tryNum)));
+            mDrawable.setBounds(x + width / HINT_INSET_DIVISOR, 
+                    y + height / HINT_INSET_DIVISOR, 
+                    x + width - width / HINT_INSET_DIVISOR, 
+                    y + height - height / HINT_INSET_DIVISOR);
+            mDrawable.draw(canvas);
+        }
     }
 
     /**
@@ -757,6 +1073,7 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
         }
 
         if (theEvent != null) {
+            clearHint();
             if (theEvent == INPUT_DELETE) {
                 gameModel.removeLastGuess();
             } else if (theEvent == INPUT_SUBMIT_GUESS) {
@@ -774,6 +1091,7 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     @Override
     public final void notifyColorChoice(final int color) {
+        clearHint();
         gameModel.addGuess(color);
         invalidate();
     }
@@ -783,6 +1101,7 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     @Override
     public final void notifyDeleteChoice() {
+        clearHint();
         gameModel.removeLastGuess();
         invalidate();
     }
@@ -792,6 +1111,7 @@ public class SequenceGameBoard extends View implements ColorChoiceListener,
      */
     @Override
     public final void notifyTry() {
+        clearHint();
         gameModel.submitGuess();
         invalidate();
     }
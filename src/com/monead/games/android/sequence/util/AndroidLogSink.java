@@ -0,0 +1,62 @@
+package com.monead.games.android.sequence.util;
+
+import com.monead.games.android.sequence.log.GameLog;
+import com.monead.games.android.sequence.log.LogSink;
+
+import android.util.Log;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Write the game's log messages to the Android log.
+ * 
+ * @author David Read
+ *
+ */
+public final class AndroidLogSink implements LogSink {
+    /**
+     * Write a message to the Android log.
+     * 
+     * @param pLevel  The level (GameLog.LEVEL_* constants)
+     * @param pTag  The tag, normally the logging class name
+     * @param pMessage  The formatted message
+     * @param pThrown  An exception to report with the message, may be null
+     */
+    public void write(final int pLevel, final String pTag,
+            final String pMessage, final Throwable pThrown) {
+        switch (pLevel) {
+            case GameLog.LEVEL_ERROR:
+                Log.e(pTag, pMessage, pThrown);
+                break;
+            case GameLog.LEVEL_WARN:
+                Log.w(pTag, pMessage, pThrown);
+                break;
+            case GameLog.LEVEL_INFO:
+                Log.i(pTag, pMessage, pThrown);
+                break;
+            case GameLog.LEVEL_DEBUG:
+                Log.d(pTag, pMessage, pThrown);
+                break;
+            default:
+                Log.v(pTag, pMessage, pThrown);
+        }
+    }
+}
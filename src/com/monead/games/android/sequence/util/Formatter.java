@@ -4,7 +4,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
 
-import android.util.Log;
+import com.monead.games.android.sequence.log.GameLog;
 
 /**
  * Provide formatting services.
@@ -57,13 +57,15 @@ public final class Formatter {
      * @return The converted value
      */
     public String formatTimer(final long milliseconds) {
-        Date tempDate;
+        String result;
 
-        tempDate = new Date(milliseconds);
+        result = timerFormat.format(new Date(milliseconds));
 
-        Log.d(className, "milliseconds [" + milliseconds + "] tempDate ["
-                + tempDate + "] result[" + timerFormat.format(tempDate) + "]");
+        if (GameLog.DEBUG) {
+            GameLog.d(className, "formatTimer milliseconds [{}]",
+                    milliseconds);
+        }
 
-        return timerFormat.format(tempDate);
+        return result;
     }
 }
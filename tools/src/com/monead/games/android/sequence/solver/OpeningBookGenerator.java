@@ -0,0 +1,323 @@
+package com.monead.games.android.sequence.solver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import com.monead.games.android.sequence.core.ClueWord;
+import com.monead.games.android.sequence.core.CodeSpace;
+import com.monead.games.android.sequence.core.ColorFeedback;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.GameSnapshot;
+import com.monead.games.android.sequence.core.RandomSource;
+import com.monead.games.android.sequence.core.SequenceCode;
+import com.monead.games.android.sequence.core.SequenceHuntGame;
+import com.monead.games.android.sequence.core.SplitMixRandom;
+import com.monead.games.android.sequence.core.SwarScorer;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Builds the OpeningBook asset: for every sequence length the app offers,
+ * with and without repeated colors, and for both the hard mode
+ * (MinimaxSolver) and easy mode (EasyModeSolver) hints, the first guess
+ * and the second guess for each clue the first guess can receive.
+ * 
+ * Usage: OpeningBookGenerator [output file [max evaluations]]
+ * 
+ * The output defaults to assets/book/opening.bin, run from the project
+ * directory. The evaluation budget bounds the guesses searched for each
+ * suggestion (see PartitionSolver); the default, ten times the app's,
+ * builds the whole book in about 12 minutes on one core.
+ * 
+ * @author David Read
+ *
+ */
+public final class OpeningBookGenerator {
+    /**
+     * The default output file.
+     */
+    public static final String DEFAULT_OUTPUT = "assets/"
+            + OpeningBook.ASSET_NAME;
+
+    /**
+     * The default evaluation budget for each suggestion.
+     */
+    public static final long DEFAULT_MAX_EVALUATIONS = 20000000L;
+
+    /**
+     * The largest code space searched, 8 positions of 6 colors fit.
+     */
+    private static final int MAX_CODES = 1 << 24;
+
+    /**
+     * Solves the hard mode openings.
+     */
+    private final Solver hardSolver;
+
+    /**
+     * Solves the easy mode openings.
+     */
+    private final Solver easySolver;
+
+    /**
+     * Working buffer: the label of each color in a history.
+     */
+    private final int[] colorMap = new int[SequenceCode.MAX_COLORS];
+
+    /**
+     * Create a generator.
+     * 
+     * @param maxEvaluations  The evaluation budget for each suggestion
+     */
+    public OpeningBookGenerator(final long maxEvaluations) {
+        hardSolver = new ParallelMinimaxSolver(ForkJoinPool.commonPool(),
+                MAX_CODES, maxEvaluations);
+        easySolver = new EasyModeSolver(MAX_CODES, maxEvaluations);
+    }
+
+    /**
+     * Get the rules of every game the app offers, as the board creates
+     * them.
+     * 
+     * @return The rules
+     */
+    public static List<GameRules> getAppRules() {
+        List<GameRules> rules = new ArrayList<GameRules>();
+
+        for (int length = SequenceHuntGame.MINIMUM_SEQUENCE_LENGTH;
+                length <= SequenceHuntGame.MAXIMUM_SEQUENCE_LENGTH; ++length) {
+            rules.add(new GameRules(length, GameRules.DEFAULT_NUM_COLORS,
+                    GameRules.DEFAULT_MAX_TRYS, false));
+            if (length <= GameRules.DEFAULT_NUM_COLORS) {
+                rules.add(new GameRules(length, GameRules.DEFAULT_NUM_COLORS,
+                        GameRules.DEFAULT_MAX_TRYS, true));
+            }
+        }
+
+        return rules;
+    }
+
+    /**
+     * Build the section of the book for a set of rules and clue mode.
+     * 
+     * @param rules  The game rules
+     * @param clueColors  True for the easy mode hints
+     * 
+     * @return The suggestion for each history, in the key's color labels
+     */
+    public Map<HistoryKey, Suggestion> buildSection(final GameRules rules,
+            final boolean clueColors) {
+        Solver solver = clueColors ? easySolver : hardSolver;
+        Map<HistoryKey, Suggestion> entries =
+                new LinkedHashMap<HistoryKey, Suggestion>();
+        Map<Long, Integer> replies = new LinkedHashMap<Long, Integer>();
+        CodeSpace space = CodeSpace.forRules(rules);
+        int length = rules.getSequenceLength();
+        SequenceHuntGame game = new SequenceHuntGame(rules,
+                new SplitMixRandom(0));
+        Suggestion first;
+        long firstGuess;
+        long answer;
+        Long clue;
+
+        first = add(entries, game.getSnapshot(), solver, clueColors);
+        firstGuess = first.getGuess();
+
+        // One answer for each clue the first guess can receive
+        for (int index = 0; index < space.size(); ++index) {
+            answer = space.codeAt(index);
+            if (clueColors) {
+                clue = ColorFeedback.score(firstGuess, answer, length);
+            } else {
+                clue = (long) SwarScorer.score(firstGuess, answer, length);
+            }
+            if (answer != firstGuess && !replies.containsKey(clue)) {
+                replies.put(clue, index);
+            }
+        }
+
+        for (int index : replies.values()) {
+            game = new SequenceHuntGame(rules, new ScriptedRandom(rules,
+                    space.codeAt(index)));
+            for (int posit = 0; posit < length; ++posit) {
+                game.addGuess(first.getColor(posit));
+            }
+            game.submitGuess();
+            if (ClueWord.getFeedback(game.getSnapshot().getClueWord(0))
+                    != SwarScorer.score(firstGuess, space.codeAt(index),
+                            length)) {
+                throw new IllegalStateException("Game did not take answer "
+                        + index);
+            }
+            add(entries, game.getSnapshot(), solver, clueColors);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Solve a history and add it to a section.
+     * 
+     * @param entries  The section's entries
+     * @param snapshot  The state of the game
+     * @param solver  The solver
+     * @param clueColors  True for the easy mode hints
+     * 
+     * @return The suggestion, in the game's colors
+     */
+    private Suggestion add(final Map<HistoryKey, Suggestion> entries,
+            final GameSnapshot snapshot, final Solver solver,
+            final boolean clueColors) {
+        Suggestion suggestion = solver.suggest(snapshot);
+
+        entries.put(HistoryKey.of(snapshot, clueColors, colorMap), suggestion
+                .relabel(snapshot.getSequenceLength(), colorMap));
+
+        return suggestion;
+    }
+
+    /**
+     * Build the book and write it to a file.
+     * 
+     * @param args  The output file and the evaluation budget, both optional
+     * 
+     * @throws IOException  If the book cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        OpeningBookGenerator generator = new OpeningBookGenerator(
+                args.length > 1 ? Long.parseLong(args[1])
+                        : DEFAULT_MAX_EVALUATIONS);
+        List<GameRules> allRules = getAppRules();
+        DataOutputStream out;
+        Map<HistoryKey, Suggestion> section;
+        long start;
+
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+
+        out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(output)));
+        try {
+            OpeningBook.writeHeader(out, 2 * allRules.size());
+            for (GameRules rules : allRules) {
+                for (int mode = 0; mode < 2; ++mode) {
+                    start = System.currentTimeMillis();
+                    section = generator.buildSection(rules, mode == 1);
+                    OpeningBook.writeSection(out, section);
+                    System.out.println(rules + (mode == 1 ? " easy" : " hard")
+                            + ": " + section.size() + " entries in "
+                            + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * A random source that gives scripted values first, so a game can be
+     * played against a chosen answer.
+     */
+    private static final class ScriptedRandom implements RandomSource {
+        /**
+         * Serial Id.
+         */
+        private static final long serialVersionUID = 4206129771583317742L;
+
+        /**
+         * The values to give first.
+         */
+        private final int[] script;
+
+        /**
+         * The source of values after the script.
+         */
+        private final RandomSource random = new SplitMixRandom(0);
+
+        /**
+         * The number of scripted values given.
+         */
+        private int given;
+
+        /**
+         * Create a source that makes a game choose an answer. The game
+         * draws the code space index of the answer if it has unique colors,
+         * otherwise the color of each position in turn.
+         * 
+         * @param rules  The game rules
+         * @param answer  The packed answer (see SequenceCode)
+         */
+        ScriptedRandom(final GameRules rules, final long answer) {
+            if (rules.isUniqueColors()) {
+                script = new int[] {CodeSpace.forRules(rules).indexOf(answer)};
+            } else {
+                script = new int[rules.getSequenceLength()];
+                for (int posit = 0; posit < script.length; ++posit) {
+                    script[posit] = SequenceCode.getColorIndex(answer, posit);
+                }
+            }
+        }
+
+        /**
+         * Get the next scripted value, random values after the script.
+         * 
+         * @param bound  The upper bound
+         * 
+         * @return The value
+         */
+        public int nextInt(final int bound) {
+            if (given < script.length) {
+                return script[given++];
+            }
+
+            return random.nextInt(bound);
+        }
+
+        /**
+         * Get a random value.
+         * 
+         * @return The value
+         */
+        public long nextLong() {
+            return random.nextLong();
+        }
+
+        /**
+         * Split the source of values after the script.
+         * 
+         * @return The new source
+         */
+        public RandomSource split() {
+            return random.split();
+        }
+    }
+}
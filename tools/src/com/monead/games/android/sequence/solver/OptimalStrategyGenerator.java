@@ -0,0 +1,806 @@
+package com.monead.games.android.sequence.solver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.monead.games.android.sequence.core.CodeSpace;
+import com.monead.games.android.sequence.core.FeedbackTable;
+import com.monead.games.android.sequence.core.GameRules;
+import com.monead.games.android.sequence.core.SequenceCode;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Computes the strategy with the fewest guesses on average for the
+ * standard game (4 positions, 6 colors), and writes it as the DecisionTree
+ * asset.
+ * 
+ * Usage: OptimalStrategyGenerator [output file]
+ * 
+ * The cost of a set of candidates is the total number of guesses needed to
+ * solve every one of them. A guess costs one per candidate plus the costs
+ * of the sets it splits the candidates into, and the best guess is found
+ * by branch and bound: every guess (one per symmetry class, see
+ * SymmetryReducer) gets a lower bound from the sizes of its parts, guesses
+ * are tried in order of that bound, and a guess is abandoned once its
+ * parts cost more than the best guess so far. Each search starts from the
+ * cost of the greedy strategy (the guess with the most parts), so pruning
+ * starts with the first guess tried. Costs of sets are memoized, with a
+ * lower bound kept for sets whose search was cut off.
+ * 
+ * The bound for a set of n candidates is the cheapest conceivable split:
+ * the parts as even as the number of feedback values allows, each costing
+ * its own bound. The game's limit on trys is not applied; the optimal
+ * strategy never needs more than six guesses. The search takes a couple
+ * of minutes.
+ * 
+ * @author David Read
+ *
+ */
+public final class OptimalStrategyGenerator {
+    /**
+     * The default output file.
+     */
+    public static final String DEFAULT_OUTPUT = "assets/"
+            + DecisionTree.ASSET_NAME;
+
+    /**
+     * Smaller sets are solved directly instead of memoized.
+     */
+    private static final int MIN_MEMO_SIZE = 3;
+
+    /**
+     * Shift of the lower bound in a sortable guess evaluation.
+     */
+    private static final int BOUND_SHIFT = 32;
+
+    /**
+     * Shift of the not-a-candidate flag in a sortable guess evaluation.
+     */
+    private static final int FLAG_SHIFT = 16;
+
+    /**
+     * Mask of the code space index in a sortable guess evaluation.
+     */
+    private static final int INDEX_MASK = 0xFFFF;
+
+    /**
+     * The sequences.
+     */
+    private final CodeSpace space;
+
+    /**
+     * The feedback for every guess and answer.
+     */
+    private final FeedbackTable table;
+
+    /**
+     * The number of positions.
+     */
+    private final int sequenceLength;
+
+    /**
+     * The number of colors.
+     */
+    private final int numColors;
+
+    /**
+     * The feedback value of a winning guess.
+     */
+    private final int winFeedback;
+
+    /**
+     * The feedback values a guess can receive, other than a win.
+     */
+    private final int[] feedbacks;
+
+    /**
+     * The lower bound on the cost of a set, by its size.
+     */
+    private final int[] lowerBounds;
+
+    /**
+     * The costs found so far, by set.
+     */
+    private final Map<CandidateKey, Cost> costs =
+            new HashMap<CandidateKey, Cost>();
+
+    /**
+     * The number of sets searched, for progress reports.
+     */
+    private long numSearches;
+
+    /**
+     * Create a generator for a set of rules.
+     * 
+     * @param rules  The game rules; the code space must have a feedback
+     *            table
+     */
+    public OptimalStrategyGenerator(final GameRules rules) {
+        boolean[] seen = new boolean[SequenceCode.NUM_FEEDBACK_VALUES];
+        int[] found = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+        int numFeedbacks = 0;
+
+        space = CodeSpace.forRules(rules);
+        table = FeedbackTable.forSpace(space);
+        sequenceLength = rules.getSequenceLength();
+        numColors = rules.getNumColors();
+        winFeedback = SequenceCode.feedback(sequenceLength, 0);
+
+        for (int guess = 0; guess < space.size(); ++guess) {
+            for (int answer = 0; answer < space.size(); ++answer) {
+                seen[table.score(guess, answer)] = true;
+            }
+        }
+        seen[winFeedback] = false;
+
+        for (int feedback = 0; feedback < seen.length; ++feedback) {
+            if (seen[feedback]) {
+                found[numFeedbacks++] = feedback;
+            }
+        }
+
+        feedbacks = Arrays.copyOf(found, numFeedbacks);
+        lowerBounds = createLowerBounds(space.size(), numFeedbacks);
+    }
+
+    /**
+     * Compute the lower bound on the cost of every set size.
+     * 
+     * A set of n costs at least n (one guess each) plus the bounds of the
+     * parts of its best conceivable split: n - 1 candidates if the guess is
+     * one of them, otherwise all n in at least two parts, in either case
+     * spread over at most numParts parts.
+     * 
+     * @param maxSize  The largest set size
+     * @param numParts  The number of feedback values other than a win
+     * 
+     * @return The bounds, indexed by size
+     */
+    private static int[] createLowerBounds(final int maxSize,
+            final int numParts) {
+        int[] bounds = new int[maxSize + 1];
+        // Cheapest total bound of up to p parts holding k candidates
+        int[][] spread = new int[numParts + 1][maxSize + 1];
+        int best;
+
+        for (int parts = 0; parts <= numParts; ++parts) {
+            Arrays.fill(spread[parts], Integer.MAX_VALUE);
+            spread[parts][0] = 0;
+        }
+
+        for (int size = 1; size <= maxSize; ++size) {
+            best = spread[numParts][size - 1];
+            for (int first = 1; first < size && size > 1; ++first) {
+                best = Math.min(best, bounds[first]
+                        + spread[numParts - 1][size - first]);
+            }
+            bounds[size] = size + best;
+
+            for (int parts = 1; parts <= numParts; ++parts) {
+                for (int last = 1; last <= size; ++last) {
+                    if (spread[parts - 1][size - last] < Integer.MAX_VALUE) {
+                        spread[parts][size] = Math.min(spread[parts][size],
+                                spread[parts - 1][size - last]
+                                        + bounds[last]);
+                    }
+                }
+            }
+        }
+
+        return bounds;
+    }
+
+    /**
+     * Solve the whole game.
+     * 
+     * @return The cost of the optimal strategy, the total guesses to solve
+     *         every sequence
+     */
+    public int solve() {
+        return solve(allSequences(), new long[0], Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get every sequence of the code space.
+     * 
+     * @return The code space indexes, ascending
+     */
+    private int[] allSequences() {
+        int[] all = new int[space.size()];
+
+        for (int index = 0; index < all.length; ++index) {
+            all[index] = index;
+        }
+
+        return all;
+    }
+
+    /**
+     * Find the cost of a set of candidates, if it is below a bound.
+     * 
+     * @param candidates  The code space indexes of the candidates, ascending
+     * @param history  The packed trys that left these candidates
+     * @param bound  The cost of interest; larger costs need not be exact
+     * 
+     * @return The cost if below the bound, otherwise a lower bound on it at
+     *         least the bound
+     */
+    private int solve(final int[] candidates, final long[] history,
+            final int bound) {
+        int size = candidates.length;
+        CandidateKey key;
+        Cost known;
+        long[] evaluations;
+        long[] path;
+        int[][] parts;
+        long greedy;
+        int best = bound;
+        int bestGuess = -1;
+        int guess;
+        int guessBound;
+        int total;
+        int remaining;
+
+        if (size < MIN_MEMO_SIZE) {
+            return 2 * size - 1;
+        }
+
+        if (lowerBounds[size] >= bound) {
+            return lowerBounds[size];
+        }
+
+        key = new CandidateKey(candidates);
+        known = costs.get(key);
+        if (known != null && (known.exact || known.value >= bound)) {
+            return known.value;
+        }
+
+        ++numSearches;
+        path = Arrays.copyOf(history, history.length + 1);
+
+        // Start from the greedy strategy's cost, to prune from the outset
+        greedy = greedyCost(candidates, history);
+        if ((int) (greedy >>> BOUND_SHIFT) < best) {
+            best = (int) (greedy >>> BOUND_SHIFT);
+            bestGuess = (int) greedy & INDEX_MASK;
+        }
+
+        evaluations = evaluateGuesses(candidates, history);
+
+        for (long evaluation : evaluations) {
+            guessBound = (int) (evaluation >>> BOUND_SHIFT);
+            if (guessBound >= best) {
+                break;
+            }
+
+            guess = (int) evaluation & INDEX_MASK;
+            path[history.length] = space.codeAt(guess);
+            parts = split(candidates, guess);
+            total = size;
+            remaining = guessBound - size;
+            for (int[] part : parts) {
+                remaining -= lowerBounds[part.length];
+                total += solve(part, path, best - total - remaining);
+                if (total + remaining >= best) {
+                    break;
+                }
+            }
+
+            if (total + remaining < best) {
+                best = total;
+                bestGuess = guess;
+            }
+
+            if (history.length == 0) {
+                System.out.println("First guess "
+                        + formatCode(space.codeAt(guess)) + ": "
+                        + (total + remaining) + ", best " + best + " ("
+                        + numSearches + " searches)");
+            }
+        }
+
+        if (bestGuess >= 0) {
+            costs.put(key, new Cost(best, true, bestGuess));
+            return best;
+        }
+
+        costs.put(key, new Cost(bound, false, -1));
+        return bound;
+    }
+
+    /**
+     * Find the cost of the greedy strategy for a set of candidates, which
+     * makes the guess splitting them into the most parts, preferring
+     * candidates.
+     * 
+     * @param candidates  The candidates, ascending
+     * @param history  The packed trys that left these candidates
+     * 
+     * @return The cost, shifted by BOUND_SHIFT, then the code space index
+     *         of the first guess
+     */
+    private long greedyCost(final int[] candidates, final long[] history) {
+        SymmetryReducer symmetry = new SymmetryReducer(sequenceLength,
+                numColors, history);
+        boolean[] seen = new boolean[SequenceCode.NUM_FEEDBACK_VALUES];
+        long[] path;
+        int size = candidates.length;
+        int mostParts = 0;
+        int bestGuess = -1;
+        int numParts;
+        int feedback;
+        int guess;
+        int total;
+
+        if (size < MIN_MEMO_SIZE) {
+            return ((long) (2 * size - 1) << BOUND_SHIFT) | candidates[0];
+        }
+
+        for (int order = 0; order < size + space.size()
+                && mostParts < size; ++order) {
+            if (order < size) {
+                guess = candidates[order];
+            } else {
+                guess = order - size;
+                if (isMember(candidates, guess)) {
+                    continue;
+                }
+            }
+
+            if (!symmetry.isCanonical(space.codeAt(guess))) {
+                continue;
+            }
+
+            numParts = 0;
+            for (int candidate : candidates) {
+                feedback = table.score(guess, candidate);
+                if (!seen[feedback]) {
+                    seen[feedback] = true;
+                    ++numParts;
+                }
+            }
+            for (int candidate : candidates) {
+                seen[table.score(guess, candidate)] = false;
+            }
+
+            if (numParts > mostParts) {
+                mostParts = numParts;
+                bestGuess = guess;
+            }
+        }
+
+        path = Arrays.copyOf(history, history.length + 1);
+        path[history.length] = space.codeAt(bestGuess);
+        total = size;
+        for (int[] part : split(candidates, bestGuess)) {
+            total += (int) (greedyCost(part, path) >>> BOUND_SHIFT);
+        }
+
+        return ((long) total << BOUND_SHIFT) | bestGuess;
+    }
+
+    /**
+     * Bound the cost of every distinct guess for a set of candidates.
+     * 
+     * @param candidates  The candidates
+     * @param history  The packed trys that left these candidates
+     * 
+     * @return The guesses that split the candidates, each packed as bound,
+     *         then 0 for a candidate and 1 otherwise, then code space index,
+     *         in ascending order; just one guess if it is sure to be best
+     */
+    private long[] evaluateGuesses(final int[] candidates,
+            final long[] history) {
+        SymmetryReducer symmetry = new SymmetryReducer(sequenceLength,
+                numColors, history);
+        int[] counts = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+        long[] evaluations = new long[space.size()];
+        int numEvaluations = 0;
+        int size = candidates.length;
+        int guess;
+        int guessBound;
+        int largest;
+        int largestPart;
+        int count;
+
+        // Candidates first, since they are the likeliest to be best
+        for (int order = 0; order < size + space.size(); ++order) {
+            if (order < size) {
+                guess = candidates[order];
+            } else {
+                guess = order - size;
+                if (isMember(candidates, guess)) {
+                    continue;
+                }
+            }
+
+            if (!symmetry.isCanonical(space.codeAt(guess))) {
+                continue;
+            }
+
+            for (int candidate : candidates) {
+                ++counts[table.score(guess, candidate)];
+            }
+
+            guessBound = size;
+            largest = counts[winFeedback];
+            largestPart = 0;
+            counts[winFeedback] = 0;
+            for (int feedback : feedbacks) {
+                count = counts[feedback];
+                guessBound += lowerBounds[count];
+                largestPart = Math.max(largestPart, count);
+                counts[feedback] = 0;
+            }
+            largest = Math.max(largest, largestPart);
+
+            // A guess leaving every candidate together is no progress
+            if (largest < size) {
+                evaluations[numEvaluations++] = ((long) guessBound
+                        << BOUND_SHIFT)
+                        | ((long) (order < size ? 0 : 1) << FLAG_SHIFT)
+                        | guess;
+            }
+
+            // Parts of one or two cost exactly their bound, so a guess
+            // leaving only those and meeting the set's bound is best
+            if (largestPart <= 2 && guessBound == lowerBounds[size]) {
+                return new long[] {evaluations[numEvaluations - 1]};
+            }
+        }
+
+        evaluations = Arrays.copyOf(evaluations, numEvaluations);
+        Arrays.sort(evaluations);
+        return evaluations;
+    }
+
+    /**
+     * Split a set of candidates by the feedback each gives a guess.
+     * 
+     * @param candidates  The candidates, ascending
+     * @param guess  The code space index of the guess
+     * 
+     * @return The non-empty parts, other than a win, ascending within each
+     *         part and largest part first
+     */
+    private int[][] split(final int[] candidates, final int guess) {
+        int[][] byFeedback = splitByFeedback(candidates, guess);
+        List<int[]> parts = new ArrayList<int[]>();
+        int[][] sorted;
+
+        for (int feedback : feedbacks) {
+            if (byFeedback[feedback] != null) {
+                parts.add(byFeedback[feedback]);
+            }
+        }
+
+        sorted = parts.toArray(new int[parts.size()][]);
+        Arrays.sort(sorted, new Comparator<int[]>() {
+            public int compare(final int[] first, final int[] second) {
+                return second.length - first.length;
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Split a set of candidates by the feedback each gives a guess.
+     * 
+     * @param candidates  The candidates, ascending
+     * @param guess  The code space index of the guess
+     * 
+     * @return The part for each feedback value other than a win, ascending,
+     *         null where empty
+     */
+    private int[][] splitByFeedback(final int[] candidates, final int guess) {
+        int[] counts = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+        int[][] byFeedback = new int[SequenceCode.NUM_FEEDBACK_VALUES][];
+        int[] filled = new int[SequenceCode.NUM_FEEDBACK_VALUES];
+        int feedback;
+
+        for (int candidate : candidates) {
+            ++counts[table.score(guess, candidate)];
+        }
+
+        for (int value : feedbacks) {
+            if (counts[value] > 0) {
+                byFeedback[value] = new int[counts[value]];
+            }
+        }
+
+        for (int candidate : candidates) {
+            feedback = table.score(guess, candidate);
+            if (feedback != winFeedback) {
+                byFeedback[feedback][filled[feedback]++] = candidate;
+            }
+        }
+
+        return byFeedback;
+    }
+
+    /**
+     * Format a sequence with letters for colors, e.g. AABC.
+     * 
+     * @param code  The packed sequence (see SequenceCode)
+     * 
+     * @return The sequence's letters
+     */
+    private String formatCode(final long code) {
+        StringBuilder letters = new StringBuilder();
+
+        for (int posit = 0; posit < sequenceLength; ++posit) {
+            letters.append((char) ('A' + SequenceCode.getColorIndex(code,
+                    posit)));
+        }
+
+        return letters.toString();
+    }
+
+    /**
+     * Build the tree of the optimal strategy, breadth first. Sets too small
+     * to be memoized guess their first candidate, which is optimal for
+     * them.
+     * 
+     * @return The tree
+     */
+    public DecisionTree buildTree() {
+        int total = solve();
+        List<int[]> sets = new ArrayList<int[]>();
+        List<long[]> paths = new ArrayList<long[]>();
+        // A node is reached by each of its candidates, so no more than the
+        // total guesses are needed
+        int[] guesses = new int[total];
+        int[] numCandidates = new int[total];
+        int[] totalGuesses = new int[total];
+        boolean[] candidates = new boolean[total];
+        long[] childMasks = new long[total];
+        int[] firstChildren = new int[total];
+        int[] set;
+        long[] path;
+        int guess;
+        int[][] byFeedback;
+
+        sets.add(allSequences());
+        paths.add(new long[0]);
+
+        for (int node = 0; node < sets.size(); ++node) {
+            set = sets.get(node);
+            path = paths.get(node);
+            totalGuesses[node] = solve(set, path, Integer.MAX_VALUE);
+            if (set.length < MIN_MEMO_SIZE) {
+                guess = set[0];
+            } else {
+                guess = costs.get(new CandidateKey(set)).guess;
+            }
+
+            guesses[node] = (int) labelGuess(path, space.codeAt(guess));
+            numCandidates[node] = set.length;
+            candidates[node] = isMember(set, guess);
+            firstChildren[node] = sets.size();
+
+            path = Arrays.copyOf(path, path.length + 1);
+            path[path.length - 1] = space.codeAt(guess);
+            byFeedback = splitByFeedback(set, guess);
+            for (int feedback : feedbacks) {
+                if (byFeedback[feedback] != null) {
+                    childMasks[node] |= 1L << DecisionTree.childBit(
+                            sequenceLength, feedback);
+                    sets.add(byFeedback[feedback]);
+                    paths.add(path);
+                }
+            }
+        }
+
+        return new DecisionTree(sequenceLength, numColors, Arrays.copyOf(
+                guesses, sets.size()), Arrays.copyOf(numCandidates,
+                sets.size()), Arrays.copyOf(totalGuesses, sets.size()),
+                Arrays.copyOf(candidates, sets.size()), Arrays.copyOf(
+                        childMasks, sets.size()), Arrays.copyOf(
+                        firstChildren, sets.size()));
+    }
+
+    /**
+     * Relabel a guess's colors in order of first use in the path to it and
+     * the guess itself, as HistoryKey labels a game's trys.
+     * 
+     * @param path  The packed trys leading to the guess
+     * @param guessCode  The packed guess (see SequenceCode)
+     * 
+     * @return The packed relabeled guess
+     */
+    private long labelGuess(final long[] path, final long guessCode) {
+        int[] colorMap = new int[numColors];
+        long[] codes = Arrays.copyOf(path, path.length + 1);
+        int nextLabel = 0;
+        int colorIndex;
+
+        Arrays.fill(colorMap, -1);
+        codes[path.length] = guessCode;
+        for (long code : codes) {
+            for (int posit = 0; posit < sequenceLength; ++posit) {
+                colorIndex = SequenceCode.getColorIndex(code, posit);
+                if (colorMap[colorIndex] < 0) {
+                    colorMap[colorIndex] = nextLabel++;
+                }
+            }
+        }
+
+        for (colorIndex = 0; colorIndex < numColors; ++colorIndex) {
+            if (colorMap[colorIndex] < 0) {
+                colorMap[colorIndex] = nextLabel++;
+            }
+        }
+
+        return HistoryKey.relabel(guessCode, sequenceLength, colorMap);
+    }
+
+    /**
+     * Determine whether a guess is one of a set of candidates.
+     * 
+     * @param candidates  The candidates, ascending
+     * @param guess  The code space index of the guess
+     * 
+     * @return True if the guess is a candidate
+     */
+    private static boolean isMember(final int[] candidates,
+            final int guess) {
+        return Arrays.binarySearch(candidates, guess) >= 0;
+    }
+
+    /**
+     * Get the number of sets searched so far.
+     * 
+     * @return The number of searches
+     */
+    public long getNumSearches() {
+        return numSearches;
+    }
+
+    /**
+     * Compute the optimal strategy and write it.
+     * 
+     * @param args  The output file, optional
+     * 
+     * @throws IOException  If the tree cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        OptimalStrategyGenerator generator = new OptimalStrategyGenerator(
+                new GameRules(DecisionTree.SEQUENCE_LENGTH));
+        long start = System.currentTimeMillis();
+        DecisionTree tree = generator.buildTree();
+        DataOutputStream out;
+
+        System.out.println("Total " + tree.getTotalGuesses(DecisionTree.ROOT)
+                + " guesses for " + tree.getNumCandidates(DecisionTree.ROOT)
+                + " sequences (average "
+                + tree.getExpectedGuesses(DecisionTree.ROOT) + "), "
+                + tree.size() + " nodes, " + generator.getNumSearches()
+                + " searches in " + (System.currentTimeMillis() - start)
+                + "ms");
+
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+
+        out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(output)));
+        try {
+            tree.write(out);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * The cost found for a set of candidates.
+     */
+    private static final class Cost {
+        /**
+         * The cost, or a lower bound on it.
+         */
+        private final int value;
+
+        /**
+         * Whether the value is the exact cost.
+         */
+        private final boolean exact;
+
+        /**
+         * The code space index of the best guess, if exact.
+         */
+        private final int guess;
+
+        /**
+         * Create a cost.
+         * 
+         * @param pValue  The cost, or a lower bound on it
+         * @param pExact  Whether the value is the exact cost
+         * @param pGuess  The code space index of the best guess, if exact
+         */
+        Cost(final int pValue, final boolean pExact, final int pGuess) {
+            value = pValue;
+            exact = pExact;
+            guess = pGuess;
+        }
+    }
+
+    /**
+     * A set of candidates as a hash key.
+     */
+    private static final class CandidateKey {
+        /**
+         * The code space indexes of the candidates, ascending.
+         */
+        private final int[] candidates;
+
+        /**
+         * The hash of the candidates.
+         */
+        private final int hash;
+
+        /**
+         * Create a key.
+         * 
+         * @param pCandidates  The candidates, ascending, owned by the key
+         */
+        CandidateKey(final int[] pCandidates) {
+            candidates = pCandidates;
+            hash = Arrays.hashCode(pCandidates);
+        }
+
+        /**
+         * Compare to another key.
+         * 
+         * @param other  The object to compare to
+         * 
+         * @return True if the other is a key for the same candidates
+         */
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof CandidateKey
+                    && hash == ((CandidateKey) other).hash
+                    && Arrays.equals(candidates,
+                            ((CandidateKey) other).candidates);
+        }
+
+        /**
+         * Get a hash code consistent with equals().
+         * 
+         * @return The hash code
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.monead.games.android.sequence.solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.monead.games.android.sequence.core.FeedbackTable;
+
+/**
+ * Copyright 2011, David S. Read
+ * 
+ * This file is part of Sequence Hunt.
+ *
+ * Sequence Hunt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Sequence Hunt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Sequence Hunt.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+/**
+ * Knuth's minimax solver with the guess search split across a ForkJoinPool,
+ * for analysis of the longer sequences (6 to 8 positions, up to 1.68M
+ * sequences) on multi-core machines.
+ * 
+ * The guesses are split into ranges, each searched as a fork/join task.
+ * Each worker thread keeps its own partition counter, so the count buffers
+ * are never shared. The best worst case found so far is shared, letting
+ * every worker abandon guesses that cannot win. The ranges' best guesses
+ * are merged so that the suggestion is the same one MinimaxSolver gives.
+ * 
+ * This class is part of the tools and is not built into the app: Android
+ * (API level 8) has no ForkJoinPool.
+ * 
+ * @author David Read
+ *
+ */
+public class ParallelMinimaxSolver extends MinimaxSolver {
+    /**
+     * The default largest code space, 8 positions of 8 colors fit.
+     */
+    public static final int DEFAULT_MAX_CODES = 1 << 24;
+
+    /**
+     * The default evaluation budget, sized for a server.
+     */
+    public static final long DEFAULT_MAX_EVALUATIONS = 20000000000L;
+
+    /**
+     * Ranges with fewer guesses than this are searched without splitting.
+     */
+    private static final int MIN_GUESSES_TO_SPLIT = 64;
+
+    /**
+     * The pool the searches run in.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a solver with the default limits, using the common pool.
+     */
+    public ParallelMinimaxSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_CODES,
+                DEFAULT_MAX_EVALUATIONS);
+    }
+
+    /**
+     * Create a solver.
+     * 
+     * @param pPool  The pool to run the searches in
+     * @param pMaxCodes  The largest code space the solver will work in
+     * @param pMaxEvaluations  The most guess and candidate pairs to score for
+     *            one suggestion
+     */
+    public ParallelMinimaxSolver(final ForkJoinPool pPool,
+            final int pMaxCodes, final long pMaxEvaluations) {
+        super(pMaxCodes, pMaxEvaluations);
+        pool = pPool;
+    }
+
+    /**
+     * Choose the guess with the smallest worst case, searching in parallel.
+     * 
+     * @param candidates  The candidates
+     * @param table  The feedback table for the code space, may be null
+     * @param guesses  The guesses to choose from
+     * @param limit  The deadline and cancellation flag for the search
+     * 
+     * @return The suggested guess
+     */
+    @Override
+    protected Suggestion choose(final Candidates candidates,
+            final FeedbackTable table, final Guesses guesses,
+            final SearchLimit limit) {
+        Search search = new Search(candidates, table, guesses, limit);
+
+        return pool.invoke(new SearchTask(search, 0, guesses.size()))
+                .toSuggestion(candidates.size());
+    }
+
+    /**
+     * The state shared by the tasks of one search.
+     */
+    private final class Search {
+        /**
+         * The candidates.
+         */
+        private final Candidates candidates;
+
+        /**
+         * The feedback table, may be null.
+         */
+        private final FeedbackTable table;
+
+        /**
+         * The guesses to search.
+         */
+        private final Guesses guesses;
+
+        /**
+         * The deadline and cancellation flag for the search.
+         */
+        private final SearchLimit limit;
+
+        /**
+         * The smallest worst case found so far by any task.
+         */
+        private final AtomicInteger bestWorstCase = new AtomicInteger(
+                Integer.MAX_VALUE);
+
+        /**
+         * Each worker thread's partition counter for this search.
+         */
+        private final ThreadLocal<PartitionCounter> counters;
+
+        /**
+         * Create the search state.
+         * 
+         * @param pCandidates  The candidates
+         * @param pTable  The feedback table, may be null
+         * @param pGuesses  The guesses to search
+         * @param pLimit  The deadline and cancellation flag for the search
+         */
+        Search(final Candidates pCandidates, final FeedbackTable pTable,
+                final Guesses pGuesses, final SearchLimit pLimit) {
+            candidates = pCandidates;
+            table = pTable;
+            guesses = pGuesses;
+            limit = pLimit;
+            counters = new ThreadLocal<PartitionCounter>() {
+                @Override
+                protected PartitionCounter initialValue() {
+                    return new PartitionCounter(candidates, table);
+                }
+            };
+        }
+
+        /**
+         * Search a range of guesses on the current thread.
+         * 
+         * @param from  The first guess
+         * @param to  The guess after the last one
+         * 
+         * @return The best guess in the range, null if none could be best
+         */
+        MinimaxChoice searchRange(final int from, final int to) {
+            MinimaxChoice best = searchGuesses(candidates, table,
+                    counters.get(), guesses, from, to, bestWorstCase.get(),
+                    limit);
+            int shared;
+
+            if (best != null) {
+                shared = bestWorstCase.get();
+                while (best.getWorstCase() < shared
+                        && !bestWorstCase.compareAndSet(shared,
+                                best.getWorstCase())) {
+                    shared = bestWorstCase.get();
+                }
+            }
+
+            return best;
+        }
+    }
+
+    /**
+     * Search a range of guesses, splitting it in half until it is small.
+     */
+    private static final class SearchTask extends
+            RecursiveTask<MinimaxChoice> {
+        /**
+         * Serial Id, required since tasks are serializable.
+         */
+        private static final long serialVersionUID = 6419820337741505163L;
+
+        /**
+         * The search this task is part of.
+         */
+        private final transient Search search;
+
+        /**
+         * The first guess.
+         */
+        private final int from;
+
+        /**
+         * The guess after the last one.
+         */
+        private final int to;
+
+        /**
+         * Create the task.
+         * 
+         * @param pSearch  The search this task is part of
+         * @param pFrom  The first guess
+         * @param pTo  The guess after the last one
+         */
+        SearchTask(final Search pSearch, final int pFrom, final int pTo) {
+            search = pSearch;
+            from = pFrom;
+            to = pTo;
+        }
+
+        /**
+         * Search the range, or split it and merge the halves' results.
+         * 
+         * @return The best guess in the range, null if none could be best
+         */
+        @Override
+        protected MinimaxChoice compute() {
+            SearchTask first;
+            MinimaxChoice second;
+            MinimaxChoice best;
+            int middle;
+
+            if (to - from < MIN_GUESSES_TO_SPLIT) {
+                return search.searchRange(from, to);
+            }
+
+            middle = (from + to) >>> 1;
+            first = new SearchTask(search, from, middle);
+            first.fork();
+            second = new SearchTask(search, middle, to).compute();
+            best = first.join();
+
+            return second != null && second.isBetterThan(best) ? second
+                    : best;
+        }
+    }
+}